@@ -0,0 +1,34 @@
+plugins {
+    java
+    id("org.cadixdev.licenser")
+    id("me.champeau.jmh") version "0.6.6"
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_1_8
+    targetCompatibility = JavaVersion.VERSION_1_8
+}
+
+repositories {
+    mavenCentral()
+
+    maven {
+        name = "Fabric"
+        url = uri("https://maven.fabricmc.net")
+    }
+}
+
+dependencies {
+    implementation(project(":"))
+    jmh(testFixtures(project(":")))
+    jmh(group = "net.fabricmc", name = "lorenz-tiny", version = "3.0.0")
+}
+
+jmh {
+    // Report allocation rates next to the timings
+    profilers.add("gc")
+}
+
+license {
+    header(rootProject.file("HEADER.txt"))
+}
@@ -0,0 +1,76 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package juuxel.ripple.benchmarks;
+
+import juuxel.ripple.generator.MappingGenerator;
+import juuxel.ripple.generator.MappingShape;
+import juuxel.ripple.processor.NameProcessor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Deterministic inputs for the benchmarks.
+ *
+ * <p>All inputs come from a {@link MappingGenerator} with a fixed seed,
+ * so every benchmark run and every fork sees the same data.
+ */
+final class BenchmarkData {
+    private static final long SEED = 0;
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * Creates a generator with the default {@link MappingShape}.
+     *
+     * @return the generator
+     */
+    static MappingGenerator generator() {
+        return new MappingGenerator(MappingShape.builder().build(), SEED);
+    }
+
+    /**
+     * Creates a generator with the default {@link MappingShape} and a custom class count.
+     *
+     * @param classCount the number of top-level classes
+     * @return the generator
+     */
+    static MappingGenerator generator(int classCount) {
+        return new MappingGenerator(MappingShape.builder().classCount(classCount).build(), SEED);
+    }
+
+    /**
+     * Creates a mix of exact, substring and filtered rename rules.
+     *
+     * @param generator the generator
+     * @param count     the number of rules
+     * @return the rules
+     */
+    static List<NameProcessor<?>> mixedRules(MappingGenerator generator, int count) {
+        return generator.generateRules(count, 0.2, 0.1);
+    }
+
+    /**
+     * Returns the vocabulary words that only contain letters.
+     * Numbered words would be split at the digits by word-based processors.
+     *
+     * @param generator the generator
+     * @return the words
+     */
+    static List<String> letterWords(MappingGenerator generator) {
+        List<String> words = new ArrayList<>();
+
+        for (String word : generator.getVocabulary()) {
+            if (word.chars().allMatch(Character::isLetter)) {
+                words.add(word);
+            }
+        }
+
+        return words;
+    }
+}
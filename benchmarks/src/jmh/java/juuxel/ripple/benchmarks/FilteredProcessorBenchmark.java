@@ -0,0 +1,53 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package juuxel.ripple.benchmarks;
+
+import juuxel.ripple.NameType;
+import juuxel.ripple.processor.FilteredProcessor;
+import juuxel.ripple.processor.RenameRule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.EnumSet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the overhead of wrapping a {@link RenameRule} in a {@link FilteredProcessor}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class FilteredProcessorBenchmark {
+    private final RenameRule rule = new RenameRule("BlockEntity", "TileEntity");
+    private final FilteredProcessor<RenameRule> filtered = new FilteredProcessor<>(rule, EnumSet.of(NameType.METHOD, NameType.FIELD));
+    private final String name = "getBlockEntity";
+
+    @Benchmark
+    public String unfiltered() {
+        return rule.process(name, NameType.METHOD);
+    }
+
+    @Benchmark
+    public String filteredAccepted() {
+        return filtered.process(name, NameType.METHOD);
+    }
+
+    @Benchmark
+    public String filteredRejected() {
+        return filtered.process(name, NameType.PARAMETER);
+    }
+}
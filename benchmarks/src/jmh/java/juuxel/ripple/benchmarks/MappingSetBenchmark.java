@@ -0,0 +1,65 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package juuxel.ripple.benchmarks;
+
+import juuxel.ripple.Ripple;
+import juuxel.ripple.generator.MappingGenerator;
+import org.cadixdev.lorenz.MappingSet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link Ripple#process(MappingSet)} on large synthetic mapping sets.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MappingSetBenchmark {
+    @Param({"1000", "100000"})
+    public int classCount;
+
+    @Param({"false", "true"})
+    public boolean compile;
+
+    @Param({"false", "true"})
+    public boolean parallel;
+
+    private Ripple ripple;
+    private MappingSet mappings;
+
+    @Setup
+    public void setup() {
+        MappingGenerator generator = BenchmarkData.generator(classCount);
+        Ripple.Builder builder = Ripple.builder(BenchmarkData.mixedRules(generator, 100)).compile(compile);
+
+        if (parallel) {
+            builder.parallel();
+        }
+
+        ripple = builder.build();
+        mappings = generator.generateMappingSet();
+    }
+
+    @Benchmark
+    public MappingSet process() {
+        return ripple.process(mappings);
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package juuxel.ripple.benchmarks;
+
+import juuxel.ripple.NameType;
+import juuxel.ripple.processor.RenameRule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures a single {@link RenameRule} on a name that it does or doesn't change.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RenameRuleBenchmark {
+    @Param({"false", "true"})
+    public boolean exact;
+
+    @Param({"false", "true"})
+    public boolean matching;
+
+    private RenameRule rule;
+    private String name;
+
+    @Setup
+    public void setup() {
+        rule = exact
+            ? new RenameRule("getBlockEntity", "getTileEntity", true)
+            : new RenameRule("BlockEntity", "TileEntity");
+        name = matching ? "getBlockEntity" : "getItemStack";
+    }
+
+    @Benchmark
+    public String process() {
+        return rule.process(name, NameType.METHOD);
+    }
+}
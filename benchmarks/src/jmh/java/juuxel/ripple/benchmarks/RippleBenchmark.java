@@ -0,0 +1,66 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package juuxel.ripple.benchmarks;
+
+import juuxel.ripple.NameType;
+import juuxel.ripple.Ripple;
+import juuxel.ripple.generator.MappingGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link Ripple#process(String, NameType)} with chains of rename rules of different lengths.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RippleBenchmark {
+    private static final int NAME_COUNT = 1024;
+
+    @Param({"10", "100", "10000"})
+    public int ruleCount;
+
+    @Param({"false", "true"})
+    public boolean exact;
+
+    @Param({"false", "true"})
+    public boolean compile;
+
+    private Ripple ripple;
+    private String[] names;
+
+    @Setup
+    public void setup() {
+        MappingGenerator generator = BenchmarkData.generator();
+        ripple = Ripple.builder(generator.generateRules(ruleCount, exact ? 1 : 0, 0)).compile(compile).build();
+        names = generator.generateMethodNames(NAME_COUNT);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NAME_COUNT)
+    public void process(Blackhole blackhole) {
+        for (String name : names) {
+            blackhole.consume(ripple.process(name, NameType.METHOD));
+        }
+    }
+}
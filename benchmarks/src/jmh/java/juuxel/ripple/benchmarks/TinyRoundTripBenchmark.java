@@ -0,0 +1,99 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package juuxel.ripple.benchmarks;
+
+import juuxel.ripple.Ripple;
+import juuxel.ripple.generator.MappingGenerator;
+import juuxel.ripple.tiny.MappedTinyRewriter;
+import juuxel.ripple.tiny.TinyRewriter;
+import net.fabricmc.lorenztiny.TinyMappingFormat;
+import org.cadixdev.lorenz.MappingSet;
+import org.cadixdev.lorenz.io.MappingsReader;
+import org.cadixdev.lorenz.io.MappingsWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures reading, processing and writing a Tiny file, through Lorenz and the Tiny rewriters.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TinyRoundTripBenchmark {
+    @Param({"10000"})
+    public int classCount;
+
+    @Param({"1", "2"})
+    public int tinyVersion;
+
+    @Param({"false", "true"})
+    public boolean compile;
+
+    private TinyMappingFormat format;
+    private Ripple ripple;
+    private Path input;
+    private Path output;
+
+    @Setup
+    public void setup() throws IOException {
+        MappingGenerator generator = BenchmarkData.generator(classCount);
+        format = tinyVersion == 1 ? TinyMappingFormat.LEGACY : TinyMappingFormat.STANDARD;
+        ripple = Ripple.builder(BenchmarkData.mixedRules(generator, 100)).compile(compile).build();
+        input = Files.createTempFile("ripple-benchmark", ".tiny");
+        output = Files.createTempFile("ripple-benchmark", ".tiny");
+        generator.writeTiny(input, tinyVersion);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(input);
+        Files.deleteIfExists(output);
+    }
+
+    @Benchmark
+    public void lorenz() throws IOException {
+        MappingSet mappings;
+        try (MappingsReader reader = format.createReader(input, MappingGenerator.INTERMEDIARY, MappingGenerator.NAMED)) {
+            mappings = reader.read();
+        }
+
+        try (Writer writer = Files.newBufferedWriter(output, StandardCharsets.UTF_8);
+             MappingsWriter mappingsWriter = format.createWriter(writer, MappingGenerator.INTERMEDIARY, MappingGenerator.NAMED)) {
+            mappingsWriter.write(ripple.process(mappings));
+        }
+    }
+
+    @Benchmark
+    public void streaming() throws IOException {
+        new TinyRewriter(ripple, MappingGenerator.NAMED).rewrite(input, output);
+    }
+
+    @Benchmark
+    public void mapped() throws IOException {
+        new MappedTinyRewriter(ripple, MappingGenerator.NAMED).rewrite(input, output);
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package juuxel.ripple.benchmarks;
+
+import juuxel.ripple.NameType;
+import juuxel.ripple.Ripple;
+import juuxel.ripple.generator.MappingGenerator;
+import juuxel.ripple.processor.NameProcessor;
+import juuxel.ripple.processor.RenameRule;
+import juuxel.ripple.processor.WordRenamer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares a {@link WordRenamer} to the equivalent {@linkplain RenameRule#expand() expanded} rename rules,
+ * with and without compiling them.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class WordRenamerBenchmark {
+    private static final int NAME_COUNT = 1024;
+
+    @Param({"10", "100", "1000"})
+    public int ruleCount;
+
+    @Param({"expanded", "compiled", "words"})
+    public String implementation;
+
+    private Ripple ripple;
+    private String[] names;
+
+    @Setup
+    public void setup() {
+        MappingGenerator generator = BenchmarkData.generator();
+        List<String> words = BenchmarkData.letterWords(generator);
+
+        Map<String, String> rules = new LinkedHashMap<>();
+        for (int i = 0; i < ruleCount; i++) {
+            rules.put(words.get(i), words.get(words.size() - 1 - i));
+        }
+
+        List<NameProcessor<?>> processors = new ArrayList<>();
+
+        if (implementation.equals("words")) {
+            processors.add(new WordRenamer(rules));
+        } else {
+            rules.forEach((from, to) -> new RenameRule(from, to).expand().forEach(processors::add));
+        }
+
+        ripple = Ripple.builder(processors).compile(implementation.equals("compiled")).build();
+        names = generator.generateMethodNames(NAME_COUNT);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NAME_COUNT)
+    public void process(Blackhole blackhole) {
+        for (String name : names) {
+            blackhole.consume(ripple.process(name, NameType.METHOD));
+        }
+    }
+}
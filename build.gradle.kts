@@ -1,5 +1,6 @@
 plugins {
     `java-library`
+    `java-test-fixtures`
     `maven-publish`
     signing
     id("org.cadixdev.licenser") version "0.6.1"
@@ -94,18 +95,36 @@ java {
 
 repositories {
     mavenCentral()
+
+    maven {
+        name = "Fabric"
+        url = uri("https://maven.fabricmc.net")
+    }
 }
 
 dependencies {
     api(group = "org.cadixdev", name = "lorenz", version = "0.5.6")
     api(group = "org.jetbrains", name = "annotations", version = "20.1.0")
     api(group = "blue.endless", name = "jankson", version = "1.2.0")
+
+    testImplementation(group = "org.junit.jupiter", name = "junit-jupiter", version = "5.8.2")
+    testImplementation(group = "net.fabricmc", name = "lorenz-tiny", version = "3.0.0")
 }
 
 tasks.jar {
     from(file("LICENSE"))
 }
 
+tasks.test {
+    useJUnitPlatform()
+}
+
+// The test fixtures (the mapping generator) are shared with the benchmarks, but not published
+(components["java"] as AdhocComponentWithVariants).apply {
+    withVariantsFromConfiguration(configurations["testFixturesApiElements"]) { skip() }
+    withVariantsFromConfiguration(configurations["testFixturesRuntimeElements"]) { skip() }
+}
+
 license {
     header(file("HEADER.txt"))
 }
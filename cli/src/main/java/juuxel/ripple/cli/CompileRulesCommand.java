@@ -0,0 +1,53 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package juuxel.ripple.cli;
+
+import juuxel.ripple.processor.BinaryRuleSet;
+import juuxel.ripple.processor.NameProcessor;
+import picocli.CommandLine;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+@CommandLine.Command(name = "compile-rules", mixinStandardHelpOptions = true, description = "Compiles a rule file into a binary rule set that loads faster.")
+final class CompileRulesCommand implements Callable<Integer> {
+    @CommandLine.Option(names = {"-r", "--rules"}, description = "rename rule file", required = true)
+    private Path rules;
+
+    @CommandLine.Option(names = "-o", description = "output binary rule set file", required = true)
+    private Path output;
+
+    @CommandLine.Option(names = "--optimise", description = "remove rules that do nothing and merge duplicate rules before compiling")
+    private boolean optimise;
+
+    @CommandLine.Option(names = {"-v", "--verbose"}, description = "print optimiser statistics and a summary to stderr")
+    private boolean verbose;
+
+    @Override
+    public Integer call() throws Exception {
+        if (Files.notExists(rules)) {
+            System.err.println("Rule file '" + rules + "' does not exist.");
+            return 1;
+        }
+
+        List<? extends NameProcessor<?>> nameProcessors = Main.readRules(rules);
+
+        if (optimise) {
+            nameProcessors = Main.optimise(nameProcessors, verbose);
+        }
+
+        BinaryRuleSet.write(nameProcessors, output);
+
+        if (verbose) {
+            System.err.println("Compiled " + nameProcessors.size() + " processors into '" + output + "'");
+        }
+
+        return 0;
+    }
+}
@@ -7,9 +7,16 @@
 package juuxel.ripple.cli;
 
 import blue.endless.jankson.*;
+import blue.endless.jankson.api.SyntaxError;
+import juuxel.ripple.IncrementalCache;
 import juuxel.ripple.Ripple;
+import juuxel.ripple.jfr.RippleEvent;
+import juuxel.ripple.pipeline.PipelineOptimiser;
+import juuxel.ripple.processor.BinaryRuleSet;
 import juuxel.ripple.processor.NameProcessor;
 import juuxel.ripple.processor.NameProcessorIo;
+import juuxel.ripple.tiny.MappedTinyRewriter;
+import juuxel.ripple.tiny.TinyRewriter;
 import net.fabricmc.lorenztiny.TinyMappingFormat;
 import org.cadixdev.lorenz.MappingSet;
 import org.cadixdev.lorenz.io.MappingFormat;
@@ -31,18 +38,19 @@ import java.util.Optional;
 import java.util.concurrent.Callable;
 import java.util.stream.Collectors;
 
-@CommandLine.Command(name = "ripple", mixinStandardHelpOptions = true)
+@CommandLine.Command(name = "ripple", mixinStandardHelpOptions = true, subcommands = CompileRulesCommand.class)
 public final class Main implements Callable<Integer> {
-    @CommandLine.Option(names = "-i", description = "input mappings file", required = true)
+    // The options below are required when processing mappings, but not for subcommands
+    @CommandLine.Option(names = "-i", description = "input mappings file")
     private Path input;
 
-    @CommandLine.Option(names = {"-r", "--rules"}, description = "rename rule file", required = true)
+    @CommandLine.Option(names = {"-r", "--rules"}, description = "rename rule file, either JSON or a compiled binary rule set")
     private Path rules;
 
-    @CommandLine.Option(names = "-o", description = "output mappings file", required = true)
+    @CommandLine.Option(names = "-o", description = "output mappings file")
     private Path output;
 
-    @CommandLine.Option(names = {"-f", "--input-format"}, description = "input mapping format", required = true)
+    @CommandLine.Option(names = {"-f", "--input-format"}, description = "input mapping format")
     private String inputFormat;
 
     @CommandLine.Option(names = "--output-format", description = "output mapping format (will use input format if missing)")
@@ -51,8 +59,43 @@ public final class Main implements Callable<Integer> {
     @CommandLine.Option(names = "--expanded-rules-output", description = "an optional file where to write the expanded rename rules")
     private @Nullable Path expandedRulesOutput;
 
+    @CommandLine.Option(names = "--optimise", description = "remove rules that do nothing and merge duplicate rules before processing (also affects --expanded-rules-output)")
+    private boolean optimise;
+
+    @CommandLine.Option(names = "--compile", description = "compile the rules into an optimised pipeline before processing")
+    private boolean compile;
+
+    @CommandLine.Option(names = "--parallel", description = "process the top-level classes in parallel")
+    private boolean parallel;
+
+    @CommandLine.Option(names = "--cache-size", description = "the maximum number of processed names to cache (disabled by default)")
+    private int cacheSize;
+
+    @CommandLine.Option(names = "--incremental-cache", description = "a file for reusing processed names between runs, created if missing")
+    private @Nullable Path incrementalCachePath;
+
+    @CommandLine.Option(names = "--report", description = "an optional file where to write a JSON report of the time spent in each processor (disables --compile)")
+    private @Nullable Path report;
+
+    @CommandLine.Option(names = "--in-place", description = "modify the read mappings instead of creating a processed copy, reducing memory use")
+    private boolean inPlace;
+
+    @CommandLine.Option(names = "--streaming", description = "rewrite Tiny files line by line without Lorenz (requires the same Tiny format for input and output). Only the names of the 'to' namespace are processed, and all namespaces and comments are kept in the output.")
+    private boolean streaming;
+
+    @CommandLine.Option(names = "--mapped", description = "memory-map Tiny files when streaming them (implies --compile, which lets unchanged names be skipped without decoding them)")
+    private boolean mapped;
+
+    @CommandLine.Option(names = {"-v", "--verbose"}, description = "print cache and optimiser statistics to stderr")
+    private boolean verbose;
+
     @Override
     public Integer call() throws Exception {
+        if (input == null || rules == null || output == null || inputFormat == null) {
+            System.err.println("Missing required options: -i, -r, -o and -f are required for processing mappings.");
+            return 1;
+        }
+
         if (this.outputFormat == null) {
             this.outputFormat = this.inputFormat;
         }
@@ -69,28 +112,97 @@ public final class Main implements Callable<Integer> {
         } else if (Files.notExists(input)) {
             System.err.println("Input file '" + input + "' does not exist.");
             return 1;
-        }else if (Files.notExists(rules)) {
+        } else if (Files.notExists(rules)) {
             System.err.println("Rule file '" + rules + "' does not exist.");
             return 1;
+        } else if (mapped && !streaming) {
+            System.err.println("--mapped can only be used with --streaming.");
+            return 1;
+        } else if (streaming) {
+            if (!(inputFormat instanceof TinyMappingFormatWrapper) || !this.inputFormat.equals(this.outputFormat)) {
+                System.err.println("--streaming requires the same Tiny format for input and output.");
+                return 1;
+            } else if (inPlace || parallel) {
+                System.err.println("--in-place and --parallel can't be used with --streaming.");
+                return 1;
+            }
         }
 
-        List<? extends NameProcessor<?>> nameProcessors;
+        List<? extends NameProcessor<?>> nameProcessors = readRules(rules);
 
-        try (InputStream in = Files.newInputStream(rules)) {
-            Jankson jankson = Jankson.builder().build();
-            JsonObject json = jankson.load(in);
-            nameProcessors = NameProcessorIo.readAll(json).collect(Collectors.toList());
+        if (optimise) {
+            nameProcessors = optimise(nameProcessors, verbose);
+        }
+
+        // The mapped rewriter can only skip names without decoding them with a compiled engine
+        Ripple.Builder rippleBuilder = Ripple.builder(nameProcessors).compile(compile || mapped).instrument(report != null);
+
+        if (parallel) {
+            rippleBuilder.parallel();
+        }
+
+        if (cacheSize > 0) {
+            rippleBuilder.cache(cacheSize);
+        }
+
+        @Nullable IncrementalCache incrementalCache = null;
+
+        if (incrementalCachePath != null) {
+            incrementalCache = IncrementalCache.read(incrementalCachePath, nameProcessors);
+            rippleBuilder.incremental(incrementalCache);
+        }
+
+        Ripple ripple = rippleBuilder.build();
+
+        if (streaming) {
+            String namespace = ((TinyMappingFormatWrapper) inputFormat).to;
+
+            if (mapped) {
+                new MappedTinyRewriter(ripple, namespace).rewrite(input, output);
+            } else {
+                new TinyRewriter(ripple, namespace).rewrite(input, output);
+            }
+        } else {
+            RippleEvent readEvent = RippleEvent.begin(RippleEvent.Type.MAPPING_READ);
+            MappingSet inputMappings;
+            try (MappingsReader reader = inputFormat.createReader(input)) {
+                inputMappings = reader.read();
+            }
+            commitMappingEvent(readEvent, inputMappings);
+
+            MappingSet outputMappings;
+
+            if (inPlace) {
+                ripple.processInPlace(inputMappings);
+                outputMappings = inputMappings;
+            } else {
+                outputMappings = ripple.process(inputMappings);
+            }
+
+            RippleEvent writeEvent = RippleEvent.begin(RippleEvent.Type.MAPPING_WRITE);
+            try (MappingsWriter writer = outputFormat.createWriter(output)) {
+                writer.write(outputMappings);
+            }
+            commitMappingEvent(writeEvent, outputMappings);
         }
 
-        MappingSet inputMappings;
-        try (MappingsReader reader = inputFormat.createReader(input)) {
-            inputMappings = reader.read();
+        if (verbose) {
+            ripple.getCacheStats().ifPresent(System.err::println);
         }
 
-        MappingSet outputMappings = new Ripple(nameProcessors).process(inputMappings);
+        if (incrementalCache != null) {
+            incrementalCache.write(incrementalCachePath);
 
-        try (MappingsWriter writer = outputFormat.createWriter(output)) {
-            writer.write(outputMappings);
+            if (verbose) {
+                System.err.println(incrementalCache);
+            }
+        }
+
+        if (report != null) {
+            Files.write(
+                report,
+                ripple.getReport().get().toJson().toJson(true, true).getBytes(StandardCharsets.UTF_8)
+            );
         }
 
         if (expandedRulesOutput != null) {
@@ -103,6 +215,37 @@ public final class Main implements Callable<Integer> {
         return 0;
     }
 
+    static List<? extends NameProcessor<?>> readRules(Path rules) throws IOException, SyntaxError {
+        if (BinaryRuleSet.isBinaryRuleSet(rules)) {
+            return BinaryRuleSet.read(rules);
+        }
+
+        try (InputStream in = Files.newInputStream(rules)) {
+            Jankson jankson = Jankson.builder().build();
+            JsonObject json = jankson.load(in);
+            return NameProcessorIo.readAll(json).collect(Collectors.toList());
+        }
+    }
+
+    static List<NameProcessor<?>> optimise(List<? extends NameProcessor<?>> nameProcessors, boolean verbose) {
+        PipelineOptimiser.Result result = PipelineOptimiser.optimise(nameProcessors);
+
+        if (verbose) {
+            System.err.println(result);
+        }
+
+        return result.getProcessors();
+    }
+
+    private static void commitMappingEvent(RippleEvent event, MappingSet mappings) {
+        if (event.isEnabled()) {
+            event.setClassCount(mappings.getTopLevelClassMappings().size())
+                .setNameCount(RippleEvent.countNames(mappings));
+        }
+
+        event.commit();
+    }
+
     private static MappingFormat getMappingFormat(String format) {
         if (format.matches("^tiny(v1|v2)?:.+:.+$")) {
             String[] parts = format.split(":");
@@ -14,22 +14,22 @@ java {
 
 repositories {
     mavenCentral()
-
-    maven {
-        name = "Fabric"
-        url = uri("https://maven.fabricmc.net")
-    }
 }
 
 dependencies {
     api(project(":"))
-    implementation("net.fabricmc", "lorenz-tiny", "3.0.0")
+
+    testImplementation(group = "org.junit.jupiter", name = "junit-jupiter", version = "5.8.2")
 }
 
 tasks {
     jar {
         from(rootProject.file("LICENSE"))
     }
+
+    test {
+        useJUnitPlatform()
+    }
 }
 
 gradlePlugin {
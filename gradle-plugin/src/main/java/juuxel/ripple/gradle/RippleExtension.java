@@ -6,11 +6,10 @@
 
 package juuxel.ripple.gradle;
 
-import blue.endless.jankson.Jankson;
-import blue.endless.jankson.JsonObject;
 import blue.endless.jankson.api.SyntaxError;
 import juuxel.ripple.gradle.impl.ProcessedDependency;
 import juuxel.ripple.gradle.impl.RippleExtensionImpl;
+import juuxel.ripple.processor.BinaryRuleSet;
 import juuxel.ripple.processor.NameProcessor;
 import juuxel.ripple.processor.NameProcessorIo;
 import org.gradle.api.Action;
@@ -40,17 +39,20 @@ public abstract class RippleExtension {
      * Adds a processor to Ripple.
      *
      * <p>If the processor parameter is a {@link NameProcessor}, it will be attached directly.
-     * Otherwise, it'll be resolved as a {@link File} and parsed using {@link NameProcessorIo}.
+     * Otherwise, it'll be resolved as a {@link File} and parsed using {@link NameProcessorIo},
+     * or read using {@link BinaryRuleSet} if it's a compiled binary rule set.
      *
-     * @param processor the processor or the file path to a processor JSON file
+     * @param processor the processor or the file path to a processor JSON file or binary rule set
      */
     public void processor(Object processor) {
         if (processor instanceof NameProcessor<?>) {
             processors.add((NameProcessor<?>) processor);
         } else {
             try {
-                JsonObject json = Jankson.builder().build().load(asImpl().fileResolver.apply(processor));
-                NameProcessorIo.readAll(json).forEach(processors::add);
+                File file = asImpl().resolveFile(processor);
+                byte[] contents = asImpl().readFile(file);
+                // Shared between projects, so identical rule files are only parsed once per build
+                processors.addAll(asImpl().buildService.get().readRules(contents));
             } catch (IOException e) {
                 throw new GradleException("Could not load name processor config file " + processor, e);
             } catch (SyntaxError e) {
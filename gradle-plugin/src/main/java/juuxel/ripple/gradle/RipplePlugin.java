@@ -6,6 +6,7 @@
 
 package juuxel.ripple.gradle;
 
+import juuxel.ripple.gradle.impl.RippleBuildService;
 import juuxel.ripple.gradle.impl.RippleExtensionImpl;
 import org.gradle.api.Plugin;
 import org.gradle.api.Project;
@@ -14,11 +15,12 @@ public class RipplePlugin implements Plugin<Project> {
     @Override
     public void apply(Project target) {
         RippleExtensionImpl extension = (RippleExtensionImpl) target.getExtensions().create(RippleExtension.class, "ripple", RippleExtensionImpl.class);
-        extension.detachedConfigurationGetter = target.getConfigurations()::detachedConfiguration;
         extension.cache = target.getGradle().getGradleUserHomeDir().toPath().resolve("caches").resolve("ripple-cache");
-        extension.fileCollectionCreator = target::files;
-        extension.fileResolver = target::file;
-        extension.dependencyCreator = target.getDependencies()::create;
         extension.refreshDeps = target.getGradle().getStartParameter().isRefreshDependencies();
+        extension.buildService = target.getGradle().getSharedServices()
+            .registerIfAbsent(RippleBuildService.NAME, RippleBuildService.class, spec ->
+                spec.getParameters().getMaxParallelism().set(target.getGradle().getStartParameter().getMaxWorkerCount()));
+        extension.detachedConfigurationGetter = target.getConfigurations()::detachedConfiguration;
+        extension.dependencyCreator = target.getDependencies()::create;
     }
 }
@@ -0,0 +1,367 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package juuxel.ripple.gradle.impl;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Copies a jar file while replacing the contents of one entry.
+ *
+ * <p>The other entries are copied as raw bytes, so they're not decompressed and compressed again.
+ * The replaced entry is streamed through the transformer and deflated directly into the target file.
+ * ZIP64 archives and encrypted entries are not supported.
+ */
+public final class JarTransformer {
+    private static final int LOCAL_HEADER_SIGNATURE = 0x04034b50;
+    private static final int CENTRAL_HEADER_SIGNATURE = 0x02014b50;
+    private static final int END_SIGNATURE = 0x06054b50;
+    private static final int LOCAL_HEADER_SIZE = 30;
+    private static final int CENTRAL_HEADER_SIZE = 46;
+    private static final int END_SIZE = 22;
+    private static final int MAX_COMMENT_SIZE = 0xFFFF;
+    private static final int FLAG_ENCRYPTED = 1;
+    private static final int FLAG_DATA_DESCRIPTOR = 1 << 3;
+    private static final int METHOD_STORED = 0;
+    private static final int METHOD_DEFLATED = 8;
+    private static final int VERSION_DEFLATED = 20;
+    private static final long MAX_SIZE = 0xFFFFFFFFL;
+
+    private JarTransformer() {
+    }
+
+    /**
+     * Copies a jar file and transforms one of its entries.
+     *
+     * @param source      the source jar
+     * @param target      the target jar, which is created or overwritten
+     * @param entryName   the name of the entry to transform
+     * @param transformer the transformer for the entry
+     * @throws IOException if an I/O error occurs, the source is not a supported jar file
+     *                     or the entry doesn't exist
+     */
+    public static void transform(Path source, Path target, String entryName, EntryTransformer transformer) throws IOException {
+        try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer end = readEnd(in, source);
+            long centralSize = end.getInt(12) & MAX_SIZE;
+            long centralOffset = end.getInt(16) & MAX_SIZE;
+
+            if ((end.getShort(10) & 0xFFFF) == 0xFFFF || centralSize == MAX_SIZE || centralOffset == MAX_SIZE) {
+                throw new IOException("ZIP64 jar files are not supported: " + source);
+            }
+
+            List<Entry> entries = readCentralDirectory(in, centralOffset, (int) centralSize, source);
+            boolean found = false;
+
+            // Copy the entries in file order, up to the start of the next entry to include any data descriptors
+            entries.sort(Comparator.comparingLong(entry -> entry.localOffset));
+
+            for (int i = 0; i < entries.size(); i++) {
+                Entry entry = entries.get(i);
+                long entryEnd = i + 1 < entries.size() ? entries.get(i + 1).localOffset : centralOffset;
+                long newOffset = out.position();
+
+                if (entry.name.equals(entryName)) {
+                    transformEntry(in, out, entry, transformer, source);
+                    found = true;
+                } else {
+                    copy(in, out, entry.localOffset, entryEnd - entry.localOffset);
+                }
+
+                entry.centralHeader.putInt(42, checkSize(newOffset, source));
+            }
+
+            if (!found) {
+                throw new IOException("Entry " + entryName + " not found in " + source);
+            }
+
+            long newCentralOffset = out.position();
+
+            // Write the central directory in its original order
+            entries.sort(Comparator.comparingInt(entry -> entry.centralIndex));
+            for (Entry entry : entries) {
+                entry.centralHeader.rewind();
+                writeFully(out, entry.centralHeader);
+            }
+
+            end.putInt(12, checkSize(out.position() - newCentralOffset, source));
+            end.putInt(16, checkSize(newCentralOffset, source));
+            end.rewind();
+            writeFully(out, end);
+        }
+    }
+
+    private static ByteBuffer readEnd(FileChannel in, Path source) throws IOException {
+        long size = in.size();
+        int tailSize = (int) Math.min(size, END_SIZE + MAX_COMMENT_SIZE);
+        ByteBuffer tail = read(in, size - tailSize, tailSize);
+
+        // The end record is followed by a variable length comment, so search backwards for its signature
+        for (int i = tailSize - END_SIZE; i >= 0; i--) {
+            if (tail.getInt(i) == END_SIGNATURE && i + END_SIZE + (tail.getShort(i + 20) & 0xFFFF) == tailSize) {
+                if (tail.getShort(i + 4) != 0 || tail.getShort(i + 6) != 0) {
+                    throw new IOException("Split jar files are not supported: " + source);
+                }
+
+                tail.position(i);
+                return slice(tail);
+            }
+        }
+
+        throw new IOException("Not a jar file: " + source);
+    }
+
+    private static List<Entry> readCentralDirectory(FileChannel in, long offset, int size, Path source) throws IOException {
+        ByteBuffer directory = read(in, offset, size);
+        List<Entry> entries = new ArrayList<>();
+
+        while (directory.remaining() >= CENTRAL_HEADER_SIZE) {
+            int start = directory.position();
+
+            if (directory.getInt(start) != CENTRAL_HEADER_SIGNATURE) {
+                throw new IOException("Corrupt central directory in " + source);
+            }
+
+            int nameLength = directory.getShort(start + 28) & 0xFFFF;
+            int extraLength = directory.getShort(start + 30) & 0xFFFF;
+            int commentLength = directory.getShort(start + 32) & 0xFFFF;
+            int headerLength = CENTRAL_HEADER_SIZE + nameLength + extraLength + commentLength;
+            byte[] name = new byte[nameLength];
+            directory.position(start + CENTRAL_HEADER_SIZE);
+            directory.get(name);
+
+            ByteBuffer header = ByteBuffer.allocate(headerLength).order(ByteOrder.LITTLE_ENDIAN);
+            directory.position(start);
+            directory.limit(start + headerLength);
+            header.put(directory).flip();
+            directory.limit(size);
+
+            entries.add(new Entry(entries.size(), new String(name, StandardCharsets.UTF_8), header));
+        }
+
+        return entries;
+    }
+
+    private static void transformEntry(FileChannel in, FileChannel out, Entry entry, EntryTransformer transformer, Path source) throws IOException {
+        ByteBuffer central = entry.centralHeader;
+        int flags = central.getShort(8) & 0xFFFF;
+        int method = central.getShort(10) & 0xFFFF;
+        long compressedSize = central.getInt(20) & MAX_SIZE;
+
+        if ((flags & FLAG_ENCRYPTED) != 0) {
+            throw new IOException("Encrypted entry " + entry.name + " in " + source + " is not supported");
+        } else if (method != METHOD_STORED && method != METHOD_DEFLATED) {
+            throw new IOException("Unsupported compression method " + method + " for entry " + entry.name + " in " + source);
+        }
+
+        ByteBuffer localHeader = read(in, entry.localOffset, LOCAL_HEADER_SIZE);
+
+        if (localHeader.getInt(0) != LOCAL_HEADER_SIGNATURE) {
+            throw new IOException("Corrupt local header for entry " + entry.name + " in " + source);
+        }
+
+        int localHeaderLength = LOCAL_HEADER_SIZE + (localHeader.getShort(26) & 0xFFFF) + (localHeader.getShort(28) & 0xFFFF);
+        localHeader = read(in, entry.localOffset, localHeaderLength);
+        long dataOffset = entry.localOffset + localHeaderLength;
+
+        // The sizes are known after the data has been written, so the header is patched afterwards
+        // instead of writing a data descriptor
+        int newFlags = flags & ~FLAG_DATA_DESCRIPTOR;
+        localHeader.putShort(4, (short) Math.max(localHeader.getShort(4) & 0xFFFF, VERSION_DEFLATED));
+        localHeader.putShort(6, (short) newFlags);
+        localHeader.putShort(8, (short) METHOD_DEFLATED);
+        long headerOffset = out.position();
+        writeFully(out, localHeader);
+
+        InputStream input = new RegionInputStream(in, dataOffset, compressedSize);
+        Inflater inflater = new Inflater(true);
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        CountingOutputStream compressed = new CountingOutputStream(Channels.newOutputStream(out));
+        CRC32 crc = new CRC32();
+
+        if (method == METHOD_DEFLATED) {
+            // Raw inflaters may need an extra byte after the data, like in java.util.zip.ZipFile
+            input = new InflaterInputStream(new SequenceInputStream(input, new ByteArrayInputStream(new byte[1])), inflater);
+        }
+
+        try (InputStream entryInput = input) {
+            DeflaterOutputStream deflated = new DeflaterOutputStream(compressed, deflater, 8192);
+            CountingOutputStream uncompressed = new CountingOutputStream(new CheckedOutputStream(deflated, crc));
+            transformer.transform(entryInput, uncompressed);
+            uncompressed.flush();
+            deflated.finish();
+
+            localHeader.putInt(14, (int) crc.getValue());
+            localHeader.putInt(18, checkSize(compressed.count, source));
+            localHeader.putInt(22, checkSize(uncompressed.count, source));
+        } finally {
+            inflater.end();
+            deflater.end();
+        }
+
+        central.putShort(6, localHeader.getShort(4));
+        central.putShort(8, (short) newFlags);
+        central.putShort(10, (short) METHOD_DEFLATED);
+        central.putInt(16, localHeader.getInt(14));
+        central.putInt(20, localHeader.getInt(18));
+        central.putInt(24, localHeader.getInt(22));
+
+        localHeader.position(14);
+        localHeader.limit(26);
+        out.write(slice(localHeader), headerOffset + 14);
+    }
+
+    private static int checkSize(long value, Path source) throws IOException {
+        if (value > MAX_SIZE) {
+            throw new IOException("Transformed jar would need ZIP64, which is not supported: " + source);
+        }
+
+        return (int) value;
+    }
+
+    private static ByteBuffer read(FileChannel in, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+
+        while (buffer.hasRemaining()) {
+            if (in.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of jar file");
+            }
+        }
+
+        buffer.flip();
+        return buffer;
+    }
+
+    private static ByteBuffer slice(ByteBuffer buffer) {
+        return buffer.slice().order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static void copy(FileChannel in, FileChannel out, long position, long length) throws IOException {
+        long copied = 0;
+
+        while (copied < length) {
+            long transferred = in.transferTo(position + copied, length - copied, out);
+
+            if (transferred <= 0) {
+                throw new IOException("Unexpected end of jar file");
+            }
+
+            copied += transferred;
+        }
+    }
+
+    private static void writeFully(FileChannel out, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+    }
+
+    /**
+     * Transforms the contents of a jar entry.
+     */
+    @FunctionalInterface
+    public interface EntryTransformer {
+        /**
+         * Transforms the contents of an entry. The streams are closed by the caller.
+         *
+         * @param input  the original contents
+         * @param output the stream that receives the new contents
+         * @throws IOException if an I/O error occurs
+         */
+        void transform(InputStream input, OutputStream output) throws IOException;
+    }
+
+    private static final class Entry {
+        final int centralIndex;
+        final String name;
+        final ByteBuffer centralHeader;
+        final long localOffset;
+
+        Entry(int centralIndex, String name, ByteBuffer centralHeader) {
+            this.centralIndex = centralIndex;
+            this.name = name;
+            this.centralHeader = centralHeader;
+            this.localOffset = centralHeader.getInt(42) & MAX_SIZE;
+        }
+    }
+
+    private static final class RegionInputStream extends InputStream {
+        private final FileChannel channel;
+        private long position;
+        private long remaining;
+
+        RegionInputStream(FileChannel channel, long position, long length) {
+            this.channel = channel;
+            this.position = position;
+            this.remaining = length;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] b = new byte[1];
+            return read(b, 0, 1) < 0 ? -1 : b[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+
+            int read = channel.read(ByteBuffer.wrap(b, off, (int) Math.min(len, remaining)), position);
+
+            if (read < 0) {
+                throw new IOException("Unexpected end of jar file");
+            }
+
+            position += read;
+            remaining -= read;
+            return read;
+        }
+    }
+
+    private static final class CountingOutputStream extends FilterOutputStream {
+        long count = 0;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+}
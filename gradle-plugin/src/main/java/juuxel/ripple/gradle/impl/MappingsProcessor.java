@@ -0,0 +1,127 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package juuxel.ripple.gradle.impl;
+
+import juuxel.ripple.Ripple;
+import juuxel.ripple.tiny.TinyRewriter;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Processes the mappings in a jar into a cache entry.
+ *
+ * <p>The entry is locked while it's being processed, so concurrent builds and threads wait for each other
+ * instead of processing the same entry twice.
+ */
+final class MappingsProcessor {
+    private static final String MAPPINGS_ENTRY = "mappings/mappings.tiny";
+    private static final String LOCK_FILE = ".lock";
+    private static final long LOCK_RETRY_MILLIS = 50;
+
+    /**
+     * File locks are held by the whole JVM, so threads in the same JVM also have to lock each other out.
+     * Entries are removed when their last user is done, so the map only contains entries that are being processed.
+     */
+    private static final Map<Path, LocalLock> LOCAL_LOCKS = new ConcurrentHashMap<>();
+
+    private MappingsProcessor() {
+    }
+
+    /**
+     * Processes the mappings in a jar into a cache entry if the entry doesn't exist yet.
+     *
+     * @param source  the original jar
+     * @param target  the cache entry
+     * @param refresh if true, the entry is processed even if it exists
+     * @param engine  a supplier for the engine, which is only called if the entry is processed
+     * @throws IOException if an I/O error occurs
+     */
+    static void process(Path source, Path target, boolean refresh, Supplier<Ripple> engine) throws IOException {
+        Path entryDirectory = target.getParent();
+        Files.createDirectories(entryDirectory);
+        Path lockFile = entryDirectory.resolve(LOCK_FILE);
+        LocalLock localLock = LOCAL_LOCKS.compute(lockFile, (path, lock) -> {
+            LocalLock result = lock != null ? lock : new LocalLock();
+            result.users++;
+            return result;
+        });
+
+        try {
+            synchronized (localLock) {
+                try (FileChannel lockChannel = FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+                    FileLock lock = lock(lockChannel);
+
+                    try {
+                        // Another build might have processed the entry while this one was waiting for the lock
+                        if (Files.notExists(target) || refresh) {
+                            transform(source, target, engine.get());
+                        }
+                    } finally {
+                        lock.release();
+                    }
+                }
+            }
+        } finally {
+            LOCAL_LOCKS.computeIfPresent(lockFile, (path, lock) -> --lock.users == 0 ? null : lock);
+        }
+    }
+
+    private static FileLock lock(FileChannel channel) throws IOException {
+        while (true) {
+            try {
+                return channel.lock();
+            } catch (OverlappingFileLockException e) {
+                // Another thread in this JVM holds the lock without sharing LOCAL_LOCKS,
+                // for example through a copy of the plugin loaded by another class loader
+                try {
+                    Thread.sleep(LOCK_RETRY_MILLIS);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while waiting for the lock on " + channel);
+                }
+            }
+        }
+    }
+
+    private static void transform(Path source, Path target, Ripple ripple) throws IOException {
+        Path temp = Files.createTempFile(target.getParent(), "processing", ".jar");
+
+        try {
+            TinyRewriter rewriter = new TinyRewriter(ripple, "named");
+
+            JarTransformer.transform(source, temp, MAPPINGS_ENTRY, (input, output) -> {
+                Reader reader = new InputStreamReader(input, StandardCharsets.UTF_8);
+                rewriter.rewrite(reader, new OutputStreamWriter(output, StandardCharsets.UTF_8));
+            });
+
+            // Only complete entries are published, so interrupted builds can't leave broken files behind
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static final class LocalLock {
+        /** The number of threads using or waiting for this lock. Guarded by {@link #LOCAL_LOCKS}. */
+        int users;
+    }
+}
@@ -6,39 +6,53 @@
 
 package juuxel.ripple.gradle.impl;
 
-import juuxel.ripple.Ripple;
 import juuxel.ripple.gradle.DependencySpec;
-import net.fabricmc.lorenztiny.TinyMappingFormat;
-import org.cadixdev.lorenz.MappingSet;
+import juuxel.ripple.processor.NameProcessor;
+import juuxel.ripple.processor.NameProcessorIo;
+import juuxel.ripple.util.Hashes;
 import org.gradle.api.GradleException;
 import org.gradle.api.artifacts.Dependency;
 import org.gradle.api.file.FileCollection;
+import org.gradle.api.provider.Provider;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.File;
 import java.io.IOException;
-import java.net.URI;
-import java.nio.file.FileSystem;
-import java.nio.file.FileSystems;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.ArrayList;
-import java.util.Arrays;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 public class ProcessedDependency extends ComputedDependency implements SpecDependency {
-    private final RippleExtensionImpl extension;
+    /** Changed when the processing of cached artifacts changes, so that old entries aren't reused. */
+    private static final String CACHE_FORMAT = "ripple-processed-mappings:1";
+
     private final Dependency parent;
     private final String tag;
     private final DependencySpec spec;
+    /**
+     * The state used when the dependency is resolved. It only refers to the extension through providers,
+     * which the configuration cache stores by value, so it doesn't capture the project.
+     */
+    private final Resolution resolution;
 
     public ProcessedDependency(RippleExtensionImpl extension, Dependency parent, String tag, DependencySpec spec) {
-        this.extension = extension;
+        this(parent, tag, spec, new Resolution(extension, parent));
+    }
+
+    private ProcessedDependency(Dependency parent, String tag, DependencySpec spec, Resolution resolution) {
         this.parent = parent;
         this.tag = tag;
         this.spec = spec;
+        this.resolution = resolution;
     }
 
     @Override
@@ -48,40 +62,32 @@ public class ProcessedDependency extends ComputedDependency implements SpecDepen
 
     @Override
     public Set<File> resolve() {
-        try {
-            Path source = extension.detachedConfigurationGetter.apply(parent).getSingleFile().toPath();
-
-            List<String> tree = new ArrayList<>(Arrays.asList(spec.getGroup().split("\\.")));
-            tree.add(spec.getName());
-            tree.add(spec.getVersion());
-
-            Path versionDirectory = extension.cache.resolve(String.join(File.separator, tree));
-            Path target = versionDirectory.resolve(String.format("%s-%s.jar", spec.getName(), spec.getVersion()));
-            Files.createDirectories(versionDirectory);
+        return resolution.resolve();
+    }
 
-            if (Files.notExists(target) || extension.refreshDeps) {
-                Files.copy(source, target);
-                HashMap<String, Object> parameters = new HashMap<>();
-                parameters.put("create", false);
+    /**
+     * Computes the key of a cache entry from the content of the source artifact and
+     * the {@linkplain NameProcessorIo#fingerprint fingerprint} of the processors.
+     */
+    private static String computeCacheKey(Path source, String processorFingerprint) throws IOException {
+        MessageDigest digest = Hashes.sha256();
+        digest.update(CACHE_FORMAT.getBytes(StandardCharsets.UTF_8));
 
-                try (FileSystem fs = FileSystems.newFileSystem(URI.create("jar:" + target.toUri()), parameters)) {
-                    Path mappingsPath = fs.getPath("mappings", "mappings.tiny");
-                    MappingSet oldMappings = TinyMappingFormat.DETECT.read(mappingsPath, "intermediary", "named");
-                    MappingSet newMappings = new Ripple(extension.getProcessors()).process(oldMappings);
+        try (InputStream in = new DigestInputStream(Files.newInputStream(source), digest)) {
+            byte[] buffer = new byte[8192];
 
-                    TinyMappingFormat.STANDARD.write(newMappings, mappingsPath, "intermediary", "named");
-                }
+            while (in.read(buffer) >= 0) {
+                // The digest is updated by the stream
             }
-
-            return Collections.singleton(target.toFile());
-        } catch (IOException e) {
-            throw new GradleException("Could not process " + parent, e);
         }
+
+        digest.update(processorFingerprint.getBytes(StandardCharsets.UTF_8));
+        return Hashes.toHex(digest.digest());
     }
 
     @Override
     public FileCollection getFiles() {
-        return extension.fileCollectionCreator.apply(resolve());
+        return resolution.files;
     }
 
     @Override
@@ -91,6 +97,116 @@ public class ProcessedDependency extends ComputedDependency implements SpecDepen
 
     @Override
     public Dependency copy() {
-        return new ProcessedDependency(extension, parent.copy(), tag, spec.copy());
+        return new ProcessedDependency(parent.copy(), tag, spec.copy(), resolution);
+    }
+
+    /**
+     * Resolves and processes a dependency. Shared with copies of the dependency, so it's only resolved once per build.
+     */
+    static final class Resolution {
+        private final List<Resolution> siblings;
+        private final String description;
+        private final FileCollection source;
+        private final Provider<List<NameProcessor<?>>> processors;
+        private final Path cache;
+        private final boolean refresh;
+        private final Provider<RippleBuildService> buildService;
+        /** Lazy, so that the dependency is only processed if its files are needed. */
+        private final FileCollection files;
+        private @Nullable Future<Path> processing;
+
+        Resolution(RippleExtensionImpl extension, Dependency parent) {
+            this.siblings = extension.resolutions;
+            this.description = parent.toString();
+            // The configuration is created while configuring, and only resolved when the files are needed
+            this.source = extension.detachedConfigurationGetter.apply(parent);
+            this.processors = extension.providers.provider(extension::getProcessors);
+            this.cache = extension.cache;
+            this.refresh = extension.refreshDeps;
+            this.buildService = extension.buildService;
+            this.files = extension.objects.fileCollection().from(extension.providers.provider(this::resolve));
+            siblings.add(this);
+        }
+
+        Set<File> resolve() {
+            // All processed dependencies of the project are started together, so independent dependencies
+            // are processed in parallel. Each of them only fails its own resolution.
+            for (Resolution sibling : siblings) {
+                sibling.start();
+            }
+
+            Future<Path> future = start();
+
+            try {
+                return Collections.singleton(future.get().toFile());
+            } catch (ExecutionException e) {
+                retry(future);
+                Throwable cause = e.getCause();
+
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                } else if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+
+                throw new GradleException("Could not process " + description, cause);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new GradleException("Interrupted while processing " + description, e);
+            }
+        }
+
+        private synchronized Future<Path> start() {
+            if (processing == null) {
+                try {
+                    // Configurations and providers are resolved in the Gradle thread, the pool only processes files
+                    Path source = this.source.getSingleFile().toPath();
+                    List<NameProcessor<?>> processors = this.processors.get();
+                    RippleBuildService buildService = this.buildService.get();
+                    processing = buildService.submit(() -> process(source, processors, buildService));
+                } catch (RuntimeException e) {
+                    CompletableFuture<Path> failed = new CompletableFuture<>();
+                    failed.completeExceptionally(e);
+                    processing = failed;
+                }
+            }
+
+            return processing;
+        }
+
+        /**
+         * Lets the next resolution process the dependency again after a failure.
+         */
+        private synchronized void retry(Future<Path> failed) {
+            if (processing == failed) {
+                processing = null;
+            }
+        }
+
+        private Path process(Path source, List<NameProcessor<?>> processors, RippleBuildService buildService) {
+            String fingerprint = NameProcessorIo.fingerprint(processors);
+            Path target = getTarget(source, fingerprint);
+
+            if (Files.notExists(target) || refresh) {
+                try {
+                    MappingsProcessor.process(source, target, refresh, () -> buildService.getEngine(fingerprint, processors));
+                } catch (IOException e) {
+                    throw new GradleException("Could not process " + description, e);
+                }
+            }
+
+            return target;
+        }
+
+        private Path getTarget(Path source, String fingerprint) {
+            try {
+                String key = computeCacheKey(source, fingerprint);
+
+                // The entries are keyed by content, so they're shared by all builds using the same artifact and processors
+                return cache.resolve(key.substring(0, 2)).resolve(key).resolve(source.getFileName().toString());
+            } catch (IOException e) {
+                throw new GradleException("Could not process " + description, e);
+            }
+        }
     }
 }
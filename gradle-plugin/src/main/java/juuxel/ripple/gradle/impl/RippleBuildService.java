@@ -0,0 +1,169 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package juuxel.ripple.gradle.impl;
+
+import blue.endless.jankson.Jankson;
+import blue.endless.jankson.JsonObject;
+import blue.endless.jankson.api.SyntaxError;
+import juuxel.ripple.Ripple;
+import juuxel.ripple.pipeline.PipelineOptimiser;
+import juuxel.ripple.processor.BinaryRuleSet;
+import juuxel.ripple.processor.NameProcessor;
+import juuxel.ripple.processor.NameProcessorIo;
+import juuxel.ripple.util.Hashes;
+import org.gradle.api.provider.Property;
+import org.gradle.api.services.BuildService;
+import org.gradle.api.services.BuildServiceParameters;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.lang.ref.SoftReference;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * A build service that shares parsed rule files and compiled engines between all projects of a build.
+ *
+ * <p>Rule files are keyed by the hash of their contents, and engines by the
+ * {@linkplain NameProcessorIo#fingerprint fingerprint} of their processors, so identical rules in different
+ * projects are only parsed and compiled once. The service keeps everything it has used during a build.
+ * The results are also kept in softly referenced global caches, which lets builds reuse them
+ * while the Gradle daemon has memory to spare.
+ *
+ * <p>The service also owns the thread pool that processes dependencies. It's bounded by Gradle's maximum worker count,
+ * and it's shut down at the end of the build.
+ */
+public abstract class RippleBuildService implements BuildService<RippleBuildService.Parameters>, AutoCloseable {
+    public static final String NAME = "ripple";
+
+    // Plugin classes are reused between builds in the same daemon, so these survive until the memory is needed
+    private static final Map<String, SoftReference<List<NameProcessor<?>>>> GLOBAL_RULE_FILES = new ConcurrentHashMap<>();
+    private static final Map<String, SoftReference<Ripple>> GLOBAL_ENGINES = new ConcurrentHashMap<>();
+
+    private final Map<String, List<NameProcessor<?>>> ruleFiles = new ConcurrentHashMap<>();
+    private final Map<String, Ripple> engines = new ConcurrentHashMap<>();
+    private @Nullable ExecutorService executor;
+
+    /**
+     * Reads the processors from the contents of a JSON rule file or a binary rule set.
+     *
+     * <p>Only the given contents are parsed, and the file isn't opened again. The contents are hashed as the cache key,
+     * so parsing them again from the file could use a different version of the file if it was changed in between.
+     *
+     * @param contents the contents of the file
+     * @return the processors
+     * @throws IOException  if the file is a malformed binary rule set
+     * @throws SyntaxError  if the file is malformed JSON
+     */
+    public List<NameProcessor<?>> readRules(byte[] contents) throws IOException, SyntaxError {
+        String key = Hashes.toHex(Hashes.sha256().digest(contents));
+        @Nullable List<NameProcessor<?>> processors = ruleFiles.get(key);
+
+        if (processors == null) {
+            processors = getGlobal(GLOBAL_RULE_FILES, key);
+
+            if (processors == null) {
+                ByteBuffer buffer = ByteBuffer.wrap(contents);
+
+                if (BinaryRuleSet.isBinaryRuleSet(buffer)) {
+                    processors = BinaryRuleSet.read(buffer);
+                } else {
+                    JsonObject json = Jankson.builder().build().load(new String(contents, StandardCharsets.UTF_8));
+                    processors = NameProcessorIo.readAll(json).collect(Collectors.toList());
+                }
+
+                processors = Collections.unmodifiableList(new ArrayList<>(processors));
+                GLOBAL_RULE_FILES.put(key, new SoftReference<>(processors));
+            }
+
+            ruleFiles.put(key, processors);
+        }
+
+        return processors;
+    }
+
+    /**
+     * Gets an optimised, compiled engine for a list of processors.
+     *
+     * @param fingerprint the fingerprint of the processors
+     * @param processors  the processors
+     * @return the engine
+     */
+    public Ripple getEngine(String fingerprint, List<NameProcessor<?>> processors) {
+        return engines.computeIfAbsent(fingerprint, key -> {
+            @Nullable Ripple engine = getGlobal(GLOBAL_ENGINES, key);
+
+            if (engine == null) {
+                List<NameProcessor<?>> optimised = PipelineOptimiser.optimise(processors).getProcessors();
+                engine = Ripple.builder(optimised).compile(true).build();
+                GLOBAL_ENGINES.put(key, new SoftReference<>(engine));
+            }
+
+            return engine;
+        });
+    }
+
+    /**
+     * Submits a processing task to the thread pool of this service.
+     *
+     * @param task the task
+     * @param <T>  the result type of the task
+     * @return a future for the result of the task
+     */
+    public synchronized <T> Future<T> submit(Callable<T> task) {
+        if (executor == null) {
+            AtomicInteger threadCount = new AtomicInteger();
+            executor = Executors.newFixedThreadPool(getParameters().getMaxParallelism().get(), runnable -> {
+                Thread thread = new Thread(runnable, "Ripple processing thread " + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+
+        return executor.submit(task);
+    }
+
+    @Override
+    public synchronized void close() {
+        if (executor != null) {
+            // Dependencies that nothing requested don't need to finish. Interrupted entries aren't published.
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
+    private static <T> @Nullable T getGlobal(Map<String, SoftReference<T>> cache, String key) {
+        @Nullable SoftReference<T> reference = cache.get(key);
+        @Nullable T value = reference != null ? reference.get() : null;
+
+        if (reference != null && value == null) {
+            cache.remove(key, reference);
+        }
+
+        return value;
+    }
+
+    public interface Parameters extends BuildServiceParameters {
+        /**
+         * The maximum number of dependencies that are processed at the same time.
+         *
+         * @return the maximum parallelism property
+         */
+        Property<Integer> getMaxParallelism();
+    }
+}
@@ -9,18 +9,45 @@ package juuxel.ripple.gradle.impl;
 import juuxel.ripple.gradle.RippleExtension;
 import org.gradle.api.artifacts.Configuration;
 import org.gradle.api.artifacts.Dependency;
-import org.gradle.api.file.FileCollection;
+import org.gradle.api.file.ProjectLayout;
+import org.gradle.api.model.ObjectFactory;
+import org.gradle.api.provider.Provider;
+import org.gradle.api.provider.ProviderFactory;
 
+import javax.inject.Inject;
 import java.io.File;
 import java.nio.file.Path;
-import java.util.Set;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.function.Function;
 
 public class RippleExtensionImpl extends RippleExtension {
+    public final ObjectFactory objects;
+    public final ProjectLayout layout;
+    public final ProviderFactory providers;
     public Path cache;
     public boolean refreshDeps;
-    public Function<Set<File>, FileCollection> fileCollectionCreator;
+    public Provider<RippleBuildService> buildService;
+    // These two capture the project's containers, so they are only used while dependencies are declared.
+    // Nothing that is resolved at execution time may refer to them or to this extension.
     public Function<Dependency, Configuration> detachedConfigurationGetter;
-    public Function<Object, File> fileResolver;
     public Function<Object, Dependency> dependencyCreator;
+    /** The processed dependencies declared in the project, which are processed together. */
+    final List<ProcessedDependency.Resolution> resolutions = new CopyOnWriteArrayList<>();
+
+    @Inject
+    public RippleExtensionImpl(ObjectFactory objects, ProjectLayout layout, ProviderFactory providers) {
+        this.objects = objects;
+        this.layout = layout;
+        this.providers = providers;
+    }
+
+    public File resolveFile(Object path) {
+        return layout.files(path).getSingleFile();
+    }
+
+    public byte[] readFile(File file) {
+        // Reading through the provider makes the file an input of the configuration cache
+        return providers.fileContents(layout.file(providers.provider(() -> file))).getAsBytes().get();
+    }
 }
@@ -0,0 +1,128 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package juuxel.ripple.gradle;
+
+import org.gradle.testkit.runner.BuildResult;
+import org.gradle.testkit.runner.GradleRunner;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConfigurationCacheTest {
+    private static final String MAPPINGS = "tiny\t2\t0\tintermediary\tnamed\n"
+        + "c\tnet/minecraft/class_1\tnet/minecraft/BlockEntity\n";
+
+    private static final String BUILD_SCRIPT = String.join("\n",
+        "import java.util.zip.ZipFile",
+        "",
+        "plugins {",
+        "    id 'io.github.juuxel.ripple'",
+        "}",
+        "",
+        "repositories {",
+        "    maven { url = uri('repo') }",
+        "}",
+        "",
+        "configurations {",
+        "    mappings",
+        "}",
+        "",
+        "ripple.processor(file('rules.json'))",
+        "",
+        "dependencies {",
+        "    mappings ripple.process('net.example:mappings:1.0', 'test')",
+        "}",
+        "",
+        "tasks.register('printMappings') {",
+        "    def mappings = configurations.mappings",
+        "    inputs.files(mappings)",
+        "    doLast {",
+        "        new ZipFile(mappings.singleFile).withCloseable { zip ->",
+        "            println zip.getInputStream(zip.getEntry('mappings/mappings.tiny')).text",
+        "        }",
+        "    }",
+        "}",
+        ""
+    );
+
+    @TempDir
+    Path projectDir;
+
+    @Test
+    void reusesConfigurationCache() throws IOException {
+        writeProject();
+        writeRules("BlockEntity", "TileEntity");
+
+        // Newer Gradle versions track the cache entry checks as configuration inputs,
+        // so the entry is created first to keep the cached configuration valid for the next run
+        run(false);
+
+        BuildResult first = run();
+        assertTrue(first.getOutput().contains("net/minecraft/TileEntity"), first::getOutput);
+        assertTrue(first.getOutput().contains("Configuration cache entry stored"), first::getOutput);
+
+        BuildResult second = run();
+        assertTrue(second.getOutput().contains("net/minecraft/TileEntity"), second::getOutput);
+        assertTrue(second.getOutput().contains("Reusing configuration cache"), second::getOutput);
+
+        // Rule files are configuration inputs
+        writeRules("BlockEntity", "Machine");
+        BuildResult changed = run();
+        assertTrue(changed.getOutput().contains("net/minecraft/Machine"), changed::getOutput);
+        assertTrue(changed.getOutput().contains("Configuration cache entry stored"), changed::getOutput);
+    }
+
+    private BuildResult run() {
+        return run(true);
+    }
+
+    private BuildResult run(boolean configurationCache) {
+        return GradleRunner.create()
+            .withProjectDir(projectDir.toFile())
+            .withPluginClasspath()
+            // Keep the processed mappings of the test out of the real Gradle user home
+            .withTestKitDir(projectDir.resolve(".testkit").toFile())
+            .withArguments("printMappings", configurationCache ? "--configuration-cache" : "--no-configuration-cache", "--stacktrace")
+            .build();
+    }
+
+    private void writeProject() throws IOException {
+        Files.write(projectDir.resolve("settings.gradle"), "rootProject.name = 'test'\n".getBytes(StandardCharsets.UTF_8));
+        Files.write(projectDir.resolve("build.gradle"), BUILD_SCRIPT.getBytes(StandardCharsets.UTF_8));
+
+        Path artifactDir = projectDir.resolve("repo/net/example/mappings/1.0");
+        Files.createDirectories(artifactDir);
+        Files.write(artifactDir.resolve("mappings-1.0.pom"), String.join("\n",
+            "<project>",
+            "    <modelVersion>4.0.0</modelVersion>",
+            "    <groupId>net.example</groupId>",
+            "    <artifactId>mappings</artifactId>",
+            "    <version>1.0</version>",
+            "</project>",
+            ""
+        ).getBytes(StandardCharsets.UTF_8));
+
+        try (ZipOutputStream zip = new ZipOutputStream(Files.newOutputStream(artifactDir.resolve("mappings-1.0.jar")))) {
+            zip.putNextEntry(new ZipEntry("mappings/mappings.tiny"));
+            zip.write(MAPPINGS.getBytes(StandardCharsets.UTF_8));
+            zip.closeEntry();
+        }
+    }
+
+    private void writeRules(String from, String to) throws IOException {
+        String rules = "{\"processors\": [{\"processor\": \"ripple:rename\", \"from\": \"" + from + "\", \"to\": \"" + to + "\"}]}";
+        Files.write(projectDir.resolve("rules.json"), rules.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package juuxel.ripple.gradle.impl;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class JarTransformerTest {
+    private static final String MAPPINGS = "mappings/mappings.tiny";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void transformsOneEntry() throws IOException {
+        Map<String, byte[]> entries = new LinkedHashMap<>();
+        entries.put("META-INF/MANIFEST.MF", "Manifest-Version: 1.0\n".getBytes(StandardCharsets.UTF_8));
+        entries.put("empty/", new byte[0]);
+        entries.put(MAPPINGS, mappings());
+        entries.put("stored.txt", "stored data".getBytes(StandardCharsets.UTF_8));
+        entries.put("zzz.txt", "last entry".getBytes(StandardCharsets.UTF_8));
+
+        Path source = tempDir.resolve("source.jar");
+        writeJar(source, entries, "a jar comment");
+
+        Path target = tempDir.resolve("target.jar");
+        JarTransformer.transform(source, target, MAPPINGS, (input, output) -> output.write(upperCase(readAll(input))));
+
+        Map<String, byte[]> expected = new LinkedHashMap<>(entries);
+        expected.put(MAPPINGS, upperCase(entries.get(MAPPINGS)));
+
+        // Check both the central directory and the local headers
+        try (ZipFile zip = new ZipFile(target.toFile())) {
+            assertEquals("a jar comment", zip.getComment());
+            List<String> names = new ArrayList<>();
+
+            for (ZipEntry entry : Collections.list(zip.entries())) {
+                names.add(entry.getName());
+
+                try (InputStream in = zip.getInputStream(entry)) {
+                    assertArrayEquals(expected.get(entry.getName()), readAll(in), entry.getName());
+                }
+            }
+
+            assertEquals(new ArrayList<>(expected.keySet()), names);
+        }
+
+        try (ZipInputStream zip = new ZipInputStream(Files.newInputStream(target))) {
+            List<String> names = new ArrayList<>();
+            ZipEntry entry;
+
+            while ((entry = zip.getNextEntry()) != null) {
+                names.add(entry.getName());
+                assertArrayEquals(expected.get(entry.getName()), readAll(zip), entry.getName());
+            }
+
+            assertEquals(new ArrayList<>(expected.keySet()), names);
+        }
+
+        // The output has no data descriptors, so check that it can be transformed again
+        Path copy = tempDir.resolve("copy.jar");
+        JarTransformer.transform(target, copy, MAPPINGS, (input, output) -> output.write(readAll(input)));
+
+        try (ZipFile zip = new ZipFile(copy.toFile())) {
+            try (InputStream in = zip.getInputStream(zip.getEntry(MAPPINGS))) {
+                assertArrayEquals(expected.get(MAPPINGS), readAll(in));
+            }
+        }
+    }
+
+    @Test
+    void rejectsMissingEntries() throws IOException {
+        Path source = tempDir.resolve("source.jar");
+        writeJar(source, Collections.singletonMap("a.txt", new byte[] {1, 2, 3}), null);
+
+        assertThrows(IOException.class, () -> JarTransformer.transform(source, tempDir.resolve("target.jar"), MAPPINGS, (input, output) -> { }));
+    }
+
+    @Test
+    void rejectsOtherFiles() throws IOException {
+        Path source = tempDir.resolve("source.jar");
+        Files.write(source, "not a jar".getBytes(StandardCharsets.UTF_8));
+
+        assertThrows(IOException.class, () -> JarTransformer.transform(source, tempDir.resolve("target.jar"), MAPPINGS, (input, output) -> { }));
+    }
+
+    private static byte[] mappings() {
+        StringBuilder sb = new StringBuilder("tiny\t2\t0\tintermediary\tnamed\n");
+
+        for (int i = 0; i < 20_000; i++) {
+            sb.append("c\tnet/minecraft/class_").append(i).append("\tnet/minecraft/Foo").append(i).append('\n');
+        }
+
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Writes a jar with {@link ZipOutputStream}, which uses data descriptors for deflated entries.
+     * Entries whose name ends with {@code .txt} are stored without compression.
+     */
+    private static void writeJar(Path path, Map<String, byte[]> entries, String comment) throws IOException {
+        try (ZipOutputStream zip = new ZipOutputStream(Files.newOutputStream(path))) {
+            if (comment != null) {
+                zip.setComment(comment);
+            }
+
+            for (Map.Entry<String, byte[]> entry : entries.entrySet()) {
+                ZipEntry zipEntry = new ZipEntry(entry.getKey());
+                byte[] data = entry.getValue();
+
+                if (entry.getKey().endsWith(".txt")) {
+                    CRC32 crc = new CRC32();
+                    crc.update(data);
+                    zipEntry.setMethod(ZipEntry.STORED);
+                    zipEntry.setSize(data.length);
+                    zipEntry.setCrc(crc.getValue());
+                }
+
+                zip.putNextEntry(zipEntry);
+                zip.write(data);
+                zip.closeEntry();
+            }
+        }
+    }
+
+    private static byte[] upperCase(byte[] bytes) {
+        return new String(bytes, StandardCharsets.UTF_8).toUpperCase(Locale.ROOT).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+
+        while ((read = in.read(buffer)) >= 0) {
+            out.write(buffer, 0, read);
+        }
+
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package juuxel.ripple.gradle.impl;
+
+import juuxel.ripple.Ripple;
+import juuxel.ripple.processor.RenameRule;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Scanner;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MappingsProcessorTest {
+    private static final String MAPPINGS = "tiny\t2\t0\tintermediary\tnamed\n"
+        + "c\tnet/minecraft/class_1\tnet/minecraft/BlockEntity\n";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void processesEntriesOnce() throws Exception {
+        Path source = writeSource();
+        Path target = tempDir.resolve("cache").resolve("entry").resolve("source.jar");
+        Ripple ripple = new Ripple(Collections.singletonList(new RenameRule("BlockEntity", "TileEntity")));
+        AtomicInteger engineRequests = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+
+            for (int i = 0; i < 8; i++) {
+                futures.add(executor.submit((Callable<Void>) () -> {
+                    MappingsProcessor.process(source, target, false, () -> {
+                        engineRequests.incrementAndGet();
+                        return ripple;
+                    });
+                    return null;
+                }));
+            }
+
+            for (Future<?> future : futures) {
+                future.get(1, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // The other threads waited for the lock and found the finished entry
+        assertEquals(1, engineRequests.get());
+        assertEquals(MAPPINGS.replace("BlockEntity", "TileEntity"), readMappings(target));
+    }
+
+    @Test
+    void waitsForLocksHeldOutsideLocalLocks() throws Exception {
+        Path source = writeSource();
+        Path target = tempDir.resolve("cache").resolve("entry").resolve("source.jar");
+        Files.createDirectories(target.getParent());
+        Ripple ripple = new Ripple(Collections.singletonList(new RenameRule("BlockEntity", "TileEntity")));
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        // Locking the file directly throws an OverlappingFileLockException in other threads of this JVM
+        try (FileChannel channel = FileChannel.open(target.getParent().resolve(".lock"), StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            FileLock lock = channel.lock();
+            Future<?> future = executor.submit((Callable<Void>) () -> {
+                MappingsProcessor.process(source, target, false, () -> ripple);
+                return null;
+            });
+
+            Thread.sleep(200);
+            assertTrue(Files.notExists(target));
+            lock.release();
+            future.get(1, TimeUnit.MINUTES);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(MAPPINGS.replace("BlockEntity", "TileEntity"), readMappings(target));
+    }
+
+    private Path writeSource() throws IOException {
+        Path source = tempDir.resolve("source.jar");
+
+        try (ZipOutputStream zip = new ZipOutputStream(Files.newOutputStream(source))) {
+            zip.putNextEntry(new ZipEntry("mappings/mappings.tiny"));
+            zip.write(MAPPINGS.getBytes(StandardCharsets.UTF_8));
+            zip.closeEntry();
+        }
+
+        return source;
+    }
+
+    private static String readMappings(Path jar) throws IOException {
+        try (ZipFile zip = new ZipFile(jar.toFile());
+             InputStream in = zip.getInputStream(zip.getEntry("mappings/mappings.tiny"));
+             Scanner scanner = new Scanner(in, "UTF-8")) {
+            return scanner.useDelimiter("\\A").hasNext() ? scanner.next() : "";
+        }
+    }
+}
@@ -2,3 +2,4 @@ rootProject.name = "Ripple"
 
 include("cli")
 include("gradle-plugin")
+include("benchmarks")
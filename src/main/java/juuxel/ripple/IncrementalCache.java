@@ -0,0 +1,380 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package juuxel.ripple;
+
+import juuxel.ripple.processor.NameProcessor;
+import juuxel.ripple.processor.NameProcessorIo;
+import org.cadixdev.lorenz.MappingSet;
+import org.cadixdev.lorenz.model.ClassMapping;
+import org.cadixdev.lorenz.model.FieldMapping;
+import org.cadixdev.lorenz.model.MethodMapping;
+import org.cadixdev.lorenz.model.MethodParameterMapping;
+import org.cadixdev.lorenz.model.TopLevelClassMapping;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A cache of processed names that carries over from one run to the next.
+ *
+ * <p>Incremental caches are used for reprocessing new versions of mappings that mostly contain the same names
+ * as the previous version. The cache contains the processed form of every name from the previous run,
+ * so only names that were added or changed since then have to be processed again.
+ * The names are created from the previous input and output mappings with
+ * {@link #fromMappings(Iterable, MappingSet, MappingSet)}, or {@linkplain #read(Path, Iterable) read}
+ * from a file {@linkplain #write(Path) written} after the previous run.
+ *
+ * <p>Each cache is tied to the {@linkplain NameProcessorIo#fingerprint(Iterable) fingerprint} of
+ * the name processors that produced it. Reading a cache file written with different processors
+ * produces an empty cache, and a cache can only be {@linkplain Ripple.Builder#incremental(IncrementalCache) used}
+ * by engines with the same processors.
+ *
+ * <p>Only the names that are looked up during a run are {@linkplain #write(Path) written}, so names that
+ * were removed from the mappings don't pile up in the cache file.
+ *
+ * @since 0.5.0
+ */
+public final class IncrementalCache {
+    private static final int MAGIC = 0x52504C49; // RPLI
+    private static final int FORMAT_VERSION = 2;
+
+    private final String fingerprint;
+    private final Map<NameType, Map<String, String>> previous;
+    private final Map<NameType, Map<String, String>> current = new EnumMap<>(NameType.class);
+    private final LongAdder reused = new LongAdder();
+    private final LongAdder processed = new LongAdder();
+
+    private IncrementalCache(String fingerprint, Map<NameType, Map<String, String>> previous) {
+        this.fingerprint = fingerprint;
+        this.previous = previous;
+
+        for (NameType type : NameType.values()) {
+            current.put(type, new ConcurrentHashMap<>());
+        }
+    }
+
+    /**
+     * Creates an empty incremental cache.
+     *
+     * @param processors the name processors that the cache is used with
+     * @return the created cache
+     */
+    public static IncrementalCache create(Iterable<? extends NameProcessor<?>> processors) {
+        return new IncrementalCache(NameProcessorIo.fingerprint(processors), new EnumMap<>(NameType.class));
+    }
+
+    /**
+     * Creates an incremental cache from the input and output of a previous run.
+     *
+     * <p>The mappings are matched by their obfuscated names and signatures, and the deobfuscated names of
+     * the matching mappings are added to the cache. If a name was processed into different names
+     * in the previous output, it's left out of the cache.
+     *
+     * @param processors     the name processors that the cache is used with,
+     *                       which must also be the ones that produced the previous output
+     * @param previousInput  the previous input mappings
+     * @param previousOutput the previous output mappings, processed from the previous input
+     * @return the created cache
+     */
+    public static IncrementalCache fromMappings(Iterable<? extends NameProcessor<?>> processors, MappingSet previousInput, MappingSet previousOutput) {
+        Map<NameType, Map<String, String>> names = new EnumMap<>(NameType.class);
+        Set<Name> conflicts = new HashSet<>();
+
+        for (TopLevelClassMapping inputClass : previousInput.getTopLevelClassMappings()) {
+            previousOutput.getTopLevelClassMapping(inputClass.getObfuscatedName())
+                .ifPresent(outputClass -> collectNames(inputClass, outputClass, names, conflicts));
+        }
+
+        for (Name conflict : conflicts) {
+            names.get(conflict.type).remove(conflict.name);
+        }
+
+        return new IncrementalCache(NameProcessorIo.fingerprint(processors), names);
+    }
+
+    private static void collectNames(ClassMapping<?, ?> input, ClassMapping<?, ?> output, Map<NameType, Map<String, String>> names, Set<Name> conflicts) {
+        addName(names, conflicts, NameType.CLASS, input.getDeobfuscatedName(), output.getDeobfuscatedName());
+
+        for (ClassMapping<?, ?> inputInnerClass : input.getInnerClassMappings()) {
+            output.getInnerClassMapping(inputInnerClass.getObfuscatedName())
+                .ifPresent(outputInnerClass -> collectNames(inputInnerClass, outputInnerClass, names, conflicts));
+        }
+
+        for (MethodMapping inputMethod : input.getMethodMappings()) {
+            output.getMethodMapping(inputMethod.getSignature()).ifPresent(outputMethod -> {
+                addName(names, conflicts, NameType.METHOD, inputMethod.getDeobfuscatedName(), outputMethod.getDeobfuscatedName());
+
+                for (MethodParameterMapping inputParam : inputMethod.getParameterMappings()) {
+                    outputMethod.getParameterMapping(inputParam.getIndex()).ifPresent(outputParam ->
+                        addName(names, conflicts, NameType.PARAMETER, inputParam.getDeobfuscatedName(), outputParam.getDeobfuscatedName())
+                    );
+                }
+            });
+        }
+
+        for (FieldMapping inputField : input.getFieldMappings()) {
+            output.getFieldMapping(inputField.getSignature()).ifPresent(outputField ->
+                addName(names, conflicts, NameType.FIELD, inputField.getDeobfuscatedName(), outputField.getDeobfuscatedName())
+            );
+        }
+    }
+
+    private static void addName(Map<NameType, Map<String, String>> names, Set<Name> conflicts, NameType type, String name, String processed) {
+        @Nullable String existing = names.computeIfAbsent(type, t -> new HashMap<>()).putIfAbsent(name, processed);
+
+        if (existing != null && !existing.equals(processed)) {
+            conflicts.add(new Name(name, type));
+        }
+    }
+
+    /**
+     * Reads an incremental cache from a file.
+     *
+     * <p>If the file doesn't exist, is truncated or corrupt, or it was written for name processors
+     * with a different fingerprint or by an incompatible version of Ripple, an empty cache is returned.
+     *
+     * @param path       the path to the cache file
+     * @param processors the name processors that the cache is used with
+     * @return the read cache
+     * @throws IOException if an I/O error occurs or the file is not an incremental cache file
+     */
+    public static IncrementalCache read(Path path, Iterable<? extends NameProcessor<?>> processors) throws IOException {
+        String fingerprint = NameProcessorIo.fingerprint(processors);
+        Map<NameType, Map<String, String>> names = new EnumMap<>(NameType.class);
+
+        if (Files.notExists(path)) {
+            return new IncrementalCache(fingerprint, names);
+        }
+
+        // No string in the file can be longer than the file itself
+        long maxLength = Files.size(path);
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("'" + path + "' is not an incremental cache file");
+            }
+
+            if (in.readInt() != FORMAT_VERSION || !readString(in, maxLength).equals(fingerprint)) {
+                // Outdated cache
+                return new IncrementalCache(fingerprint, names);
+            }
+
+            int typeCount = in.readInt();
+            for (int i = 0; i < typeCount; i++) {
+                NameType type = readType(in, maxLength);
+                int nameCount = in.readInt();
+
+                if (nameCount < 0) {
+                    throw new CorruptCacheException();
+                }
+
+                Map<String, String> typeNames = new HashMap<>(Math.max(16, (int) (Math.min(nameCount, maxLength) / 0.75f) + 1));
+
+                for (int j = 0; j < nameCount; j++) {
+                    String name = readString(in, maxLength);
+                    typeNames.put(name, in.readBoolean() ? name : readString(in, maxLength));
+                }
+
+                names.put(type, typeNames);
+            }
+        } catch (EOFException | CorruptCacheException e) {
+            // The previous run was interrupted while writing the file or it was damaged afterwards,
+            // so treat it like an outdated cache
+            return new IncrementalCache(fingerprint, new EnumMap<>(NameType.class));
+        }
+
+        return new IncrementalCache(fingerprint, names);
+    }
+
+    private static NameType readType(DataInputStream in, long maxLength) throws IOException {
+        try {
+            return NameType.valueOf(readString(in, maxLength));
+        } catch (IllegalArgumentException e) {
+            throw new CorruptCacheException();
+        }
+    }
+
+    private static String readString(DataInputStream in, long maxLength) throws IOException {
+        int length = in.readInt();
+
+        if (length < 0 || length > maxLength) {
+            throw new CorruptCacheException();
+        }
+
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Writes the names looked up or added during this run to a file.
+     * The file can be {@linkplain #read(Path, Iterable) read} in the next run.
+     *
+     * <p>The cache is written to a temporary file that replaces the cache file once it's complete,
+     * so an interrupted write leaves the previous cache file intact.
+     *
+     * @param path the path to the cache file
+     * @throws IOException if an I/O error occurs
+     */
+    public void write(Path path) throws IOException {
+        Path absolutePath = path.toAbsolutePath();
+        Path temp = Files.createTempFile(absolutePath.getParent(), absolutePath.getFileName().toString(), ".tmp");
+
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                writeString(out, fingerprint);
+                out.writeInt(current.size());
+
+                for (Map.Entry<NameType, Map<String, String>> typeEntry : current.entrySet()) {
+                    // Copy the names so the count matches even if processing is still running
+                    Map<String, String> names = new HashMap<>(typeEntry.getValue());
+                    // Unpaired surrogates can't be encoded in UTF-8, so those names are processed again next time
+                    names.entrySet().removeIf(entry -> hasUnpairedSurrogate(entry.getKey()) || hasUnpairedSurrogate(entry.getValue()));
+                    writeString(out, typeEntry.getKey().name());
+                    out.writeInt(names.size());
+
+                    for (Map.Entry<String, String> entry : names.entrySet()) {
+                        boolean unchanged = entry.getKey().equals(entry.getValue());
+                        writeString(out, entry.getKey());
+                        out.writeBoolean(unchanged);
+
+                        if (!unchanged) {
+                            writeString(out, entry.getValue());
+                        }
+                    }
+                }
+            }
+
+            Files.move(temp, absolutePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String str) throws IOException {
+        byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static boolean hasUnpairedSurrogate(String str) {
+        for (int i = 0; i < str.length(); i++) {
+            char c = str.charAt(i);
+
+            if (Character.isHighSurrogate(c) && i + 1 < str.length() && Character.isLowSurrogate(str.charAt(i + 1))) {
+                i++;
+            } else if (Character.isSurrogate(c)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    @Nullable String get(String name, NameType type) {
+        Map<String, String> currentNames = current.get(type);
+        @Nullable String result = currentNames.get(name);
+
+        if (result == null) {
+            @Nullable Map<String, String> previousNames = previous.get(type);
+
+            if (previousNames != null) {
+                result = previousNames.get(name);
+
+                if (result != null) {
+                    currentNames.put(name, result);
+                    reused.increment();
+                }
+            }
+        }
+
+        return result;
+    }
+
+    void put(String name, NameType type, String processed) {
+        current.get(type).put(name, processed);
+        this.processed.increment();
+    }
+
+    /**
+     * Gets the fingerprint of the name processors that this cache is used with.
+     *
+     * @return the fingerprint
+     * @see NameProcessorIo#fingerprint(Iterable)
+     */
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    /**
+     * Gets the number of names that were reused from the previous run.
+     *
+     * @return the reused name count
+     */
+    public long getReusedCount() {
+        return reused.sum();
+    }
+
+    /**
+     * Gets the number of names that had to be processed because they weren't found in the previous run.
+     *
+     * @return the processed name count
+     */
+    public long getProcessedCount() {
+        return processed.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "IncrementalCache[reused=" + getReusedCount() + ", processed=" + getProcessedCount() + "]";
+    }
+
+    /** Thrown when the contents of a cache file are inconsistent. */
+    private static final class CorruptCacheException extends IOException {
+    }
+
+    private static final class Name {
+        private final String name;
+        private final NameType type;
+
+        Name(String name, NameType type) {
+            this.name = name;
+            this.type = type;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Name)) return false;
+            Name that = (Name) o;
+            return type == that.type && name.equals(that.name);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * name.hashCode() + type.ordinal();
+        }
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package juuxel.ripple;
+
+import juuxel.ripple.processor.NameProcessor;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs the processor chains of an {@linkplain Ripple.Builder#instrument(boolean) instrumented} engine
+ * and records statistics for each processor and name type.
+ */
+final class Instrumentation {
+    private static final Counter[] NO_COUNTERS = new Counter[0];
+
+    private final Map<NameType, Counter[]> countersByType = new EnumMap<>(NameType.class);
+
+    Instrumentation(Iterable<? extends NameProcessor<?>> processors) {
+        Map<NameType, List<Counter>> counters = new EnumMap<>(NameType.class);
+
+        for (NameType type : NameType.values()) {
+            counters.put(type, new ArrayList<>());
+        }
+
+        int index = 0;
+        for (NameProcessor<?> processor : processors) {
+            // Resolve each processor on its own to keep track of its position in the chain
+            for (Map.Entry<NameType, List<NameProcessor<?>>> entry : Ripple.resolveChains(Collections.singletonList(processor)).entrySet()) {
+                for (NameProcessor<?> source : entry.getValue()) {
+                    counters.get(entry.getKey()).add(new Counter(index, processor, source, entry.getKey()));
+                }
+            }
+
+            index++;
+        }
+
+        for (Map.Entry<NameType, List<Counter>> entry : counters.entrySet()) {
+            countersByType.put(entry.getKey(), entry.getValue().toArray(NO_COUNTERS));
+        }
+    }
+
+    String process(String name, NameType type) {
+        for (Counter counter : countersByType.get(type)) {
+            long start = System.nanoTime();
+            String processed = counter.source.process(name, type);
+            counter.nanos.add(System.nanoTime() - start);
+            counter.invocations.increment();
+
+            if (processed != name && !processed.equals(name)) {
+                counter.hits.increment();
+            }
+
+            name = processed;
+        }
+
+        return name;
+    }
+
+    ProcessingReport createReport() {
+        List<ProcessingReport.Entry> entries = new ArrayList<>();
+
+        for (Counter[] counters : countersByType.values()) {
+            for (Counter counter : counters) {
+                entries.add(new ProcessingReport.Entry(
+                    counter.index, counter.processor, counter.type,
+                    counter.invocations.sum(), counter.hits.sum(), counter.nanos.sum()
+                ));
+            }
+        }
+
+        entries.sort(ProcessingReport.Entry.ORDER);
+        return new ProcessingReport(entries);
+    }
+
+    private static final class Counter {
+        final int index;
+        final NameProcessor<?> processor;
+        final NameProcessor<?> source;
+        final NameType type;
+        final LongAdder invocations = new LongAdder();
+        final LongAdder hits = new LongAdder();
+        final LongAdder nanos = new LongAdder();
+
+        Counter(int index, NameProcessor<?> processor, NameProcessor<?> source, NameType type) {
+            this.index = index;
+            this.processor = processor;
+            this.source = source;
+            this.type = type;
+        }
+    }
+}
@@ -0,0 +1,245 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package juuxel.ripple;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A bounded, thread-safe cache of processed names, keyed by the input name and its {@linkplain NameType type}.
+ *
+ * <p>The cache is split into independently locked segments, and each segment evicts its own entries
+ * according to the {@linkplain Eviction eviction policy} once it's full.
+ *
+ * @see Ripple.Builder#cache(int, Eviction)
+ * @since 0.5.0
+ */
+public final class NameCache {
+    private static final int SEGMENT_COUNT = 16;
+
+    private final int maximumSize;
+    private final Eviction eviction;
+    private final Segment[] segments;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    NameCache(int maximumSize, Eviction eviction) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("Maximum cache size must be positive, got " + maximumSize);
+        }
+
+        this.maximumSize = maximumSize;
+        this.eviction = eviction;
+
+        int segmentCount = Math.min(SEGMENT_COUNT, Integer.highestOneBit(maximumSize));
+        segments = new Segment[segmentCount];
+
+        for (int i = 0; i < segmentCount; i++) {
+            // Spread the remainder over the first segments so the total is exactly the maximum size
+            int segmentSize = maximumSize / segmentCount + (i < maximumSize % segmentCount ? 1 : 0);
+            segments[i] = new Segment(segmentSize, eviction == Eviction.LEAST_RECENTLY_USED);
+        }
+    }
+
+    @Nullable String get(String name, NameType type) {
+        Key key = new Key(name, type);
+        String result = segmentFor(key).get(key);
+
+        if (result != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+        }
+
+        return result;
+    }
+
+    void put(String name, NameType type, String processed) {
+        Key key = new Key(name, type);
+        segmentFor(key).put(key, processed);
+    }
+
+    private Segment segmentFor(Key key) {
+        int hash = key.hash;
+        return segments[(hash ^ (hash >>> 16)) & (segments.length - 1)];
+    }
+
+    /**
+     * Gets the maximum number of entries in this cache.
+     *
+     * @return the maximum size
+     */
+    public int getMaximumSize() {
+        return maximumSize;
+    }
+
+    /**
+     * Gets the eviction policy of this cache.
+     *
+     * @return the eviction policy
+     */
+    public Eviction getEviction() {
+        return eviction;
+    }
+
+    /**
+     * Takes a snapshot of the statistics of this cache.
+     *
+     * @return the current statistics
+     */
+    public Stats getStats() {
+        int size = 0;
+
+        for (Segment segment : segments) {
+            synchronized (segment) {
+                size += segment.size();
+            }
+        }
+
+        return new Stats(hits.sum(), misses.sum(), evictions.sum(), size);
+    }
+
+    /**
+     * The policies for choosing which entries to evict when the cache is full.
+     */
+    public enum Eviction {
+        /** Evicts the entry that was looked up least recently. */
+        LEAST_RECENTLY_USED,
+        /** Evicts the entry that was added first. Lookups are cheaper than with {@link #LEAST_RECENTLY_USED}. */
+        FIRST_IN_FIRST_OUT,
+    }
+
+    /**
+     * A snapshot of the statistics of a {@link NameCache}.
+     */
+    public static final class Stats {
+        private final long hitCount;
+        private final long missCount;
+        private final long evictionCount;
+        private final int size;
+
+        Stats(long hitCount, long missCount, long evictionCount, int size) {
+            this.hitCount = hitCount;
+            this.missCount = missCount;
+            this.evictionCount = evictionCount;
+            this.size = size;
+        }
+
+        /**
+         * Gets the number of lookups that found a cached name.
+         *
+         * @return the hit count
+         */
+        public long getHitCount() {
+            return hitCount;
+        }
+
+        /**
+         * Gets the number of lookups that had to process the name.
+         *
+         * @return the miss count
+         */
+        public long getMissCount() {
+            return missCount;
+        }
+
+        /**
+         * Gets the number of entries that have been evicted.
+         *
+         * @return the eviction count
+         */
+        public long getEvictionCount() {
+            return evictionCount;
+        }
+
+        /**
+         * Gets the number of entries in the cache.
+         *
+         * @return the size
+         */
+        public int getSize() {
+            return size;
+        }
+
+        /**
+         * Gets the ratio of hits to all lookups.
+         *
+         * @return the hit rate, or 0 if there have been no lookups
+         */
+        public double getHitRate() {
+            long lookups = hitCount + missCount;
+            return lookups == 0 ? 0 : (double) hitCount / lookups;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(
+                "NameCache.Stats[hits=%d, misses=%d, evictions=%d, size=%d, hitRate=%.3f]",
+                hitCount, missCount, evictionCount, size, getHitRate()
+            );
+        }
+    }
+
+    private static final class Key {
+        private final String name;
+        private final NameType type;
+        private final int hash;
+
+        Key(String name, NameType type) {
+            this.name = name;
+            this.type = type;
+            this.hash = 31 * name.hashCode() + type.ordinal();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key that = (Key) o;
+            return type == that.type && name.equals(that.name);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    private final class Segment extends LinkedHashMap<Key, String> {
+        private static final long serialVersionUID = 1L;
+        private final int capacity;
+
+        Segment(int capacity, boolean accessOrder) {
+            super(16, 0.75f, accessOrder);
+            this.capacity = capacity;
+        }
+
+        @Override
+        public synchronized String get(Object key) {
+            return super.get(key);
+        }
+
+        @Override
+        public synchronized String put(Key key, String value) {
+            return super.put(key, value);
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, String> eldest) {
+            if (size() > capacity) {
+                evictions.increment();
+                return true;
+            }
+
+            return false;
+        }
+    }
+}
@@ -30,11 +30,19 @@ public enum NameType {
     /** A parameter inside a method. */
     PARAMETER,
 
-    // Not produced yet (included for forwards compatibility)
+    // Not produced by MappingSet processing (Lorenz doesn't support these)
 
-    /** A local variable inside a method. */
+    /**
+     * A local variable inside a method.
+     *
+     * <p>Only produced by {@link juuxel.ripple.tiny.TinyRewriter}.
+     */
     LOCAL_VARIABLE,
-    /** A (javadoc) comment. */
+    /**
+     * A (javadoc) comment.
+     *
+     * <p>Only produced by {@link juuxel.ripple.tiny.TinyRewriter} if enabled.
+     */
     COMMENT,
     ;
 
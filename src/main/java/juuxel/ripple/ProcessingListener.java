@@ -0,0 +1,48 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package juuxel.ripple;
+
+import org.cadixdev.lorenz.MappingSet;
+
+/**
+ * A listener that is notified when a {@link Ripple} engine changes a name in a mapping set.
+ *
+ * <p>Listeners are only called for names that change when processing a {@link MappingSet}
+ * with {@link Ripple#process(MappingSet)} or {@link Ripple#processInPlace(MappingSet)}.
+ * They are always called on the thread that called the processing method, in the order of the mappings,
+ * even if the names were processed {@linkplain Ripple.Builder#parallel(java.util.concurrent.Executor) in parallel}.
+ * Processing single names with {@link Ripple#process(String, NameType)} or the Tiny rewriters
+ * doesn't notify listeners.
+ *
+ * <p>The owner path identifies where the name is located. It uses the processed names of the owners:
+ * <ul>
+ *     <li>for top-level classes, it's empty</li>
+ *     <li>for inner classes, methods and fields, it's the full name of the enclosing class,
+ *     eg. {@code com/example/Foo$Bar}</li>
+ *     <li>for parameters, it's the full name of the method followed by its descriptor,
+ *     eg. {@code com/example/Foo/bar(Lnet/minecraft/class_1;)V}</li>
+ * </ul>
+ *
+ * <p>The method descriptor is the <em>obfuscated</em> descriptor, so its class names are in the mapping set's
+ * source namespace and are never processed. This keeps the owner path the same regardless of the processing
+ * mode or the order in which classes are processed.
+ *
+ * @see Ripple.Builder#listener(ProcessingListener)
+ * @since 0.5.0
+ */
+@FunctionalInterface
+public interface ProcessingListener {
+    /**
+     * Called when a name is changed.
+     *
+     * @param ownerPath the path of the owner of the name
+     * @param type      the type of the name
+     * @param oldName   the original name
+     * @param newName   the processed name
+     */
+    void onNameChanged(String ownerPath, NameType type, String oldName, String newName);
+}
@@ -0,0 +1,171 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package juuxel.ripple;
+
+import blue.endless.jankson.JsonArray;
+import blue.endless.jankson.JsonObject;
+import blue.endless.jankson.JsonPrimitive;
+import juuxel.ripple.processor.NameProcessor;
+import juuxel.ripple.processor.NameProcessorIo;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * A snapshot of the statistics recorded by an {@linkplain Ripple.Builder#instrument(boolean) instrumented} engine.
+ *
+ * <p>The report has an {@linkplain Entry entry} for each processor and each name type that the processor applies to.
+ * Names that were served from a cache or skipped entirely are not counted.
+ *
+ * @see Ripple#getReport()
+ * @since 0.5.0
+ */
+public final class ProcessingReport {
+    private final List<Entry> entries;
+
+    ProcessingReport(List<Entry> entries) {
+        this.entries = Collections.unmodifiableList(entries);
+    }
+
+    /**
+     * Gets the entries of this report, sorted by processor index and name type.
+     *
+     * @return the entries
+     */
+    public List<Entry> getEntries() {
+        return entries;
+    }
+
+    /**
+     * Gets the total time spent in all processors.
+     *
+     * @return the total time in nanoseconds
+     */
+    public long getTotalNanos() {
+        long total = 0;
+
+        for (Entry entry : entries) {
+            total += entry.nanos;
+        }
+
+        return total;
+    }
+
+    /**
+     * Converts this report to JSON.
+     *
+     * @return the JSON representation of this report
+     */
+    public JsonObject toJson() {
+        JsonArray entryArray = new JsonArray();
+
+        for (Entry entry : entries) {
+            entryArray.add(entry.toJson());
+        }
+
+        JsonObject json = new JsonObject();
+        json.put("totalNanos", new JsonPrimitive(getTotalNanos()));
+        json.put("entries", entryArray);
+        return json;
+    }
+
+    /**
+     * The statistics of a processor for a single name type.
+     */
+    public static final class Entry {
+        static final Comparator<Entry> ORDER = Comparator.<Entry>comparingInt(entry -> entry.index)
+            .thenComparing(entry -> entry.type);
+
+        private final int index;
+        private final NameProcessor<?> processor;
+        private final NameType type;
+        private final long invocations;
+        private final long hits;
+        private final long nanos;
+
+        Entry(int index, NameProcessor<?> processor, NameType type, long invocations, long hits, long nanos) {
+            this.index = index;
+            this.processor = processor;
+            this.type = type;
+            this.invocations = invocations;
+            this.hits = hits;
+            this.nanos = nanos;
+        }
+
+        /**
+         * Gets the index of the processor in the engine's processor chain.
+         *
+         * @return the processor index
+         */
+        public int getIndex() {
+            return index;
+        }
+
+        /**
+         * Gets the processor as it was passed to the engine.
+         *
+         * @return the processor
+         */
+        public NameProcessor<?> getProcessor() {
+            return processor;
+        }
+
+        /**
+         * Gets the name type of this entry.
+         *
+         * @return the name type
+         */
+        public NameType getType() {
+            return type;
+        }
+
+        /**
+         * Gets the number of names that the processor has processed.
+         *
+         * @return the invocation count
+         */
+        public long getInvocations() {
+            return invocations;
+        }
+
+        /**
+         * Gets the number of names that the processor has changed.
+         *
+         * @return the hit count
+         */
+        public long getHits() {
+            return hits;
+        }
+
+        /**
+         * Gets the total time spent in the processor.
+         *
+         * @return the time in nanoseconds
+         */
+        public long getNanos() {
+            return nanos;
+        }
+
+        JsonObject toJson() {
+            JsonObject json = new JsonObject();
+            json.put("index", new JsonPrimitive(index));
+            json.put("processor", NameProcessorIo.toJson(processor));
+            json.put("type", new JsonPrimitive(type.name()));
+            json.put("invocations", new JsonPrimitive(invocations));
+            json.put("hits", new JsonPrimitive(hits));
+            json.put("nanos", new JsonPrimitive(nanos));
+            return json;
+        }
+
+        @Override
+        public String toString() {
+            return "ProcessingReport.Entry[index=" + index + ", processor=" + processor + ", type=" + type
+                + ", invocations=" + invocations + ", hits=" + hits + ", nanos=" + nanos + "]";
+        }
+    }
+}
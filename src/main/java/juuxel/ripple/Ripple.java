@@ -6,29 +6,157 @@
 
 package juuxel.ripple;
 
+import juuxel.ripple.jfr.RippleEvent;
+import juuxel.ripple.pipeline.CompiledPipeline;
+import juuxel.ripple.processor.FilteredProcessor;
 import juuxel.ripple.processor.NameProcessor;
+import juuxel.ripple.processor.NameProcessorIo;
 import org.cadixdev.lorenz.MappingSet;
 import org.cadixdev.lorenz.model.ClassMapping;
 import org.cadixdev.lorenz.model.FieldMapping;
+import org.cadixdev.lorenz.model.Mapping;
 import org.cadixdev.lorenz.model.MethodMapping;
 import org.cadixdev.lorenz.model.MethodParameterMapping;
 import org.cadixdev.lorenz.model.TopLevelClassMapping;
+import org.jetbrains.annotations.Nullable;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.BiFunction;
 
 /**
  * An engine for applying {@linkplain NameProcessor name processors} to deobfuscation mappings.
+ *
+ * <p>Engines with additional options can be created using {@link #builder(Iterable)}.
  */
 public final class Ripple {
-    private final Iterable<? extends NameProcessor<?>> nameProcessors;
+    private static final NameProcessor<?>[] NO_PROCESSORS = new NameProcessor<?>[0];
+    private static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal.withInitial(StringBuilder::new);
+
+    /**
+     * The default minimum number of top-level classes for processing mapping sets in parallel.
+     *
+     * @since 0.5.0
+     */
+    public static final int DEFAULT_PARALLEL_THRESHOLD = 256;
+
+    private final Map<NameType, NameProcessor<?>[]> processorsByType;
+    private final int processorCount;
+    private final @Nullable CompiledPipeline pipeline;
+    private final @Nullable Executor executor;
+    private final int parallelThreshold;
+    private final @Nullable NameCache cache;
+    private final @Nullable IncrementalCache incrementalCache;
+    private final @Nullable Instrumentation instrumentation;
+    private final @Nullable ProcessingListener listener;
 
     /**
      * Constructs a Ripple engine.
      *
+     * <p>The name processors are read once in this constructor, so later changes to
+     * the iterable are not reflected in the engine.
+     *
      * @param nameProcessors the name processors used by this engine
      */
     public Ripple(Iterable<? extends NameProcessor<?>> nameProcessors) {
-        this.nameProcessors = nameProcessors;
+        this.processorsByType = toArrays(resolveChains(nameProcessors));
+        this.processorCount = count(nameProcessors);
+        this.pipeline = null;
+        this.executor = null;
+        this.parallelThreshold = DEFAULT_PARALLEL_THRESHOLD;
+        this.cache = null;
+        this.incrementalCache = null;
+        this.instrumentation = null;
+        this.listener = null;
+    }
+
+    private Ripple(Builder builder) {
+        Map<NameType, List<NameProcessor<?>>> chains = resolveChains(builder.nameProcessors);
+        this.processorsByType = toArrays(chains);
+        this.processorCount = count(builder.nameProcessors);
+        // Compiled pipelines merge processors, so they can't be instrumented
+        this.pipeline = builder.compile && !builder.instrument ? CompiledPipeline.compile(chains) : null;
+        this.executor = builder.executor;
+        this.parallelThreshold = builder.parallelThreshold;
+        this.cache = builder.cacheSize > 0 ? new NameCache(builder.cacheSize, builder.cacheEviction) : null;
+        this.incrementalCache = builder.incrementalCache;
+        this.instrumentation = builder.instrument ? new Instrumentation(builder.nameProcessors) : null;
+        this.listener = builder.listener;
+    }
+
+    /**
+     * Resolves a chain of name processors separately for each {@linkplain NameType name type}.
+     *
+     * <p>Filtered processors are unwrapped, including nested ones, and their source processors are only included
+     * for the name types that pass all of the filters. The resulting chains produce the same output as
+     * the original chain for their name type.
+     *
+     * @param processors the name processors, in application order
+     * @return a map from each name type to the unfiltered processors that apply to it, in application order
+     */
+    static Map<NameType, List<NameProcessor<?>>> resolveChains(Iterable<? extends NameProcessor<?>> processors) {
+        Map<NameType, List<NameProcessor<?>>> result = new EnumMap<>(NameType.class);
+
+        for (NameType type : NameType.values()) {
+            result.put(type, new ArrayList<>());
+        }
+
+        for (NameProcessor<?> processor : processors) {
+            EnumSet<NameType> types = EnumSet.allOf(NameType.class);
+
+            while (processor instanceof FilteredProcessor<?>) {
+                FilteredProcessor<?> filtered = (FilteredProcessor<?>) processor;
+                types.retainAll(filtered.getFilter());
+                processor = filtered.getSource();
+            }
+
+            for (NameType type : types) {
+                result.get(type).add(processor);
+            }
+        }
+
+        return result;
+    }
+
+    private static Map<NameType, NameProcessor<?>[]> toArrays(Map<NameType, List<NameProcessor<?>>> chains) {
+        Map<NameType, NameProcessor<?>[]> result = new EnumMap<>(NameType.class);
+
+        for (Map.Entry<NameType, List<NameProcessor<?>>> entry : chains.entrySet()) {
+            result.put(entry.getKey(), entry.getValue().toArray(NO_PROCESSORS));
+        }
+
+        return result;
+    }
+
+    private static int count(Iterable<?> iterable) {
+        int count = 0;
+
+        for (Object ignored : iterable) {
+            count++;
+        }
+
+        return count;
+    }
+
+    /**
+     * Creates a builder for a Ripple engine.
+     *
+     * @param nameProcessors the name processors used by the engine
+     * @return the builder
+     * @since 0.5.0
+     */
+    public static Builder builder(Iterable<? extends NameProcessor<?>> nameProcessors) {
+        return new Builder(nameProcessors);
     }
 
     /**
@@ -39,50 +167,507 @@ public final class Ripple {
      * @return the name with all processors applied
      */
     public String process(String name, NameType type) {
-        for (NameProcessor<?> processor : nameProcessors) {
-            name = processor.process(name, type);
+        if (pipeline != null && !pipeline.mayChange(name, type)) {
+            return name;
+        }
+
+        if (incrementalCache != null) {
+            @Nullable String previous = incrementalCache.get(name, type);
+
+            if (previous != null) {
+                return previous;
+            }
+
+            String processed = processNew(name, type);
+            incrementalCache.put(name, type, processed);
+            return processed;
+        }
+
+        return processNew(name, type);
+    }
+
+    private String processNew(String name, NameType type) {
+        if (cache != null) {
+            @Nullable String cached = cache.get(name, type);
+
+            if (cached != null) {
+                return cached;
+            }
+
+            String processed = processUncached(name, type);
+            cache.put(name, type, processed);
+            return processed;
+        }
+
+        return processUncached(name, type);
+    }
+
+    /**
+     * Tests whether processing might change a name.
+     *
+     * <p>This check does not allocate and is usually much cheaper than processing the name.
+     * It can only rule out changes for {@linkplain Builder#compile(boolean) compiled} engines;
+     * see {@link CompiledPipeline#mayChange(CharSequence, NameType)}.
+     *
+     * @param name the name
+     * @param type the type of the name
+     * @return false if {@link #process(String, NameType)} is guaranteed to return the name unchanged, true otherwise
+     * @since 0.5.0
+     */
+    public boolean mayChange(CharSequence name, NameType type) {
+        return pipeline == null || pipeline.mayChange(name, type);
+    }
+
+    private String processUncached(String name, NameType type) {
+        if (pipeline != null) {
+            return pipeline.process(name, type);
+        } else if (instrumentation != null) {
+            return instrumentation.process(name, type);
+        }
+
+        NameProcessor<?>[] processors = processorsByType.get(type);
+
+        if (processors.length == 0) {
+            return name;
+        }
+
+        // The processors share one buffer, so only the final name is turned into a string
+        StringBuilder buffer = BUFFER.get();
+        buffer.setLength(0);
+        buffer.append(name);
+        boolean changed = false;
+
+        for (NameProcessor<?> processor : processors) {
+            changed |= processor.processInPlace(buffer, type);
         }
 
-        return name;
+        return changed && !name.contentEquals(buffer) ? buffer.toString() : name;
+    }
+
+    /**
+     * Takes a snapshot of the statistics of this engine's {@linkplain Builder#cache(int, NameCache.Eviction) name cache}.
+     *
+     * @return the cache statistics, or empty if this engine has no cache
+     * @since 0.5.0
+     */
+    public Optional<NameCache.Stats> getCacheStats() {
+        return cache != null ? Optional.of(cache.getStats()) : Optional.empty();
+    }
+
+    /**
+     * Creates a report of the processing done by this engine if it's {@linkplain Builder#instrument(boolean) instrumented}.
+     *
+     * @return the processing report, or empty if this engine is not instrumented
+     * @since 0.5.0
+     */
+    public Optional<ProcessingReport> getReport() {
+        return instrumentation != null ? Optional.of(instrumentation.createReport()) : Optional.empty();
     }
 
     /**
      * Processes a Lorenz {@link MappingSet}.
      *
+     * <p>If this engine is {@linkplain Builder#parallel(Executor) parallel} and the mapping set has enough
+     * top-level classes, the names of the top-level classes and their members are processed concurrently.
+     * The result is identical to sequential processing.
+     *
      * @param mappings the input mapping set
      * @return the processed mapping set
      */
     public MappingSet process(MappingSet mappings) {
         MappingSet result = MappingSet.create();
 
-        for (TopLevelClassMapping oldClass : mappings.getTopLevelClassMappings()) {
-            processClass(oldClass, result::createTopLevelClassMapping);
+        if (executor != null && mappings.getTopLevelClassMappings().size() >= parallelThreshold) {
+            List<TopLevelClassMapping> oldClasses = new ArrayList<>(mappings.getTopLevelClassMappings());
+            String[][] names = processNamesInParallel(oldClasses, executor);
+
+            for (int i = 0; i < names.length; i++) {
+                processClass(null, oldClasses.get(i), result::createTopLevelClassMapping, new PrecomputedNames(names[i]));
+            }
+        } else {
+            RippleEvent event = RippleEvent.begin(RippleEvent.Type.PROCESSING_BATCH);
+
+            for (TopLevelClassMapping oldClass : mappings.getTopLevelClassMappings()) {
+                processClass(null, oldClass, result::createTopLevelClassMapping, this::process);
+            }
+
+            commitBatchEvent(event, mappings.getTopLevelClassMappings());
         }
 
         return result;
     }
 
-    private void processClass(ClassMapping<?, ?> oldClass, BiFunction<String, String, ClassMapping<?, ?>> newClassCreator) {
-        String className = process(oldClass.getDeobfuscatedName(), NameType.CLASS);
+    /**
+     * Processes a Lorenz {@link MappingSet} in place.
+     *
+     * <p>Unlike {@link #process(MappingSet)}, this method doesn't create a copy of the mappings, which halves
+     * the peak memory use for large mapping sets. Only the mappings whose processed name differs from
+     * the original one are modified. Like {@link #process(MappingSet)}, the names can be processed
+     * in parallel, but the mappings are always modified on the calling thread.
+     *
+     * @param mappings the mapping set to process
+     * @since 0.5.0
+     */
+    public void processInPlace(MappingSet mappings) {
+        if (executor != null && mappings.getTopLevelClassMappings().size() >= parallelThreshold) {
+            List<TopLevelClassMapping> classes = new ArrayList<>(mappings.getTopLevelClassMappings());
+            String[][] names = processNamesInParallel(classes, executor);
+
+            for (int i = 0; i < names.length; i++) {
+                renameClass(null, classes.get(i), new PrecomputedNames(names[i]));
+            }
+        } else {
+            RippleEvent event = RippleEvent.begin(RippleEvent.Type.PROCESSING_BATCH);
+
+            for (TopLevelClassMapping mapping : mappings.getTopLevelClassMappings()) {
+                renameClass(null, mapping, this::process);
+            }
+
+            commitBatchEvent(event, mappings.getTopLevelClassMappings());
+        }
+    }
+
+    private void commitBatchEvent(RippleEvent event, Collection<? extends TopLevelClassMapping> classes) {
+        if (event.isEnabled()) {
+            event.setClassCount(classes.size())
+                .setNameCount(RippleEvent.countNames(classes))
+                .setProcessorCount(processorCount);
+        }
+
+        event.commit();
+    }
+
+    private void processClass(@Nullable ClassMapping<?, ?> owner, ClassMapping<?, ?> oldClass,
+                              BiFunction<String, String, ClassMapping<?, ?>> newClassCreator, NameSource names) {
+        String className = names.get(oldClass.getDeobfuscatedName(), NameType.CLASS);
         ClassMapping<?, ?> newClass = newClassCreator.apply(oldClass.getObfuscatedName(), className);
+        notifyIfChanged(owner, NameType.CLASS, oldClass.getDeobfuscatedName(), className);
 
         for (ClassMapping<?, ?> oldInnerClass : oldClass.getInnerClassMappings()) {
-            processClass(oldInnerClass, newClass::createInnerClassMapping);
+            processClass(newClass, oldInnerClass, newClass::createInnerClassMapping, names);
         }
 
         for (MethodMapping oldMethod : oldClass.getMethodMappings()) {
-            String methodName = process(oldMethod.getDeobfuscatedName(), NameType.METHOD);
+            String methodName = names.get(oldMethod.getDeobfuscatedName(), NameType.METHOD);
             MethodMapping newMethod = newClass.createMethodMapping(oldMethod.getSignature(), methodName);
+            notifyIfChanged(newClass, NameType.METHOD, oldMethod.getDeobfuscatedName(), methodName);
 
             for (MethodParameterMapping oldParam : oldMethod.getParameterMappings()) {
-                String paramName = process(oldParam.getDeobfuscatedName(), NameType.PARAMETER);
+                String paramName = names.get(oldParam.getDeobfuscatedName(), NameType.PARAMETER);
                 newMethod.createParameterMapping(oldParam.getIndex(), paramName);
+                notifyIfChanged(newMethod, NameType.PARAMETER, oldParam.getDeobfuscatedName(), paramName);
             }
         }
 
         for (FieldMapping oldField : oldClass.getFieldMappings()) {
-            String fieldName = process(oldField.getDeobfuscatedName(), NameType.FIELD);
+            String fieldName = names.get(oldField.getDeobfuscatedName(), NameType.FIELD);
             newClass.createFieldMapping(oldField.getSignature(), fieldName);
+            notifyIfChanged(newClass, NameType.FIELD, oldField.getDeobfuscatedName(), fieldName);
+        }
+    }
+
+    // Must visit the names in the same order as processClass.
+    private void renameClass(@Nullable ClassMapping<?, ?> owner, ClassMapping<?, ?> mapping, NameSource names) {
+        rename(owner, mapping, NameType.CLASS, names);
+
+        for (ClassMapping<?, ?> innerClass : mapping.getInnerClassMappings()) {
+            renameClass(mapping, innerClass, names);
+        }
+
+        for (MethodMapping method : mapping.getMethodMappings()) {
+            rename(mapping, method, NameType.METHOD, names);
+
+            for (MethodParameterMapping param : method.getParameterMappings()) {
+                rename(method, param, NameType.PARAMETER, names);
+            }
+        }
+
+        for (FieldMapping field : mapping.getFieldMappings()) {
+            rename(mapping, field, NameType.FIELD, names);
+        }
+    }
+
+    private void rename(@Nullable Mapping<?, ?> owner, Mapping<?, ?> mapping, NameType type, NameSource names) {
+        String oldName = mapping.getDeobfuscatedName();
+        String name = names.get(oldName, type);
+
+        if (!name.equals(oldName)) {
+            mapping.setDeobfuscatedName(name);
+            notifyIfChanged(owner, type, oldName, name);
+        }
+    }
+
+    // The owner path is only built for changed names, so unchanged names don't allocate anything.
+    private void notifyIfChanged(@Nullable Mapping<?, ?> owner, NameType type, String oldName, String newName) {
+        if (listener != null && !newName.equals(oldName)) {
+            listener.onNameChanged(getOwnerPath(owner), type, oldName, newName);
+        }
+    }
+
+    private static String getOwnerPath(@Nullable Mapping<?, ?> owner) {
+        if (owner == null) {
+            return "";
+        } else if (owner instanceof MethodMapping) {
+            MethodMapping method = (MethodMapping) owner;
+            // The obfuscated descriptor doesn't depend on which classes have already been processed
+            return method.getFullDeobfuscatedName() + method.getObfuscatedDescriptor();
+        }
+
+        return owner.getFullDeobfuscatedName();
+    }
+
+    private String[][] processNamesInParallel(List<TopLevelClassMapping> oldClasses, Executor executor) {
+        String[][] names = new String[oldClasses.size()][];
+        int parallelism = executor instanceof ForkJoinPool
+            ? ((ForkJoinPool) executor).getParallelism()
+            : Runtime.getRuntime().availableProcessors();
+        // A few batches per thread to even out differences in class sizes
+        int batchCount = Math.max(1, Math.min(oldClasses.size(), parallelism * 4));
+        int batchSize = (oldClasses.size() + batchCount - 1) / batchCount;
+        List<CompletableFuture<Void>> batches = new ArrayList<>();
+
+        for (int start = 0; start < oldClasses.size(); start += batchSize) {
+            int batchStart = start;
+            int batchEnd = Math.min(start + batchSize, oldClasses.size());
+
+            batches.add(CompletableFuture.runAsync(() -> {
+                RippleEvent event = RippleEvent.begin(RippleEvent.Type.PROCESSING_BATCH);
+                List<String> classNames = new ArrayList<>();
+                long nameCount = 0;
+
+                for (int i = batchStart; i < batchEnd; i++) {
+                    collectNames(oldClasses.get(i), classNames);
+                    names[i] = classNames.toArray(new String[0]);
+                    nameCount += classNames.size();
+                    classNames.clear();
+                }
+
+                event.setClassCount(batchEnd - batchStart)
+                    .setNameCount(nameCount)
+                    .setProcessorCount(processorCount)
+                    .commit();
+            }, executor));
+        }
+
+        try {
+            CompletableFuture.allOf(batches.toArray(new CompletableFuture<?>[0])).join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+
+            throw e;
+        }
+
+        return names;
+    }
+
+    // Must visit the names in the same order as processClass and renameClass.
+    private void collectNames(ClassMapping<?, ?> oldClass, List<String> out) {
+        out.add(process(oldClass.getDeobfuscatedName(), NameType.CLASS));
+
+        for (ClassMapping<?, ?> oldInnerClass : oldClass.getInnerClassMappings()) {
+            collectNames(oldInnerClass, out);
+        }
+
+        for (MethodMapping oldMethod : oldClass.getMethodMappings()) {
+            out.add(process(oldMethod.getDeobfuscatedName(), NameType.METHOD));
+
+            for (MethodParameterMapping oldParam : oldMethod.getParameterMappings()) {
+                out.add(process(oldParam.getDeobfuscatedName(), NameType.PARAMETER));
+            }
+        }
+
+        for (FieldMapping oldField : oldClass.getFieldMappings()) {
+            out.add(process(oldField.getDeobfuscatedName(), NameType.FIELD));
+        }
+    }
+
+    @FunctionalInterface
+    private interface NameSource {
+        String get(String name, NameType type);
+    }
+
+    private static final class PrecomputedNames implements NameSource {
+        private final String[] names;
+        private int index = 0;
+
+        PrecomputedNames(String[] names) {
+            this.names = names;
+        }
+
+        @Override
+        public String get(String name, NameType type) {
+            return names[index++];
+        }
+    }
+
+    /**
+     * A builder for {@link Ripple} engines.
+     *
+     * @since 0.5.0
+     */
+    public static final class Builder {
+        private final Iterable<? extends NameProcessor<?>> nameProcessors;
+        private boolean compile = false;
+        private boolean instrument = false;
+        private @Nullable Executor executor = null;
+        private int parallelThreshold = DEFAULT_PARALLEL_THRESHOLD;
+        private int cacheSize = 0;
+        private NameCache.Eviction cacheEviction = NameCache.Eviction.LEAST_RECENTLY_USED;
+        private @Nullable IncrementalCache incrementalCache = null;
+        private @Nullable ProcessingListener listener = null;
+
+        private Builder(Iterable<? extends NameProcessor<?>> nameProcessors) {
+            this.nameProcessors = Objects.requireNonNull(nameProcessors, "nameProcessors");
+        }
+
+        /**
+         * Sets whether the name processors are {@linkplain CompiledPipeline compiled} when the engine is built.
+         *
+         * <p>Compiled engines produce the same output, but run long chains of rename rules faster.
+         *
+         * @param compile true to compile the processors, false otherwise (the default)
+         * @return this builder
+         */
+        public Builder compile(boolean compile) {
+            this.compile = compile;
+            return this;
+        }
+
+        /**
+         * Sets whether the engine records statistics for each processor and name type.
+         * The statistics can be read with {@link Ripple#getReport()}.
+         *
+         * <p>Instrumented engines time every processor invocation, which slows down processing.
+         * They also don't {@linkplain #compile(boolean) compile} their processors,
+         * as compiled pipelines can't attribute work to individual processors.
+         *
+         * @param instrument true to record statistics, false otherwise (the default)
+         * @return this builder
+         */
+        public Builder instrument(boolean instrument) {
+            this.instrument = instrument;
+            return this;
+        }
+
+        /**
+         * Makes the engine process mapping sets in parallel using the {@linkplain ForkJoinPool#commonPool() common pool}.
+         *
+         * @return this builder
+         * @see #parallel(Executor)
+         */
+        public Builder parallel() {
+            return parallel(ForkJoinPool.commonPool());
+        }
+
+        /**
+         * Makes the engine process mapping sets in parallel using an executor.
+         *
+         * <p>Each top-level class is processed together with its inner classes and members.
+         * The name processors must be thread-safe when they're used in parallel.
+         *
+         * @param executor the executor that runs the processing tasks
+         * @return this builder
+         */
+        public Builder parallel(Executor executor) {
+            this.executor = Objects.requireNonNull(executor, "executor");
+            return this;
+        }
+
+        /**
+         * Sets the minimum number of top-level classes that a mapping set needs to be processed in parallel.
+         * Smaller mapping sets are processed sequentially.
+         *
+         * @param parallelThreshold the threshold, {@value Ripple#DEFAULT_PARALLEL_THRESHOLD} by default
+         * @return this builder
+         * @throws IllegalArgumentException if the threshold is negative
+         */
+        public Builder parallelThreshold(int parallelThreshold) {
+            if (parallelThreshold < 0) {
+                throw new IllegalArgumentException("Parallel threshold must not be negative, got " + parallelThreshold);
+            }
+
+            this.parallelThreshold = parallelThreshold;
+            return this;
+        }
+
+        /**
+         * Makes the engine cache processed names using a least recently used {@linkplain NameCache name cache}.
+         *
+         * @param maximumSize the maximum number of cached names
+         * @return this builder
+         * @see #cache(int, NameCache.Eviction)
+         */
+        public Builder cache(int maximumSize) {
+            return cache(maximumSize, NameCache.Eviction.LEAST_RECENTLY_USED);
+        }
+
+        /**
+         * Makes the engine cache processed names using a {@linkplain NameCache name cache}.
+         *
+         * <p>Caching is useful when the same names occur often, which is usually the case for
+         * method, field and parameter names. The name processors must always produce
+         * the same output for the same input.
+         *
+         * @param maximumSize the maximum number of cached names
+         * @param eviction    the eviction policy of the cache
+         * @return this builder
+         * @throws IllegalArgumentException if the maximum size is not positive
+         * @see Ripple#getCacheStats()
+         */
+        public Builder cache(int maximumSize, NameCache.Eviction eviction) {
+            if (maximumSize <= 0) {
+                throw new IllegalArgumentException("Maximum cache size must be positive, got " + maximumSize);
+            }
+
+            this.cacheSize = maximumSize;
+            this.cacheEviction = Objects.requireNonNull(eviction, "eviction");
+            return this;
+        }
+
+        /**
+         * Makes the engine reuse names from a previous run using an {@linkplain IncrementalCache incremental cache}.
+         *
+         * <p>Names found in the incremental cache are not processed again, and the processed forms of
+         * other names are added to it. The incremental cache is checked before the {@linkplain #cache(int) name cache}.
+         *
+         * @param incrementalCache the incremental cache, created for the same name processors as the engine
+         * @return this builder
+         */
+        public Builder incremental(IncrementalCache incrementalCache) {
+            this.incrementalCache = Objects.requireNonNull(incrementalCache, "incrementalCache");
+            return this;
+        }
+
+        /**
+         * Sets a listener that is notified when the engine changes a name in a mapping set.
+         *
+         * @param listener the listener
+         * @return this builder
+         */
+        public Builder listener(ProcessingListener listener) {
+            this.listener = Objects.requireNonNull(listener, "listener");
+            return this;
+        }
+
+        /**
+         * Builds the engine.
+         *
+         * @return the built engine
+         * @throws IllegalStateException if the {@linkplain #incremental(IncrementalCache) incremental cache}
+         *                               was created for different name processors
+         */
+        public Ripple build() {
+            if (incrementalCache != null && !incrementalCache.getFingerprint().equals(NameProcessorIo.fingerprint(nameProcessors))) {
+                throw new IllegalStateException("Incremental cache was created for different name processors");
+            }
+
+            return new Ripple(this);
         }
     }
 }
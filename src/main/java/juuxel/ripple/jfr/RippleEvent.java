@@ -0,0 +1,360 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package juuxel.ripple.jfr;
+
+import org.cadixdev.lorenz.MappingSet;
+import org.cadixdev.lorenz.model.ClassMapping;
+import org.cadixdev.lorenz.model.MethodMapping;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A Java Flight Recorder event for a phase of Ripple's processing.
+ *
+ * <p>The events are defined at runtime with {@code jdk.jfr.EventFactory}, which is accessed reflectively.
+ * The event types are only defined by the first {@link #begin(Type)} call after the flight recorder has been
+ * initialized, so processing without a recording doesn't pay for them.
+ * On Java versions without JFR, before a recording has started, or when the events are not enabled
+ * in a recording, {@link #begin(Type)} returns a shared no-op event.
+ *
+ * <p>Each event has a duration and the fields {@code classCount}, {@code nameCount} and {@code processorCount}.
+ * Fields that don't apply to the event type are left at zero.
+ *
+ * @since 0.5.0
+ */
+public final class RippleEvent {
+    private static final RippleEvent DISABLED = new RippleEvent(null, null);
+
+    private final @Nullable Jfr jfr;
+    private final @Nullable Object event;
+
+    private RippleEvent(@Nullable Jfr jfr, @Nullable Object event) {
+        this.jfr = jfr;
+        this.event = event;
+    }
+
+    /**
+     * Begins timing an event.
+     *
+     * @param type the event type
+     * @return the event, which is a no-op if JFR is unavailable or the event type is disabled
+     */
+    public static RippleEvent begin(Type type) {
+        @Nullable Jfr jfr = Jfr.get();
+
+        if (jfr == null) {
+            return DISABLED;
+        }
+
+        @Nullable Object event = jfr.begin(type);
+        return event != null ? new RippleEvent(jfr, event) : DISABLED;
+    }
+
+    /**
+     * Checks if this event is recorded. Values that are expensive to compute should only be set on enabled events.
+     *
+     * @return true if this event is enabled, false otherwise
+     */
+    public boolean isEnabled() {
+        return event != null;
+    }
+
+    /**
+     * Sets the number of top-level classes involved in this event.
+     *
+     * @param classCount the class count
+     * @return this event
+     */
+    public RippleEvent setClassCount(long classCount) {
+        return set(Field.CLASS_COUNT, classCount);
+    }
+
+    /**
+     * Sets the number of names involved in this event.
+     *
+     * @param nameCount the name count
+     * @return this event
+     */
+    public RippleEvent setNameCount(long nameCount) {
+        return set(Field.NAME_COUNT, nameCount);
+    }
+
+    /**
+     * Sets the number of name processors involved in this event.
+     *
+     * @param processorCount the processor count
+     * @return this event
+     */
+    public RippleEvent setProcessorCount(int processorCount) {
+        return set(Field.PROCESSOR_COUNT, processorCount);
+    }
+
+    private RippleEvent set(Field field, Object value) {
+        if (jfr != null && event != null) {
+            jfr.set(event, field, value);
+        }
+
+        return this;
+    }
+
+    /**
+     * Ends timing this event and commits it to the recording.
+     */
+    public void commit() {
+        if (jfr != null && event != null) {
+            jfr.commit(event);
+        }
+    }
+
+    /**
+     * Counts the class, method, parameter and field names in a mapping set, which are the names that
+     * {@link juuxel.ripple.Ripple#process(MappingSet)} processes.
+     *
+     * @param mappings the mapping set
+     * @return the number of names
+     */
+    public static long countNames(MappingSet mappings) {
+        return countNames(mappings.getTopLevelClassMappings());
+    }
+
+    /**
+     * Counts the class, method, parameter and field names in classes, including their inner classes.
+     *
+     * @param classes the classes
+     * @return the number of names
+     */
+    public static long countNames(Collection<? extends ClassMapping<?, ?>> classes) {
+        long count = 0;
+
+        for (ClassMapping<?, ?> mapping : classes) {
+            count += 1 + countNames(mapping.getInnerClassMappings()) + mapping.getFieldMappings().size();
+
+            for (MethodMapping method : mapping.getMethodMappings()) {
+                count += 1 + method.getParameterMappings().size();
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * The types of Ripple events.
+     */
+    public enum Type {
+        /** Reading name processors from JSON. */
+        RULE_LOADING("RuleLoading", "Rule Loading", "Reading name processors from JSON"),
+        /** Reading a mapping set. */
+        MAPPING_READ("MappingRead", "Mapping Read", "Reading a mapping set"),
+        /** Processing a batch of top-level classes in a mapping set. */
+        PROCESSING_BATCH("ProcessingBatch", "Processing Batch", "Processing a batch of top-level classes in a mapping set"),
+        /** Writing a mapping set. */
+        MAPPING_WRITE("MappingWrite", "Mapping Write", "Writing a mapping set"),
+        /**
+         * Reading, processing and writing a Tiny file in a single pass.
+         *
+         * <p>The Tiny rewriters stream the file, so the phases can't be separated. They record this event
+         * instead of {@link #MAPPING_READ}, {@link #PROCESSING_BATCH} and {@link #MAPPING_WRITE}.
+         */
+        TINY_REWRITE("TinyRewrite", "Tiny Rewrite", "Reading, processing and writing a Tiny file in a single pass"),
+        ;
+
+        private final String name;
+        private final String label;
+        private final String description;
+
+        Type(String name, String label, String description) {
+            this.name = "juuxel.ripple." + name;
+            this.label = label;
+            this.description = description;
+        }
+    }
+
+    private enum Field {
+        CLASS_COUNT(long.class, "classCount", "Class Count"),
+        NAME_COUNT(long.class, "nameCount", "Name Count"),
+        PROCESSOR_COUNT(int.class, "processorCount", "Processor Count"),
+        ;
+
+        private final Class<?> type;
+        private final String name;
+        private final String label;
+
+        Field(Class<?> type, String name, String label) {
+            this.type = type;
+            this.name = name;
+            this.label = label;
+        }
+    }
+
+    /**
+     * Reflective access to the JFR API.
+     */
+    private static final class Jfr {
+        /** {@code FlightRecorder.isInitialized()}, or null if JFR is not available. */
+        private static final @Nullable MethodHandle IS_INITIALIZED = findIsInitialized();
+        private static volatile @Nullable Jfr instance;
+        /** Set if the event types could not be defined. */
+        private static volatile boolean failed;
+
+        private final Map<Type, Object> factories;
+        private final MethodHandle newEvent;
+        private final MethodHandle isEnabled;
+        private final MethodHandle begin;
+        private final MethodHandle end;
+        private final MethodHandle commit;
+        private final MethodHandle set;
+
+        private Jfr(Map<Type, Object> factories, Class<?> factoryClass, Class<?> eventClass) throws ReflectiveOperationException {
+            MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+            this.factories = factories;
+            this.newEvent = lookup.findVirtual(factoryClass, "newEvent", MethodType.methodType(eventClass));
+            this.isEnabled = lookup.findVirtual(eventClass, "isEnabled", MethodType.methodType(boolean.class));
+            this.begin = lookup.findVirtual(eventClass, "begin", MethodType.methodType(void.class));
+            this.end = lookup.findVirtual(eventClass, "end", MethodType.methodType(void.class));
+            this.commit = lookup.findVirtual(eventClass, "commit", MethodType.methodType(void.class));
+            this.set = lookup.findVirtual(eventClass, "set", MethodType.methodType(void.class, int.class, Object.class));
+        }
+
+        private static @Nullable MethodHandle findIsInitialized() {
+            try {
+                Class<?> recorderClass = Class.forName("jdk.jfr.FlightRecorder");
+                return MethodHandles.publicLookup().findStatic(recorderClass, "isInitialized", MethodType.methodType(boolean.class));
+            } catch (ReflectiveOperationException | LinkageError | RuntimeException e) {
+                // JFR is not available
+                return null;
+            }
+        }
+
+        /**
+         * Gets the JFR access, defining the event types if the flight recorder
+         * has been initialized and they haven't been defined yet.
+         *
+         * @return the JFR access, or null if JFR is unavailable or not initialized
+         */
+        static @Nullable Jfr get() {
+            @Nullable Jfr current = instance;
+
+            if (current != null || failed || IS_INITIALIZED == null || !isInitialized(IS_INITIALIZED)) {
+                return current;
+            }
+
+            synchronized (Jfr.class) {
+                if (instance == null && !failed) {
+                    instance = load();
+                    failed = instance == null;
+                }
+
+                return instance;
+            }
+        }
+
+        private static boolean isInitialized(MethodHandle isInitialized) {
+            try {
+                return (boolean) isInitialized.invokeExact();
+            } catch (Throwable t) {
+                throw rethrow(t);
+            }
+        }
+
+        private static @Nullable Jfr load() {
+            try {
+                Class<?> factoryClass = Class.forName("jdk.jfr.EventFactory");
+                Class<?> eventClass = Class.forName("jdk.jfr.Event");
+                Class<?> annotationElementClass = Class.forName("jdk.jfr.AnnotationElement");
+                Class<?> valueDescriptorClass = Class.forName("jdk.jfr.ValueDescriptor");
+                Class<? extends Annotation> nameAnnotation = annotationClass("jdk.jfr.Name");
+                Class<? extends Annotation> labelAnnotation = annotationClass("jdk.jfr.Label");
+                Class<? extends Annotation> descriptionAnnotation = annotationClass("jdk.jfr.Description");
+                Class<? extends Annotation> categoryAnnotation = annotationClass("jdk.jfr.Category");
+                Constructor<?> annotationElement = annotationElementClass.getConstructor(Class.class, Object.class);
+                Constructor<?> valueDescriptor = valueDescriptorClass.getConstructor(Class.class, String.class, List.class);
+                Method create = factoryClass.getMethod("create", List.class, List.class);
+
+                // The field indices of the events are the ordinals of the fields
+                List<Object> fields = new ArrayList<>();
+                for (Field field : Field.values()) {
+                    List<Object> annotations = Arrays.asList(annotationElement.newInstance(labelAnnotation, field.label));
+                    fields.add(valueDescriptor.newInstance(field.type, field.name, annotations));
+                }
+
+                Map<Type, Object> factories = new EnumMap<>(Type.class);
+                for (Type type : Type.values()) {
+                    List<Object> annotations = Arrays.asList(
+                        annotationElement.newInstance(nameAnnotation, type.name),
+                        annotationElement.newInstance(labelAnnotation, type.label),
+                        annotationElement.newInstance(descriptionAnnotation, type.description),
+                        annotationElement.newInstance(categoryAnnotation, new String[] { "Ripple" })
+                    );
+                    factories.put(type, create.invoke(null, annotations, fields));
+                }
+
+                return new Jfr(factories, factoryClass, eventClass);
+            } catch (ReflectiveOperationException | LinkageError | RuntimeException e) {
+                // JFR is not available
+                return null;
+            }
+        }
+
+        private static Class<? extends Annotation> annotationClass(String name) throws ClassNotFoundException {
+            return Class.forName(name).asSubclass(Annotation.class);
+        }
+
+        @Nullable Object begin(Type type) {
+            try {
+                Object event = newEvent.invoke(factories.get(type));
+
+                if (!(boolean) isEnabled.invoke(event)) {
+                    return null;
+                }
+
+                begin.invoke(event);
+                return event;
+            } catch (Throwable t) {
+                throw rethrow(t);
+            }
+        }
+
+        void set(Object event, Field field, Object value) {
+            try {
+                set.invoke(event, field.ordinal(), value);
+            } catch (Throwable t) {
+                throw rethrow(t);
+            }
+        }
+
+        void commit(Object event) {
+            try {
+                end.invoke(event);
+                commit.invoke(event);
+            } catch (Throwable t) {
+                throw rethrow(t);
+            }
+        }
+
+        private static RuntimeException rethrow(Throwable t) {
+            if (t instanceof RuntimeException) {
+                return (RuntimeException) t;
+            } else if (t instanceof Error) {
+                throw (Error) t;
+            }
+
+            return new IllegalStateException("Could not emit JFR event", t);
+        }
+    }
+}
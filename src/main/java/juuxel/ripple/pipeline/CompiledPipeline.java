@@ -0,0 +1,205 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package juuxel.ripple.pipeline;
+
+import juuxel.ripple.NameType;
+import juuxel.ripple.processor.FilteredProcessor;
+import juuxel.ripple.processor.NameProcessor;
+import juuxel.ripple.processor.RenameRule;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A chain of {@linkplain NameProcessor name processors} compiled into a faster, equivalent form.
+ *
+ * <p>The chain is compiled separately for each {@linkplain NameType name type}. The chains are resolved
+ * by the {@link juuxel.ripple.Ripple} engine, which leaves out {@linkplain FilteredProcessor filtered processors}
+ * that don't apply to each type. Then, for each type:
+ *
+ * <ul>
+ *     <li>Runs of consecutive non-exact {@link RenameRule}s are fused into a single multi-pattern
+ *     automaton that scans each name once instead of once per rule. A rule is only left out of a fused run if its
+ *     pattern could interact with an earlier rule in the run; in that case it starts a new run.</li>
+ *     <li>Runs of consecutive exact rename rules are merged into a single hash table lookup.</li>
+ *     <li>All other processors are run as-is.</li>
+ * </ul>
+ *
+ * <p>If all stages for a name type only consist of rename rules, a {@linkplain #mayChange prefilter} is built
+ * from their patterns. Names that cannot contain any of the patterns are returned as-is without running
+ * the stages at all.
+ *
+ * <p>The compiled pipeline always produces the same output as applying the processors one by one.
+ *
+ * @since 0.5.0
+ */
+public final class CompiledPipeline {
+    private final Map<NameType, Stage[]> stagesByType;
+    private final Map<NameType, Prefilter> prefiltersByType;
+
+    private CompiledPipeline(Map<NameType, Stage[]> stagesByType, Map<NameType, Prefilter> prefiltersByType) {
+        this.stagesByType = stagesByType;
+        this.prefiltersByType = prefiltersByType;
+    }
+
+    /**
+     * Compiles the chains of name processors for each name type.
+     *
+     * @param chains a map from each name type to the unfiltered processors that apply to it, in application order
+     * @return the compiled pipeline
+     */
+    public static CompiledPipeline compile(Map<NameType, List<NameProcessor<?>>> chains) {
+        Map<NameType, Stage[]> stagesByType = new EnumMap<>(NameType.class);
+        // Types with the same processors share their stages.
+        Map<List<NameProcessor<?>>, Stage[]> stagesByProcessors = new HashMap<>();
+        Map<NameType, Prefilter> prefiltersByType = new EnumMap<>(NameType.class);
+        Map<Stage[], Prefilter> prefiltersByStages = new IdentityHashMap<>();
+
+        for (Map.Entry<NameType, List<NameProcessor<?>>> entry : chains.entrySet()) {
+            Stage[] stages = stagesByProcessors.computeIfAbsent(entry.getValue(), CompiledPipeline::compileStages);
+            stagesByType.put(entry.getKey(), stages);
+
+            @Nullable Prefilter prefilter = prefiltersByStages.computeIfAbsent(stages, CompiledPipeline::createPrefilter);
+            if (prefilter != null) {
+                prefiltersByType.put(entry.getKey(), prefilter);
+            }
+        }
+
+        return new CompiledPipeline(stagesByType, prefiltersByType);
+    }
+
+    private static Stage[] compileStages(List<NameProcessor<?>> processors) {
+        List<Stage> stages = new ArrayList<>();
+        SubstringRun substringRun = new SubstringRun();
+        List<RenameRule> exactRun = new ArrayList<>();
+
+        for (NameProcessor<?> processor : processors) {
+            if (processor instanceof RenameRule) {
+                RenameRule rule = (RenameRule) processor;
+
+                if (rule.isExact()) {
+                    flushSubstringRun(substringRun, stages);
+                    exactRun.add(rule);
+                    continue;
+                } else if (SubstringRun.isFusible(rule)) {
+                    flushExactRun(exactRun, stages);
+
+                    if (!substringRun.tryAdd(rule)) {
+                        stages.add(substringRun.toStage());
+                        substringRun.tryAdd(rule);
+                    }
+
+                    continue;
+                }
+            }
+
+            flushSubstringRun(substringRun, stages);
+            flushExactRun(exactRun, stages);
+            stages.add(new ProcessorStage(processor));
+        }
+
+        flushSubstringRun(substringRun, stages);
+        flushExactRun(exactRun, stages);
+        return stages.toArray(new Stage[0]);
+    }
+
+    private static @Nullable Prefilter createPrefilter(Stage[] stages) {
+        // A single stage, or only hash lookups, would be as fast as the prefilter itself.
+        if (stages.length < 2) {
+            return null;
+        }
+
+        List<String> patterns = new ArrayList<>();
+        boolean onlyExact = true;
+
+        for (Stage stage : stages) {
+            @Nullable Collection<String> stagePatterns = stage.getPatterns();
+
+            if (stagePatterns == null) {
+                return null;
+            }
+
+            patterns.addAll(stagePatterns);
+            onlyExact &= stage instanceof ExactLookup;
+        }
+
+        return onlyExact ? null : Prefilter.of(patterns);
+    }
+
+    private static void flushSubstringRun(SubstringRun run, List<Stage> stages) {
+        if (!run.isEmpty()) {
+            stages.add(run.toStage());
+        }
+    }
+
+    private static void flushExactRun(List<RenameRule> run, List<Stage> stages) {
+        if (run.size() == 1) {
+            stages.add(new ProcessorStage(run.get(0)));
+        } else if (!run.isEmpty()) {
+            stages.add(new ExactLookup(new ArrayList<>(run)));
+        }
+
+        run.clear();
+    }
+
+    /**
+     * Tests whether this pipeline might change a name.
+     *
+     * <p>This check does not allocate and is usually much cheaper than {@linkplain #process processing} the name.
+     *
+     * @param name the name
+     * @param type the type of the name
+     * @return false if the name is guaranteed to be returned unchanged, true otherwise
+     */
+    public boolean mayChange(CharSequence name, NameType type) {
+        @Nullable Prefilter prefilter = prefiltersByType.get(type);
+        return prefilter == null || prefilter.mayMatch(name);
+    }
+
+    /**
+     * Processes a single name.
+     *
+     * @param name the name
+     * @param type the type of the name
+     * @return the name with all processors applied
+     */
+    public String process(String name, NameType type) {
+        if (!mayChange(name, type)) {
+            return name;
+        }
+
+        for (Stage stage : stagesByType.get(type)) {
+            name = stage.process(name, type);
+        }
+
+        return name;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("CompiledPipeline[");
+        boolean first = true;
+
+        for (Map.Entry<NameType, Stage[]> entry : stagesByType.entrySet()) {
+            if (!first) {
+                sb.append(", ");
+            }
+
+            sb.append(entry.getKey()).append('=').append(Arrays.toString(entry.getValue()));
+            first = false;
+        }
+
+        return sb.append(']').toString();
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package juuxel.ripple.pipeline;
+
+import juuxel.ripple.NameType;
+import juuxel.ripple.processor.RenameRule;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A stage that applies a run of exact {@link RenameRule}s with a single hash lookup.
+ *
+ * <p>The lookup table maps each input name to the result of applying the whole run to it,
+ * so chains like {@code a -> b, b -> c} resolve to {@code a -> c} just like they do when
+ * the rules are applied one by one.
+ */
+final class ExactLookup implements Stage {
+    private final List<RenameRule> rules;
+    private final Map<String, String> table;
+
+    ExactLookup(List<RenameRule> rules) {
+        this.rules = rules;
+        this.table = new HashMap<>();
+
+        // Compose the rules back to front: an earlier rule's output is fed into the later ones,
+        // and it shadows any later rule with the same input.
+        for (int i = rules.size() - 1; i >= 0; i--) {
+            RenameRule rule = rules.get(i);
+            table.put(rule.getFrom(), table.getOrDefault(rule.getTo(), rule.getTo()));
+        }
+
+        table.entrySet().removeIf(entry -> entry.getKey().equals(entry.getValue()));
+    }
+
+    @Override
+    public String process(String name, NameType type) {
+        String result = table.get(name);
+        return result != null ? result : name;
+    }
+
+    @Override
+    public Collection<String> getPatterns() {
+        return table.keySet();
+    }
+
+    @Override
+    public String toString() {
+        return "ExactLookup" + rules;
+    }
+}
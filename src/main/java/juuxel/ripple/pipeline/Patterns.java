@@ -0,0 +1,66 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package juuxel.ripple.pipeline;
+
+/**
+ * Utilities for reasoning about interactions between literal replacement patterns.
+ */
+final class Patterns {
+    private Patterns() {
+    }
+
+    /**
+     * Computes a 64-bit fingerprint of the characters in a string.
+     * Two strings whose masks have no bits in common cannot share any characters.
+     *
+     * @param str the string
+     * @return the character mask
+     */
+    static long charMask(String str) {
+        long mask = 0;
+
+        for (int i = 0; i < str.length(); i++) {
+            mask |= 1L << (str.charAt(i) & 63);
+        }
+
+        return mask;
+    }
+
+    /**
+     * Tests whether two non-empty strings can overlap when placed somewhere in the same text,
+     * that is, whether one contains the other or a proper suffix of one is a prefix of the other.
+     *
+     * @param a     the first string
+     * @param aMask the {@linkplain #charMask(String) character mask} of {@code a}
+     * @param b     the second string
+     * @param bMask the character mask of {@code b}
+     * @return true if the strings can overlap, false otherwise
+     */
+    static boolean overlaps(String a, long aMask, String b, long bMask) {
+        if ((aMask & bMask) == 0) {
+            return false;
+        }
+
+        if (a.length() >= b.length() ? a.contains(b) : b.contains(a)) {
+            return true;
+        }
+
+        return hasSuffixPrefixOverlap(a, b) || hasSuffixPrefixOverlap(b, a);
+    }
+
+    private static boolean hasSuffixPrefixOverlap(String a, String b) {
+        int maxLength = Math.min(a.length(), b.length()) - 1;
+
+        for (int length = 1; length <= maxLength; length++) {
+            if (a.regionMatches(a.length() - length, b, 0, length)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+}
@@ -0,0 +1,395 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package juuxel.ripple.pipeline;
+
+import juuxel.ripple.NameType;
+import juuxel.ripple.processor.FilteredProcessor;
+import juuxel.ripple.processor.NameProcessor;
+import juuxel.ripple.processor.RenameRule;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Shrinks a chain of {@linkplain NameProcessor name processors} without changing its output.
+ *
+ * <p>The optimiser does the following steps:
+ *
+ * <ol>
+ *     <li>Nested {@linkplain FilteredProcessor filtered processors} are hoisted into a single filter
+ *     containing the intersection of their filters. Filters that allow all name types are removed.</li>
+ *     <li>Processors that do nothing are removed. These are {@link RenameRule}s that replace a string with itself,
+ *     and filtered processors whose filter is empty.</li>
+ *     <li>Rename rules that can never match are removed. This happens when an earlier rule guarantees that
+ *     the name can't be equal to (for exact rules) or contain (for other rules) the pattern of the rule,
+ *     and nothing between the two rules can undo that. Rules that can only match some of
+ *     their name types are narrowed to the types they can match.</li>
+ *     <li>Adjacent copies of the same processor that apply to different name types are merged into
+ *     one filtered processor.</li>
+ * </ol>
+ *
+ * <p>Processors other than rename rules are kept as-is, and rules are never moved past them.
+ *
+ * @since 0.5.0
+ */
+public final class PipelineOptimiser {
+    private static final Set<NameType> ALL_TYPES = Collections.unmodifiableSet(EnumSet.allOf(NameType.class));
+    private static final int MAX_ABSENT_SUBSTRINGS = 256;
+
+    private PipelineOptimiser() {
+    }
+
+    /**
+     * Optimises a chain of name processors.
+     *
+     * @param processors the name processors, in application order
+     * @return the optimisation result
+     */
+    public static Result optimise(Iterable<? extends NameProcessor<?>> processors) {
+        Counts counts = new Counts();
+        List<Entry> entries = new ArrayList<>();
+
+        for (NameProcessor<?> processor : processors) {
+            counts.original++;
+            EnumSet<NameType> types = EnumSet.allOf(NameType.class);
+            int depth = 0;
+
+            while (processor instanceof FilteredProcessor<?>) {
+                FilteredProcessor<?> filtered = (FilteredProcessor<?>) processor;
+                types.retainAll(filtered.getFilter());
+                processor = filtered.getSource();
+                depth++;
+            }
+
+            if (depth > 1 || (depth == 1 && types.equals(ALL_TYPES))) {
+                counts.hoisted++;
+            }
+
+            if (types.isEmpty() || isIdentity(processor)) {
+                counts.noOps++;
+            } else {
+                entries.add(new Entry(processor, types));
+            }
+        }
+
+        entries = removeDeadRules(entries, counts);
+        entries = mergeAdjacent(entries, counts);
+
+        List<NameProcessor<?>> result = new ArrayList<>(entries.size());
+        for (Entry entry : entries) {
+            result.add(entry.toProcessor());
+        }
+
+        return new Result(result, counts);
+    }
+
+    private static boolean isIdentity(NameProcessor<?> processor) {
+        if (processor instanceof RenameRule) {
+            RenameRule rule = (RenameRule) processor;
+            return rule.getFrom().equals(rule.getTo());
+        }
+
+        return false;
+    }
+
+    private static List<Entry> removeDeadRules(List<Entry> entries, Counts counts) {
+        Map<NameType, NameState> states = new EnumMap<>(NameType.class);
+        for (NameType type : NameType.values()) {
+            states.put(type, new NameState());
+        }
+
+        List<Entry> result = new ArrayList<>(entries.size());
+
+        for (Entry entry : entries) {
+            if (!(entry.processor instanceof RenameRule)) {
+                for (NameType type : entry.types) {
+                    states.get(type).clear();
+                }
+
+                result.add(entry);
+                continue;
+            }
+
+            RenameRule rule = (RenameRule) entry.processor;
+            EnumSet<NameType> liveTypes = EnumSet.noneOf(NameType.class);
+
+            for (NameType type : entry.types) {
+                if (states.get(type).canMatch(rule)) {
+                    liveTypes.add(type);
+                }
+            }
+
+            if (liveTypes.isEmpty()) {
+                counts.dead++;
+                continue;
+            } else if (!liveTypes.equals(entry.types)) {
+                counts.narrowed++;
+            }
+
+            for (NameType type : liveTypes) {
+                states.get(type).apply(rule);
+            }
+
+            result.add(new Entry(rule, liveTypes));
+        }
+
+        return result;
+    }
+
+    private static List<Entry> mergeAdjacent(List<Entry> entries, Counts counts) {
+        List<Entry> result = new ArrayList<>(entries.size());
+
+        for (Entry entry : entries) {
+            if (!result.isEmpty()) {
+                Entry previous = result.get(result.size() - 1);
+
+                // Each name type only sees one of the two processors, so they can be applied in either order.
+                if (previous.processor.equals(entry.processor) && Collections.disjoint(previous.types, entry.types)) {
+                    EnumSet<NameType> types = EnumSet.copyOf(previous.types);
+                    types.addAll(entry.types);
+                    result.set(result.size() - 1, new Entry(previous.processor, types));
+                    counts.merged++;
+                    continue;
+                }
+            }
+
+            result.add(entry);
+        }
+
+        return result;
+    }
+
+    /**
+     * Tests whether two strings can overlap, that is, whether they agree on a non-empty overlapping region
+     * when one is placed at some offset relative to the other.
+     */
+    private static boolean canOverlap(String a, String b) {
+        // Quick check: the overlap must contain the first character of one of the strings.
+        if (a.indexOf(b.charAt(0)) < 0 && b.indexOf(a.charAt(0)) < 0) {
+            return false;
+        }
+
+        for (int offset = 1 - a.length(); offset < b.length(); offset++) {
+            int start = Math.max(0, offset);
+            int end = Math.min(b.length(), offset + a.length());
+
+            if (b.regionMatches(start, a, start - offset, end - start)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * A non-exact rule is idempotent if its output can never contain its pattern.
+     *
+     * <p>When the replacement is not empty and can't overlap the pattern, any occurrence of the pattern
+     * in the output would have to be fully inside the unreplaced parts of the input between two matches,
+     * where {@link String#replace} would already have found it.
+     */
+    private static boolean isIdempotentSubstitution(RenameRule rule) {
+        return !rule.getFrom().isEmpty() && !rule.getTo().isEmpty() && !canOverlap(rule.getFrom(), rule.getTo());
+    }
+
+    /**
+     * What is known about a name at a point in the chain for a single name type.
+     */
+    private static final class NameState {
+        /** Strings that the name is known not to be equal to. */
+        private final Set<String> impossibleNames = new HashSet<>();
+        /** Non-empty strings that the name is known not to contain, oldest first. */
+        private final Set<String> absentSubstrings = new LinkedHashSet<>();
+
+        void clear() {
+            impossibleNames.clear();
+            absentSubstrings.clear();
+        }
+
+        boolean canMatch(RenameRule rule) {
+            String from = rule.getFrom();
+
+            if (rule.isExact() && impossibleNames.contains(from)) {
+                return false;
+            }
+
+            // If the pattern contains an absent substring, the name can't contain or be equal to the pattern.
+            for (String absent : absentSubstrings) {
+                if (from.contains(absent)) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+
+        void apply(RenameRule rule) {
+            String from = rule.getFrom();
+            String to = rule.getTo();
+
+            if (rule.isExact()) {
+                // The name is replaced completely if it matches, so it can only become the replacement.
+                impossibleNames.remove(to);
+                impossibleNames.add(from);
+                absentSubstrings.removeIf(to::contains);
+            } else if (from.isEmpty() || to.isEmpty()) {
+                // Inserting the replacement between every character, or joining the parts around removed matches,
+                // can create any name.
+                clear();
+            } else {
+                // The replacement can create new names freely...
+                impossibleNames.clear();
+                // ...but substrings that can't overlap the replacement can only occur in the unreplaced parts,
+                // so they're still absent.
+                absentSubstrings.removeIf(absent -> canOverlap(absent, to));
+
+                if (isIdempotentSubstitution(rule)) {
+                    addAbsentSubstring(from);
+                }
+            }
+        }
+
+        private void addAbsentSubstring(String str) {
+            absentSubstrings.remove(str);
+            absentSubstrings.add(str);
+
+            // Only the most recent ones are kept to bound the cost of each rule.
+            if (absentSubstrings.size() > MAX_ABSENT_SUBSTRINGS) {
+                Iterator<String> iter = absentSubstrings.iterator();
+                iter.next();
+                iter.remove();
+            }
+        }
+    }
+
+    private static final class Entry {
+        final NameProcessor<?> processor;
+        final EnumSet<NameType> types;
+
+        Entry(NameProcessor<?> processor, EnumSet<NameType> types) {
+            this.processor = processor;
+            this.types = types;
+        }
+
+        @SuppressWarnings({"rawtypes", "unchecked"})
+        NameProcessor<?> toProcessor() {
+            return types.equals(ALL_TYPES) ? processor : new FilteredProcessor(processor, types);
+        }
+    }
+
+    private static final class Counts {
+        int original;
+        int hoisted;
+        int noOps;
+        int dead;
+        int narrowed;
+        int merged;
+    }
+
+    /**
+     * The result of {@linkplain #optimise(Iterable) optimising} a chain of name processors.
+     */
+    public static final class Result {
+        private final List<NameProcessor<?>> processors;
+        private final Counts counts;
+
+        private Result(List<NameProcessor<?>> processors, Counts counts) {
+            this.processors = Collections.unmodifiableList(processors);
+            this.counts = counts;
+        }
+
+        /**
+         * Gets the optimised name processors.
+         *
+         * @return the optimised processors, in application order
+         */
+        public List<NameProcessor<?>> getProcessors() {
+            return processors;
+        }
+
+        /**
+         * Gets the number of processors before optimisation.
+         *
+         * @return the original processor count
+         */
+        public int getOriginalCount() {
+            return counts.original;
+        }
+
+        /**
+         * Gets the number of processors after optimisation.
+         *
+         * @return the optimised processor count
+         */
+        public int getOptimisedCount() {
+            return processors.size();
+        }
+
+        /**
+         * Gets the number of processors whose nested or redundant filters were hoisted.
+         *
+         * @return the hoisted processor count
+         */
+        public int getHoistedCount() {
+            return counts.hoisted;
+        }
+
+        /**
+         * Gets the number of processors that were removed because they do nothing.
+         *
+         * @return the removed no-op count
+         */
+        public int getNoOpCount() {
+            return counts.noOps;
+        }
+
+        /**
+         * Gets the number of rename rules that were removed because they can never match.
+         *
+         * @return the removed dead rule count
+         */
+        public int getDeadCount() {
+            return counts.dead;
+        }
+
+        /**
+         * Gets the number of rename rules that were narrowed to fewer name types.
+         *
+         * @return the narrowed rule count
+         */
+        public int getNarrowedCount() {
+            return counts.narrowed;
+        }
+
+        /**
+         * Gets the number of processors that were merged into an adjacent copy.
+         *
+         * @return the merged processor count
+         */
+        public int getMergedCount() {
+            return counts.merged;
+        }
+
+        @Override
+        public String toString() {
+            return "Optimised " + getOriginalCount() + " processors into " + getOptimisedCount()
+                + " (no-ops removed: " + getNoOpCount()
+                + ", dead rules removed: " + getDeadCount()
+                + ", rules narrowed: " + getNarrowedCount()
+                + ", merged: " + getMergedCount()
+                + ", filters hoisted: " + getHoistedCount() + ")";
+        }
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package juuxel.ripple.pipeline;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collection;
+
+/**
+ * A cheap test for rejecting names that cannot contain any of a set of literal patterns.
+ *
+ * <p>Each pattern is represented by its first one to three characters: single-character patterns
+ * in an exact character bitmap, and longer ones as a bigram or trigram in a Bloom filter.
+ * A name can only contain a pattern if it contains the pattern's representative n-gram,
+ * so a name with none of them is guaranteed not to match. Names that pass the test
+ * might still not match anything.
+ */
+final class Prefilter {
+    private static final int BLOOM_BITS = 1 << 18;
+    private static final int BLOOM_MASK = BLOOM_BITS - 1;
+
+    private final long[] chars = new long[(Character.MAX_VALUE + 1) / Long.SIZE];
+    private final long[] bloom = new long[BLOOM_BITS / Long.SIZE];
+    private boolean hasChars = false;
+    private boolean hasBigrams = false;
+    private boolean hasTrigrams = false;
+
+    private Prefilter() {
+    }
+
+    /**
+     * Creates a prefilter for a set of patterns.
+     *
+     * @param patterns the patterns
+     * @return the prefilter, or null if the patterns include the empty string which matches everything
+     */
+    static @Nullable Prefilter of(Collection<String> patterns) {
+        Prefilter prefilter = new Prefilter();
+
+        for (String pattern : patterns) {
+            switch (pattern.length()) {
+                case 0:
+                    return null;
+                case 1:
+                    set(prefilter.chars, pattern.charAt(0));
+                    prefilter.hasChars = true;
+                    break;
+                case 2:
+                    set(prefilter.bloom, bigramHash(pattern.charAt(0), pattern.charAt(1)));
+                    prefilter.hasBigrams = true;
+                    break;
+                default:
+                    set(prefilter.bloom, trigramHash(pattern.charAt(0), pattern.charAt(1), pattern.charAt(2)));
+                    prefilter.hasTrigrams = true;
+                    break;
+            }
+        }
+
+        return prefilter;
+    }
+
+    /**
+     * Tests whether a name might contain one of the patterns.
+     *
+     * @param name the name
+     * @return false if the name is guaranteed not to contain any of the patterns, true otherwise
+     */
+    boolean mayMatch(CharSequence name) {
+        char previous = 0;
+        char beforePrevious = 0;
+
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+
+            if (hasChars && test(chars, c)) {
+                return true;
+            } else if (hasBigrams && i >= 1 && test(bloom, bigramHash(previous, c))) {
+                return true;
+            } else if (hasTrigrams && i >= 2 && test(bloom, trigramHash(beforePrevious, previous, c))) {
+                return true;
+            }
+
+            beforePrevious = previous;
+            previous = c;
+        }
+
+        return false;
+    }
+
+    private static int bigramHash(char a, char b) {
+        return mix(a << 16 | b);
+    }
+
+    private static int trigramHash(char a, char b, char c) {
+        // The extra constant separates trigrams from bigrams that would otherwise collide
+        return mix((a << 16 | b) * 31 + c + 0x5BD1E995);
+    }
+
+    private static int mix(int h) {
+        h *= 0x9E3779B1;
+        h ^= h >>> 15;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        return h & BLOOM_MASK;
+    }
+
+    private static void set(long[] bits, int index) {
+        bits[index >>> 6] |= 1L << index;
+    }
+
+    private static boolean test(long[] bits, int index) {
+        return (bits[index >>> 6] & (1L << index)) != 0;
+    }
+}
@@ -0,0 +1,45 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package juuxel.ripple.pipeline;
+
+import juuxel.ripple.NameType;
+import juuxel.ripple.processor.NameProcessor;
+import juuxel.ripple.processor.RenameRule;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collection;
+import java.util.Collections;
+
+/**
+ * A stage that runs a single name processor as-is.
+ */
+final class ProcessorStage implements Stage {
+    private final NameProcessor<?> processor;
+
+    ProcessorStage(NameProcessor<?> processor) {
+        this.processor = processor;
+    }
+
+    @Override
+    public String process(String name, NameType type) {
+        return processor.process(name, type);
+    }
+
+    @Override
+    public @Nullable Collection<String> getPatterns() {
+        if (processor instanceof RenameRule) {
+            return Collections.singleton(((RenameRule) processor).getFrom());
+        }
+
+        return null;
+    }
+
+    @Override
+    public String toString() {
+        return processor.toString();
+    }
+}
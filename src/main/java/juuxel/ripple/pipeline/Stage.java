@@ -0,0 +1,34 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package juuxel.ripple.pipeline;
+
+import juuxel.ripple.NameType;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collection;
+
+/**
+ * A single step of a {@link CompiledPipeline}.
+ */
+interface Stage {
+    /**
+     * Processes a single name.
+     *
+     * @param name the name
+     * @param type the type of the name
+     * @return the processed name, or the same instance if nothing changed
+     */
+    String process(String name, NameType type);
+
+    /**
+     * Gets the literal patterns of this stage. A name can only be changed by this stage
+     * if it contains at least one of the patterns.
+     *
+     * @return the patterns, or null if this stage can change names without literal patterns
+     */
+    @Nullable Collection<String> getPatterns();
+}
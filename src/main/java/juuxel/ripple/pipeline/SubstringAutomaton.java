@@ -0,0 +1,189 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package juuxel.ripple.pipeline;
+
+import juuxel.ripple.NameType;
+import juuxel.ripple.processor.RenameRule;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * A stage that applies a run of non-exact {@link RenameRule}s in a single left-to-right scan
+ * using an Aho-Corasick automaton.
+ *
+ * <p>The rules must be <i>independent</i>: no two patterns may overlap each other, and no pattern may overlap
+ * the replacement of an earlier rule. Under those conditions, matches of different patterns can never
+ * interfere, and replacing each leftmost match as soon as it's found produces the same result as
+ * applying the rules one by one with {@link String#replace(CharSequence, CharSequence)}.
+ * See {@link SubstringRun} for the independence checks.
+ */
+final class SubstringAutomaton implements Stage {
+    private static final int ASCII_LIMIT = 128;
+
+    private final List<RenameRule> rules;
+    /** Maps ASCII characters to their alphabet index. Characters not in any pattern map to 0. */
+    private final int[] asciiAlphabet;
+    /** The sorted non-ASCII characters of the alphabet. Their indices start after the ASCII ones. */
+    private final char[] extendedAlphabet;
+    private final int extendedOffset;
+    private final int alphabetSize;
+    /** The complete transition table, indexed by {@code state * alphabetSize + alphabetIndex}. */
+    private final int[] transitions;
+    /** The replacement for each state that completes a pattern, or null. */
+    private final String[] replacements;
+    /** The length of the pattern completed in each state. */
+    private final int[] depths;
+
+    SubstringAutomaton(List<RenameRule> rules) {
+        this.rules = rules;
+
+        // Build the alphabet
+        asciiAlphabet = new int[ASCII_LIMIT];
+        TreeSet<Character> extendedChars = new TreeSet<>();
+        int asciiCount = 0;
+        int stateCount = 1;
+
+        for (RenameRule rule : rules) {
+            String from = rule.getFrom();
+            stateCount += from.length();
+
+            for (int i = 0; i < from.length(); i++) {
+                char c = from.charAt(i);
+
+                if (c < ASCII_LIMIT) {
+                    if (asciiAlphabet[c] == 0) {
+                        asciiAlphabet[c] = ++asciiCount;
+                    }
+                } else {
+                    extendedChars.add(c);
+                }
+            }
+        }
+
+        extendedAlphabet = new char[extendedChars.size()];
+        int index = 0;
+        for (char c : extendedChars) {
+            extendedAlphabet[index++] = c;
+        }
+
+        extendedOffset = asciiCount + 1;
+        alphabetSize = extendedOffset + extendedAlphabet.length;
+
+        // Build the trie
+        int[] trie = new int[stateCount * alphabetSize];
+        replacements = new String[stateCount];
+        depths = new int[stateCount];
+        int states = 1;
+
+        for (RenameRule rule : rules) {
+            String from = rule.getFrom();
+            int state = 0;
+
+            for (int i = 0; i < from.length(); i++) {
+                int slot = state * alphabetSize + alphabetIndex(from.charAt(i));
+
+                if (trie[slot] == 0) {
+                    depths[states] = i + 1;
+                    trie[slot] = states++;
+                }
+
+                state = trie[slot];
+            }
+
+            replacements[state] = rule.getTo();
+        }
+
+        // Complete the transitions using the failure links, breadth-first
+        transitions = Arrays.copyOf(trie, states * alphabetSize);
+        int[] failure = new int[states];
+        int[] queue = new int[states];
+        int head = 0;
+        int tail = 0;
+
+        for (int c = 1; c < alphabetSize; c++) {
+            int child = trie[c];
+
+            if (child != 0) {
+                queue[tail++] = child;
+            }
+        }
+
+        while (head < tail) {
+            int state = queue[head++];
+
+            for (int c = 1; c < alphabetSize; c++) {
+                int slot = state * alphabetSize + c;
+                int child = trie[slot];
+
+                if (child != 0) {
+                    failure[child] = transitions[failure[state] * alphabetSize + c];
+                    queue[tail++] = child;
+                } else {
+                    transitions[slot] = transitions[failure[state] * alphabetSize + c];
+                }
+            }
+        }
+    }
+
+    private int alphabetIndex(char c) {
+        if (c < ASCII_LIMIT) {
+            return asciiAlphabet[c];
+        }
+
+        int index = Arrays.binarySearch(extendedAlphabet, c);
+        return index >= 0 ? extendedOffset + index : 0;
+    }
+
+    @Override
+    public String process(String name, NameType type) {
+        StringBuilder sb = null;
+        int state = 0;
+        int copied = 0;
+
+        for (int i = 0; i < name.length(); i++) {
+            state = transitions[state * alphabetSize + alphabetIndex(name.charAt(i))];
+            String replacement = replacements[state];
+
+            if (replacement != null) {
+                if (sb == null) {
+                    sb = new StringBuilder(name.length() + 16);
+                }
+
+                sb.append(name, copied, i + 1 - depths[state]).append(replacement);
+                copied = i + 1;
+                // Matches can't overlap the one we just replaced, so restart from the root.
+                state = 0;
+            }
+        }
+
+        if (sb == null) {
+            return name;
+        }
+
+        return sb.append(name, copied, name.length()).toString();
+    }
+
+    @Override
+    public Collection<String> getPatterns() {
+        List<String> patterns = new ArrayList<>(rules.size());
+
+        for (RenameRule rule : rules) {
+            patterns.add(rule.getFrom());
+        }
+
+        return patterns;
+    }
+
+    @Override
+    public String toString() {
+        return "SubstringAutomaton" + rules;
+    }
+}
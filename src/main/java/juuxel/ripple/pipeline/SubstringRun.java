@@ -0,0 +1,85 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package juuxel.ripple.pipeline;
+
+import juuxel.ripple.processor.RenameRule;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A run of consecutive independent non-exact {@link RenameRule}s that can be fused into a {@link SubstringAutomaton}.
+ */
+final class SubstringRun {
+    private final List<RenameRule> rules = new ArrayList<>();
+    private final List<Long> fromMasks = new ArrayList<>();
+    private final List<Long> toMasks = new ArrayList<>();
+
+    /**
+     * Tests whether a rule can be fused with a {@link SubstringAutomaton}.
+     *
+     * @param rule the rule
+     * @return true if the rule is fusible, false otherwise
+     */
+    static boolean isFusible(RenameRule rule) {
+        // String.replace with an empty pattern inserts the replacement between every character,
+        // which the automaton doesn't emulate.
+        return !rule.isExact() && !rule.getFrom().isEmpty();
+    }
+
+    boolean isEmpty() {
+        return rules.isEmpty();
+    }
+
+    /**
+     * Tries to add a {@linkplain #isFusible fusible} rule to the end of this run.
+     *
+     * @param rule the rule
+     * @return true if the rule was added, false if it would interact with the rules already in this run
+     */
+    boolean tryAdd(RenameRule rule) {
+        String from = rule.getFrom();
+        long fromMask = Patterns.charMask(from);
+
+        for (int i = 0; i < rules.size(); i++) {
+            RenameRule previous = rules.get(i);
+
+            // Overlapping patterns: the earlier rule could destroy matches of the new one.
+            if (Patterns.overlaps(previous.getFrom(), fromMasks.get(i), from, fromMask)) {
+                return false;
+            }
+
+            // The earlier rule's replacement could create new matches of the new one.
+            String previousTo = previous.getTo();
+            if (previousTo.isEmpty()) {
+                if (from.length() > 1) {
+                    return false;
+                }
+            } else if (Patterns.overlaps(previousTo, toMasks.get(i), from, fromMask)) {
+                return false;
+            }
+        }
+
+        rules.add(rule);
+        fromMasks.add(fromMask);
+        toMasks.add(Patterns.charMask(rule.getTo()));
+        return true;
+    }
+
+    /**
+     * Converts this run to a stage and clears it.
+     *
+     * @return the stage
+     */
+    Stage toStage() {
+        Stage stage = rules.size() == 1 ? new ProcessorStage(rules.get(0)) : new SubstringAutomaton(new ArrayList<>(rules));
+        rules.clear();
+        fromMasks.clear();
+        toMasks.clear();
+        return stage;
+    }
+}
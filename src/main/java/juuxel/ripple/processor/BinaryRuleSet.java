@@ -0,0 +1,309 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package juuxel.ripple.processor;
+
+import blue.endless.jankson.Jankson;
+import blue.endless.jankson.JsonObject;
+import blue.endless.jankson.api.SyntaxError;
+import juuxel.ripple.NameType;
+import juuxel.ripple.jfr.RippleEvent;
+import juuxel.ripple.util.Hashes;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Reads and writes name processors in a compact binary format.
+ *
+ * <p>Binary rule sets contain processors that have already been read and {@linkplain RenameRule#expand() expanded},
+ * so loading them skips JSON parsing and rule expansion. They're meant to be compiled ahead of time from
+ * JSON rule files that are loaded often, such as in build scripts.
+ *
+ * <p>The file starts with a magic number, a format version and a SHA-256 hash of the rest of the file,
+ * which is checked when the file is read. {@link RenameRule}s and {@link FilteredProcessor}s are stored
+ * in a binary form, and other processors are stored as their {@linkplain NameProcessorIo#toJson(NameProcessor) JSON form}.
+ *
+ * @since 0.5.0
+ */
+public final class BinaryRuleSet {
+    private static final int MAGIC = 0x52504C52; // RPLR
+    private static final int FORMAT_VERSION = 1;
+    private static final int HASH_LENGTH = 32;
+    private static final int HEADER_LENGTH = 4 + 4 + HASH_LENGTH;
+
+    private static final byte RENAME = 0;
+    private static final byte EXACT_RENAME = 1;
+    private static final byte FILTERED = 2;
+    private static final byte JSON = 3;
+
+    private BinaryRuleSet() {
+    }
+
+    /**
+     * Writes name processors to a binary rule set file.
+     *
+     * @param processors the name processors
+     * @param path       the path to the written file
+     * @throws IOException if an I/O error occurs
+     */
+    public static void write(Iterable<? extends NameProcessor<?>> processors, Path path) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(body);
+        List<NameProcessor<?>> processorList = new ArrayList<>();
+        processors.forEach(processorList::add);
+
+        writeVarInt(out, processorList.size());
+        for (NameProcessor<?> processor : processorList) {
+            writeProcessor(out, processor);
+        }
+
+        out.flush();
+        byte[] bodyBytes = body.toByteArray();
+
+        try (DataOutputStream file = new DataOutputStream(Files.newOutputStream(path))) {
+            file.writeInt(MAGIC);
+            file.writeInt(FORMAT_VERSION);
+            file.write(Hashes.sha256().digest(bodyBytes));
+            file.write(bodyBytes);
+        }
+    }
+
+    private static void writeProcessor(DataOutputStream out, NameProcessor<?> processor) throws IOException {
+        if (processor instanceof RenameRule) {
+            RenameRule rule = (RenameRule) processor;
+            out.writeByte(rule.isExact() ? EXACT_RENAME : RENAME);
+            writeString(out, rule.getFrom());
+            writeString(out, rule.getTo());
+        } else if (processor instanceof FilteredProcessor<?>) {
+            FilteredProcessor<?> filtered = (FilteredProcessor<?>) processor;
+            out.writeByte(FILTERED);
+            writeVarInt(out, filtered.getFilter().size());
+
+            for (NameType type : filtered.getFilter()) {
+                writeString(out, type.name());
+            }
+
+            writeProcessor(out, filtered.getSource());
+        } else {
+            out.writeByte(JSON);
+            writeString(out, NameProcessorIo.toJson(processor).toJson(false, false));
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String str) throws IOException {
+        byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(out, bytes.length);
+        out.write(bytes);
+    }
+
+    private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+
+        out.writeByte(value);
+    }
+
+    /**
+     * Tests whether a file is a binary rule set file by checking its magic number.
+     *
+     * @param path the path to the file
+     * @return true if the file starts with the magic number of binary rule sets, false otherwise
+     * @throws IOException if an I/O error occurs
+     */
+    public static boolean isBinaryRuleSet(Path path) throws IOException {
+        try (InputStream in = Files.newInputStream(path)) {
+            byte[] magic = new byte[4];
+            int read = 0;
+
+            while (read < magic.length) {
+                int count = in.read(magic, read, magic.length - read);
+                if (count < 0) return false;
+                read += count;
+            }
+
+            return ByteBuffer.wrap(magic).getInt() == MAGIC;
+        }
+    }
+
+    /**
+     * Tests whether the contents of a file are a binary rule set by checking the magic number.
+     * The position of the buffer is not changed.
+     *
+     * @param buffer the contents of the file
+     * @return true if the remaining bytes start with the magic number of binary rule sets, false otherwise
+     */
+    public static boolean isBinaryRuleSet(ByteBuffer buffer) {
+        return buffer.remaining() >= 4 && buffer.getInt(buffer.position()) == MAGIC;
+    }
+
+    /**
+     * Reads name processors from a binary rule set file.
+     *
+     * <p>The file is read into memory in full and closed before it's parsed, so it isn't kept open or locked.
+     * The reading is recorded as a {@linkplain RippleEvent.Type#RULE_LOADING rule loading} JFR event.
+     *
+     * @param path the path to the file
+     * @return the read processors
+     * @throws IOException if an I/O error occurs, the file is not a binary rule set file,
+     *                     it was written by an incompatible version of Ripple or its content doesn't match its hash
+     */
+    public static List<NameProcessor<?>> read(Path path) throws IOException {
+        if (Files.size(path) > Integer.MAX_VALUE) {
+            throw new IOException("'" + path + "' is too large to be a binary rule set file");
+        }
+
+        return read(ByteBuffer.wrap(Files.readAllBytes(path)), "file '" + path + "'");
+    }
+
+    /**
+     * Reads name processors from the contents of a binary rule set file.
+     *
+     * <p>The processors are read from the remaining bytes of the buffer. The position of the buffer is not changed.
+     * The reading is recorded as a {@linkplain RippleEvent.Type#RULE_LOADING rule loading} JFR event.
+     *
+     * @param buffer the contents of the file
+     * @return the read processors
+     * @throws IOException if the contents are not a binary rule set, they were written by
+     *                     an incompatible version of Ripple or they don't match their hash
+     */
+    public static List<NameProcessor<?>> read(ByteBuffer buffer) throws IOException {
+        return read(buffer.duplicate(), "buffer");
+    }
+
+    private static List<NameProcessor<?>> read(ByteBuffer buffer, String name) throws IOException {
+        RippleEvent event = RippleEvent.begin(RippleEvent.Type.RULE_LOADING);
+
+        if (buffer.remaining() < HEADER_LENGTH || buffer.getInt() != MAGIC) {
+            throw new IOException("Not a binary rule set: " + name);
+        }
+
+        int version = buffer.getInt();
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Binary rule set " + name + " has unsupported format version " + version + ", recompile it from the JSON rules");
+        }
+
+        byte[] expectedHash = new byte[HASH_LENGTH];
+        buffer.get(expectedHash);
+        MessageDigest digest = Hashes.sha256();
+        digest.update(buffer.duplicate());
+
+        if (!Arrays.equals(expectedHash, digest.digest())) {
+            throw new IOException("Binary rule set " + name + " is corrupted: its content doesn't match its hash");
+        }
+
+        List<NameProcessor<?>> processors = new ArrayList<>();
+
+        try {
+            int count = readVarInt(buffer, name);
+            for (int i = 0; i < count; i++) {
+                readProcessor(buffer, processors, name);
+            }
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Binary rule set " + name + " is truncated", e);
+        }
+
+        event.setProcessorCount(processors.size()).commit();
+        return processors;
+    }
+
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private static void readProcessor(ByteBuffer buffer, List<NameProcessor<?>> out, String name) throws IOException {
+        byte kind = buffer.get();
+
+        switch (kind) {
+            case RENAME:
+            case EXACT_RENAME:
+                out.add(new RenameRule(readString(buffer, name), readString(buffer, name), kind == EXACT_RENAME));
+                break;
+            case FILTERED: {
+                Set<NameType> filter = EnumSet.noneOf(NameType.class);
+                int typeCount = readVarInt(buffer, name);
+
+                for (int i = 0; i < typeCount; i++) {
+                    String typeName = readString(buffer, name);
+
+                    try {
+                        filter.add(NameType.valueOf(typeName));
+                    } catch (IllegalArgumentException e) {
+                        throw new IOException("Unknown name type '" + typeName + "' in binary rule set " + name, e);
+                    }
+                }
+
+                List<NameProcessor<?>> sources = new ArrayList<>(1);
+                readProcessor(buffer, sources, name);
+
+                for (NameProcessor<?> source : sources) {
+                    out.add(new FilteredProcessor(source, filter));
+                }
+
+                break;
+            }
+            case JSON: {
+                JsonObject json;
+
+                try {
+                    json = Jankson.builder().build().load(readString(buffer, name));
+                } catch (SyntaxError e) {
+                    throw new IOException("Malformed processor JSON in binary rule set " + name + ": " + e.getCompleteMessage(), e);
+                }
+
+                NameProcessorIo.readSingle(json).forEach(out::add);
+                break;
+            }
+            default:
+                throw new IOException("Unknown processor kind " + kind + " in binary rule set " + name);
+        }
+    }
+
+    private static String readString(ByteBuffer buffer, String name) throws IOException {
+        int length = readVarInt(buffer, name);
+
+        // Checked before allocating so that a corrupted length can't cause a huge allocation
+        if (length > buffer.remaining()) {
+            throw new IOException("Binary rule set " + name + " is truncated: a string of " + length + " bytes doesn't fit in the remaining " + buffer.remaining() + " bytes");
+        }
+
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int readVarInt(ByteBuffer buffer, String name) throws IOException {
+        int value = 0;
+
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte b = buffer.get();
+            value |= (b & 0x7F) << shift;
+
+            if ((b & 0x80) == 0) {
+                // Only non-negative ints are written, so the sign bit can never be set
+                if (value < 0) {
+                    throw new IOException("Malformed binary rule set " + name + ": negative length or count " + value);
+                }
+
+                return value;
+            }
+        }
+
+        throw new IOException("Malformed binary rule set " + name + ": variable-length integer is longer than 5 bytes");
+    }
+}
@@ -12,6 +12,8 @@ import blue.endless.jankson.JsonPrimitive;
 import juuxel.ripple.NameType;
 import juuxel.ripple.util.Identifier;
 
+import java.util.Collections;
+import java.util.EnumSet;
 import java.util.Objects;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -42,7 +44,7 @@ import java.util.stream.Stream;
  */
 public final class FilteredProcessor<P extends NameProcessor<P>> implements NameProcessor<FilteredProcessor<P>> {
     private final P source;
-    private final Set<NameType> filter;
+    private final EnumSet<NameType> filter;
 
     /**
      * Constructs a filtered name processor.
@@ -52,7 +54,12 @@ public final class FilteredProcessor<P extends NameProcessor<P>> implements Name
      */
     public FilteredProcessor(P source, Set<NameType> filter) {
         this.source = Objects.requireNonNull(source, "source");
-        this.filter = Objects.requireNonNull(filter, "filter");
+        this.filter = toEnumSet(Objects.requireNonNull(filter, "filter"));
+    }
+
+    private static EnumSet<NameType> toEnumSet(Set<NameType> set) {
+        // EnumSet.copyOf(Collection) can't copy empty non-EnumSet collections
+        return set.isEmpty() ? EnumSet.noneOf(NameType.class) : EnumSet.copyOf(set);
     }
 
     @Override
@@ -64,6 +71,44 @@ public final class FilteredProcessor<P extends NameProcessor<P>> implements Name
         }
     }
 
+    @Override
+    public boolean processInPlace(StringBuilder name, NameType type) {
+        return filter.contains(type) && source.processInPlace(name, type);
+    }
+
+    /**
+     * Gets the wrapped source processor.
+     *
+     * @return the source processor
+     * @since 0.5.0
+     */
+    public P getSource() {
+        return source;
+    }
+
+    /**
+     * Gets the name types that the source processor is applied to.
+     *
+     * @return the allowed name types
+     * @since 0.5.0
+     */
+    public Set<NameType> getFilter() {
+        return Collections.unmodifiableSet(filter);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof FilteredProcessor<?>)) return false;
+        FilteredProcessor<?> that = (FilteredProcessor<?>) o;
+        return source.equals(that.source) && filter.equals(that.filter);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * source.hashCode() + filter.hashCode();
+    }
+
     @Override
     public NameProcessorCodec<FilteredProcessor<P>> codec() {
         return new Codec<>();
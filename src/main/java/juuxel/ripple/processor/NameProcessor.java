@@ -23,6 +23,32 @@ public interface NameProcessor<P extends NameProcessor<P>> {
      */
     String process(String name, NameType type);
 
+    /**
+     * Processes a single name in a mutable buffer.
+     *
+     * <p>This lets a chain of processors share one buffer instead of creating a string for each step.
+     * The result must be equal to the result of {@link #process(String, NameType)}.
+     * The default implementation calls {@link #process(String, NameType)} and copies its result into the buffer,
+     * so processors should override this method if they can modify the buffer directly.
+     *
+     * @param name the buffer containing the name, which is replaced with the processed name
+     * @param type the type of the name
+     * @return true if the name might have changed, false if it's guaranteed to be unchanged
+     * @since 0.5.0
+     */
+    default boolean processInPlace(StringBuilder name, NameType type) {
+        String original = name.toString();
+        String processed = process(original, type);
+
+        if (processed.equals(original)) {
+            return false;
+        }
+
+        name.setLength(0);
+        name.append(processed);
+        return true;
+    }
+
     /**
      * Gets this processor's codec.
      *
@@ -8,10 +8,14 @@ package juuxel.ripple.processor;
 
 import blue.endless.jankson.JsonArray;
 import blue.endless.jankson.JsonObject;
+import juuxel.ripple.jfr.RippleEvent;
+import juuxel.ripple.util.Hashes;
 import juuxel.ripple.util.Identifier;
 import org.jetbrains.annotations.NotNull;
 
+import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 /**
@@ -60,11 +64,15 @@ public final class NameProcessorIo {
     /**
      * Reads all processors from an array of entries inside a JSON object using {@link #readSingle(JsonObject)}.
      *
+     * <p>The processors are read eagerly, and the reading is recorded as
+     * a {@linkplain RippleEvent.Type#RULE_LOADING rule loading} JFR event.
+     *
      * @param json the JSON array
      * @return the read processors
      */
     public static Stream<? extends NameProcessor<?>> readAll(JsonObject json) {
-        return json.get(JsonArray.class, ALL_PROCESSORS_KEY).stream()
+        RippleEvent event = RippleEvent.begin(RippleEvent.Type.RULE_LOADING);
+        List<NameProcessor<?>> processors = json.get(JsonArray.class, ALL_PROCESSORS_KEY).stream()
             .map(entry -> {
                 if (entry instanceof JsonObject) {
                     return (JsonObject) entry;
@@ -72,7 +80,10 @@ public final class NameProcessorIo {
                     throw new IllegalArgumentException("Processor array contains non-object child " + entry.toJson());
                 }
             })
-            .flatMap(NameProcessorIo::readSingle);
+            .flatMap(NameProcessorIo::readSingle)
+            .collect(Collectors.toList());
+        event.setProcessorCount(processors.size()).commit();
+        return processors.stream();
     }
 
     /**
@@ -106,4 +117,21 @@ public final class NameProcessorIo {
         json.put(ALL_PROCESSORS_KEY, processorArray);
         return json;
     }
+
+    /**
+     * Computes a fingerprint of a collection of name processors.
+     *
+     * <p>The fingerprint is a SHA-256 hash of the compact {@linkplain #toJson(Iterable) JSON form}
+     * of the processors, as a lowercase hex string. Processors with equal JSON forms have equal fingerprints,
+     * so the fingerprint can be used to check whether results computed with another set of processors
+     * are still valid.
+     *
+     * @param processors the name processors
+     * @return the fingerprint
+     * @since 0.5.0
+     */
+    public static String fingerprint(Iterable<? extends NameProcessor<?>> processors) {
+        byte[] json = toJson(processors).toJson(false, false).getBytes(StandardCharsets.UTF_8);
+        return Hashes.toHex(Hashes.sha256().digest(json));
+    }
 }
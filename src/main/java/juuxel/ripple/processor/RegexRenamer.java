@@ -0,0 +1,305 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package juuxel.ripple.processor;
+
+import blue.endless.jankson.JsonArray;
+import blue.endless.jankson.JsonElement;
+import blue.endless.jankson.JsonObject;
+import blue.endless.jankson.JsonPrimitive;
+import juuxel.ripple.NameType;
+import juuxel.ripple.regex.RegexSet;
+import juuxel.ripple.util.Identifier;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * A name processor that renames names matching regular expressions.
+ *
+ * <p>Each rule consists of a pattern and a replacement. The patterns must match whole names,
+ * and the first rule whose pattern matches a name replaces it. For example, the rule
+ * {@code func_(\d+)_(\w+) -> $2} renames {@code func_1234_tick} to {@code tick}.
+ *
+ * <p>The patterns are compiled into a {@link RegexSet} when the renamer is constructed, so they are matched
+ * in linear time and each name is only scanned once regardless of the number of rules. Patterns using
+ * constructs that need backtracking, such as backreferences and lookaround, are rejected.
+ * See {@link RegexSet} for the supported syntax.
+ *
+ * <p>The replacements may refer to capturing groups with {@code $n} or {@code ${n}}.
+ * Like in {@link java.util.regex.Matcher#appendReplacement}, {@code $n} uses as many digits as form a valid group
+ * number, and {@code \} escapes the next character. Groups that didn't participate in the match are replaced
+ * with an empty string.
+ *
+ * <table border="1">
+ *     <caption>Serialised form</caption>
+ *     <tr>
+ *         <th>Key</th>
+ *         <th>Value</th>
+ *     </tr>
+ *     <tr>
+ *         <td>{@code processor}</td>
+ *         <td>{@code ripple:regex}</td>
+ *     </tr>
+ *     <tr>
+ *         <td>{@code rules}</td>
+ *         <td>A JSON array of objects with the keys {@code pattern} and {@code replacement}</td>
+ *     </tr>
+ * </table>
+ *
+ * @since 0.5.0
+ */
+public final class RegexRenamer implements NameProcessor<RegexRenamer> {
+    private final Map<String, String> rules;
+    private final RegexSet patterns;
+    private final Replacement[] replacements;
+
+    /**
+     * Constructs a regex renamer.
+     *
+     * @param rules a map from the patterns to their replacements, in the order they should be tried
+     * @throws java.util.regex.PatternSyntaxException if a pattern is invalid or can't be matched in linear time
+     * @throws IllegalArgumentException               if a replacement is invalid
+     */
+    public RegexRenamer(Map<String, String> rules) {
+        this.rules = Collections.unmodifiableMap(new LinkedHashMap<>(rules));
+        this.patterns = RegexSet.compile(new ArrayList<>(this.rules.keySet()));
+        this.replacements = new Replacement[this.rules.size()];
+
+        int i = 0;
+        for (String replacement : this.rules.values()) {
+            replacements[i] = Replacement.parse(replacement, patterns.getGroupCount(i));
+            i++;
+        }
+    }
+
+    /**
+     * Gets the rules of this renamer.
+     *
+     * @return a map from the patterns to their replacements
+     */
+    public Map<String, String> getRules() {
+        return rules;
+    }
+
+    @Override
+    public String process(String name, NameType type) {
+        int rule = patterns.matchFirst(name);
+
+        if (rule < 0) {
+            return name;
+        }
+
+        int[] groups = Objects.requireNonNull(patterns.capture(rule, name), "Matched pattern didn't capture");
+        return replacements[rule].apply(name, groups);
+    }
+
+    @Override
+    public NameProcessorCodec<RegexRenamer> codec() {
+        return new Codec();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof RegexRenamer)) return false;
+        // The rules are ordered, so compare them as lists
+        RegexRenamer that = (RegexRenamer) o;
+        return new ArrayList<>(rules.entrySet()).equals(new ArrayList<>(that.rules.entrySet()));
+    }
+
+    @Override
+    public int hashCode() {
+        return rules.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("RegexRenamer[");
+        boolean first = true;
+
+        for (Map.Entry<String, String> entry : rules.entrySet()) {
+            if (!first) {
+                sb.append(", ");
+            }
+
+            sb.append(entry.getKey()).append(" -> ").append(entry.getValue());
+            first = false;
+        }
+
+        return sb.append(']').toString();
+    }
+
+    /**
+     * A parsed replacement string. The replacement is {@code literals[0]}, group {@code groups[0]},
+     * {@code literals[1]} and so on.
+     */
+    private static final class Replacement {
+        private final String[] literals;
+        private final int[] groups;
+
+        private Replacement(String[] literals, int[] groups) {
+            this.literals = literals;
+            this.groups = groups;
+        }
+
+        static Replacement parse(String replacement, int groupCount) {
+            List<String> literals = new ArrayList<>();
+            List<Integer> groups = new ArrayList<>();
+            StringBuilder literal = new StringBuilder();
+            int i = 0;
+
+            while (i < replacement.length()) {
+                char c = replacement.charAt(i++);
+
+                if (c == '\\') {
+                    if (i == replacement.length()) {
+                        throw new IllegalArgumentException("Character to be escaped is missing in replacement '" + replacement + "'");
+                    }
+
+                    literal.append(replacement.charAt(i++));
+                } else if (c == '$') {
+                    int group;
+
+                    if (i < replacement.length() && replacement.charAt(i) == '{') {
+                        int end = replacement.indexOf('}', i);
+
+                        if (end < 0) {
+                            throw new IllegalArgumentException("Unclosed group reference in replacement '" + replacement + "'");
+                        }
+
+                        group = parseGroup(replacement, replacement.substring(i + 1, end));
+                        i = end + 1;
+                    } else {
+                        if (i == replacement.length() || !isDigit(replacement.charAt(i))) {
+                            throw new IllegalArgumentException("Illegal group reference in replacement '" + replacement + "'");
+                        }
+
+                        group = replacement.charAt(i++) - '0';
+
+                        // Like Matcher, use further digits as long as they form a valid group number
+                        while (i < replacement.length() && isDigit(replacement.charAt(i))) {
+                            int longer = group * 10 + (replacement.charAt(i) - '0');
+
+                            if (longer > groupCount) {
+                                break;
+                            }
+
+                            group = longer;
+                            i++;
+                        }
+                    }
+
+                    if (group > groupCount) {
+                        throw new IllegalArgumentException("No group " + group + " for replacement '" + replacement + "'");
+                    }
+
+                    literals.add(literal.toString());
+                    literal.setLength(0);
+                    groups.add(group);
+                } else {
+                    literal.append(c);
+                }
+            }
+
+            literals.add(literal.toString());
+            return new Replacement(literals.toArray(new String[0]), groups.stream().mapToInt(Integer::intValue).toArray());
+        }
+
+        private static boolean isDigit(char c) {
+            return c >= '0' && c <= '9';
+        }
+
+        private static int parseGroup(String replacement, String group) {
+            if (group.isEmpty()) {
+                throw new IllegalArgumentException("Empty group reference in replacement '" + replacement + "'");
+            }
+
+            for (int i = 0; i < group.length(); i++) {
+                if (!isDigit(group.charAt(i))) {
+                    throw new IllegalArgumentException("Named group references are not supported in replacement '" + replacement + "'");
+                }
+            }
+
+            try {
+                return Integer.parseInt(group);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Illegal group reference in replacement '" + replacement + "'", e);
+            }
+        }
+
+        String apply(String name, int[] captures) {
+            if (groups.length == 0) {
+                return literals[0];
+            }
+
+            StringBuilder sb = new StringBuilder();
+
+            for (int i = 0; i < groups.length; i++) {
+                sb.append(literals[i]);
+                int start = captures[groups[i] * 2];
+
+                if (start >= 0) {
+                    sb.append(name, start, captures[groups[i] * 2 + 1]);
+                }
+            }
+
+            return sb.append(literals[groups.length]).toString();
+        }
+    }
+
+    /**
+     * The codec of {@link RegexRenamer}.
+     */
+    public static final class Codec implements NameProcessorCodec<RegexRenamer> {
+        private static final Identifier ID = new Identifier("ripple", "regex");
+
+        @Override
+        public Identifier getId() {
+            return ID;
+        }
+
+        @Override
+        public Stream<RegexRenamer> read(JsonObject json) {
+            Map<String, String> rules = new LinkedHashMap<>();
+
+            for (JsonElement element : json.get(JsonArray.class, "rules")) {
+                if (!(element instanceof JsonObject)) {
+                    throw new IllegalArgumentException("Regex rule array contains non-object child " + element.toJson());
+                }
+
+                JsonObject rule = (JsonObject) element;
+                String pattern = Objects.requireNonNull(rule.get(String.class, "pattern"), "Regex rule is missing 'pattern'");
+                String replacement = Objects.requireNonNull(rule.get(String.class, "replacement"), "Regex rule is missing 'replacement'");
+
+                if (rules.putIfAbsent(pattern, replacement) != null) {
+                    throw new IllegalArgumentException("Duplicate regex rule for pattern " + pattern);
+                }
+            }
+
+            return Stream.of(new RegexRenamer(rules));
+        }
+
+        @Override
+        public void write(RegexRenamer processor, JsonObject json) {
+            JsonArray rulesJson = new JsonArray();
+
+            for (Map.Entry<String, String> entry : processor.rules.entrySet()) {
+                JsonObject rule = new JsonObject();
+                rule.put("pattern", new JsonPrimitive(entry.getKey()));
+                rule.put("replacement", new JsonPrimitive(entry.getValue()));
+                rulesJson.add(rule);
+            }
+
+            json.put("rules", rulesJson);
+        }
+    }
+}
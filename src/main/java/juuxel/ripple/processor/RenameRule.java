@@ -97,6 +97,35 @@ public final class RenameRule implements NameProcessor<RenameRule> {
         }
     }
 
+    @Override
+    public boolean processInPlace(StringBuilder name, NameType type) {
+        if (exact) {
+            if (from.contentEquals(name) && !from.equals(to)) {
+                name.setLength(0);
+                name.append(to);
+                return true;
+            }
+
+            return false;
+        } else if (from.isEmpty()) {
+            // String.replace inserts the replacement between every char, which isn't worth handling here
+            return NameProcessor.super.processInPlace(name, type);
+        } else if (from.equals(to)) {
+            return false;
+        }
+
+        boolean changed = false;
+        int index = name.indexOf(from);
+
+        while (index >= 0) {
+            name.replace(index, index + from.length(), to);
+            changed = true;
+            index = name.indexOf(from, index + to.length());
+        }
+
+        return changed;
+    }
+
     /**
      * Gets the input name pattern of this rule.
      *
@@ -174,6 +203,19 @@ public final class RenameRule implements NameProcessor<RenameRule> {
         return Stream.of(expanded);
     }
 
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof RenameRule)) return false;
+        RenameRule that = (RenameRule) o;
+        return exact == that.exact && from.equals(that.from) && to.equals(that.to);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(from, to, exact);
+    }
+
     @Override
     public String toString() {
         String result = "RenameRule[" + from + " -> " + to;
@@ -186,7 +228,7 @@ public final class RenameRule implements NameProcessor<RenameRule> {
         return result;
     }
 
-    private static String capitalise(String str) {
+    static String capitalise(String str) {
         if (str.length() == 1) {
             return str.toUpperCase(Locale.ROOT);
         } else {
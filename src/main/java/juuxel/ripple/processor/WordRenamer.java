@@ -0,0 +1,444 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package juuxel.ripple.processor;
+
+import blue.endless.jankson.JsonArray;
+import blue.endless.jankson.JsonElement;
+import blue.endless.jankson.JsonObject;
+import blue.endless.jankson.JsonPrimitive;
+import juuxel.ripple.NameType;
+import juuxel.ripple.util.Identifier;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * A name processor that renames whole words in names, keeping the casing of the name.
+ *
+ * <p>Names are split into words at case changes, digits and other characters, so {@code getBlockEntity}
+ * consists of the words {@code get}, {@code Block} and {@code Entity}, and {@code BLOCK_ENTITY} of {@code BLOCK}
+ * and {@code ENTITY}. Acronyms are kept together: {@code HTMLParser} consists of {@code HTML} and {@code Parser}.
+ *
+ * <p>The rules are written in spaced lowercase, like the rules {@linkplain RenameRule#expand() expanded} by
+ * {@link RenameRule}. They match sequences of words in any casing that are joined without a separator
+ * (camel case) or with underscores (snake and constant case), and the replacement is cased like the matched words.
+ * For example, the rule {@code block entity -> tile entity} renames {@code getBlockEntity} to {@code getTileEntity},
+ * {@code BlockEntityType} to {@code TileEntityType} and {@code BLOCK_ENTITY} to {@code TILE_ENTITY}.
+ * This replaces the three rules created by expanding a rename rule with one rule, and each name is only scanned once
+ * regardless of the number of rules.
+ *
+ * <p>Unlike rename rules, word rules only match whole words: {@code pos -> position} renames {@code getPos}
+ * but not {@code compose}. All rules are matched in a single pass, so replaced words are not matched again.
+ * If multiple rules match at the same word, the longest one is used.
+ *
+ * <table border="1">
+ *     <caption>Serialised form</caption>
+ *     <tr>
+ *         <th>Key</th>
+ *         <th>Value</th>
+ *     </tr>
+ *     <tr>
+ *         <td>{@code processor}</td>
+ *         <td>{@code ripple:words}</td>
+ *     </tr>
+ *     <tr>
+ *         <td>{@code rules}</td>
+ *         <td>A JSON array of objects with the keys {@code from} and {@code to}</td>
+ *     </tr>
+ * </table>
+ *
+ * @since 0.5.0
+ */
+public final class WordRenamer implements NameProcessor<WordRenamer> {
+    private static final char WORD_SEPARATOR = ' ';
+    private static final long NO_MATCH = -1;
+
+    private final Map<String, String> rules;
+    private final String[][] replacements;
+    private final Node root = new Node();
+
+    /**
+     * Constructs a word renamer.
+     *
+     * @param rules a map from the words to find to their replacements, both in spaced lowercase.
+     *              Both are lowercased, since the replacements are re-cased to match the names they replace
+     * @throws IllegalArgumentException if a rule is empty, contains something that isn't a word,
+     *                                  or is a duplicate of another rule
+     */
+    public WordRenamer(Map<String, String> rules) {
+        Map<String, String> normalisedRules = new LinkedHashMap<>();
+        List<String[]> replacements = new ArrayList<>();
+
+        for (Map.Entry<String, String> entry : rules.entrySet()) {
+            String from = entry.getKey().toLowerCase(Locale.ROOT);
+            String to = entry.getValue().toLowerCase(Locale.ROOT);
+            String[] fromWords = splitWords(from, entry);
+            String[] toWords = splitWords(to, entry);
+
+            for (String word : fromWords) {
+                if (nextWordEnd(word, 0) != word.length()) {
+                    throw new IllegalArgumentException("Word '" + word + "' in rule " + entry + " would be split into multiple words");
+                }
+            }
+
+            if (normalisedRules.putIfAbsent(String.join(" ", fromWords), String.join(" ", toWords)) != null) {
+                throw new IllegalArgumentException("Duplicate word rule: " + entry);
+            }
+
+            Node node = root;
+            for (int i = 0; i < fromWords.length; i++) {
+                if (i > 0) {
+                    node = node.getOrCreate(WORD_SEPARATOR);
+                }
+
+                for (int j = 0; j < fromWords[i].length(); j++) {
+                    node = node.getOrCreate(fromWords[i].charAt(j));
+                }
+            }
+
+            node.rule = replacements.size();
+            replacements.add(toWords);
+        }
+
+        this.rules = Collections.unmodifiableMap(normalisedRules);
+        this.replacements = replacements.toArray(new String[0][]);
+    }
+
+    private static String[] splitWords(String str, Map.Entry<String, String> rule) {
+        String[] words = str.split(" ");
+
+        for (String word : words) {
+            if (word.isEmpty()) {
+                throw new IllegalArgumentException("Word rule " + rule + " contains an empty word");
+            }
+
+            for (int i = 0; i < word.length(); i++) {
+                if (!Character.isLetterOrDigit(word.charAt(i))) {
+                    throw new IllegalArgumentException("Word '" + word + "' in rule " + rule + " contains a non-alphanumeric character");
+                }
+            }
+        }
+
+        return words;
+    }
+
+    /**
+     * Gets the rules of this renamer.
+     *
+     * @return a map from the words to find to their replacements, both in spaced lowercase
+     */
+    public Map<String, String> getRules() {
+        return rules;
+    }
+
+    @Override
+    public String process(String name, NameType type) {
+        @Nullable StringBuilder sb = null;
+        int copied = 0;
+        int i = 0;
+
+        while (i < name.length()) {
+            if (!Character.isLetterOrDigit(name.charAt(i))) {
+                i++;
+                continue;
+            }
+
+            int wordEnd = nextWordEnd(name, i);
+            long match = match(name, i, wordEnd);
+
+            if (match == NO_MATCH) {
+                i = wordEnd;
+                continue;
+            }
+
+            int matchEnd = (int) match;
+
+            if (sb == null) {
+                sb = new StringBuilder(name.length() + 16);
+            }
+
+            sb.append(name, copied, i);
+            appendReplacement(sb, name, i, matchEnd, replacements[(int) (match >>> 32)]);
+            copied = i = matchEnd;
+        }
+
+        if (sb == null) {
+            return name;
+        }
+
+        return sb.append(name, copied, name.length()).toString();
+    }
+
+    /**
+     * Finds the longest rule matching the words starting at {@code start}.
+     *
+     * @return the rule index in the high half and the end of the match in the low half, or {@link #NO_MATCH}
+     */
+    private long match(String name, int start, int firstWordEnd) {
+        Node node = root;
+        int wordStart = start;
+        int wordEnd = firstWordEnd;
+        long result = NO_MATCH;
+        // 0 until the first separator is known, then either '_' or WORD_SEPARATOR for camel case
+        char separator = 0;
+
+        while (true) {
+            for (int i = wordStart; i < wordEnd; i++) {
+                node = node.get(Character.toLowerCase(name.charAt(i)));
+
+                if (node == null) {
+                    return result;
+                }
+            }
+
+            if (node.rule >= 0) {
+                result = ((long) node.rule << 32) | wordEnd;
+            }
+
+            node = node.get(WORD_SEPARATOR);
+
+            if (node == null || wordEnd == name.length()) {
+                return result;
+            }
+
+            // The next word must be joined to this one with the same separator as the previous words.
+            char next = name.charAt(wordEnd);
+            char nextSeparator = next == '_' ? '_' : WORD_SEPARATOR;
+            wordStart = next == '_' ? wordEnd + 1 : wordEnd;
+
+            if ((separator != 0 && separator != nextSeparator) || wordStart == name.length()
+                || !Character.isLetterOrDigit(name.charAt(wordStart))) {
+                return result;
+            }
+
+            separator = nextSeparator;
+            wordEnd = nextWordEnd(name, wordStart);
+        }
+    }
+
+    private static void appendReplacement(StringBuilder sb, String name, int start, int end, String[] words) {
+        @Nullable Casing firstCasing = null;
+        boolean upper = false;
+        boolean lower = false;
+        boolean snakeCase = false;
+
+        for (int i = start; i < end; ) {
+            if (name.charAt(i) == '_') {
+                snakeCase = true;
+                i++;
+                continue;
+            }
+
+            int wordEnd = nextWordEnd(name, i);
+            Casing casing = Casing.of(name, i, wordEnd);
+
+            if (firstCasing == null) {
+                firstCasing = casing;
+            }
+
+            upper |= casing == Casing.UPPER;
+            lower |= casing == Casing.LOWER || casing == Casing.CAPITALISED;
+            i = wordEnd;
+        }
+
+        boolean allUpper = upper && !lower;
+        // A single matched word is in snake case if it's joined to the rest of the name with underscores
+        snakeCase |= (start > 0 && name.charAt(start - 1) == '_') || (end < name.length() && name.charAt(end) == '_');
+
+        for (int i = 0; i < words.length; i++) {
+            String word = words[i];
+
+            if (allUpper) {
+                if (i > 0) sb.append('_');
+                sb.append(word.toUpperCase(Locale.ROOT));
+            } else if (i == 0) {
+                sb.append(firstCasing == Casing.CAPITALISED ? RenameRule.capitalise(word)
+                    : firstCasing == Casing.UPPER ? word.toUpperCase(Locale.ROOT) : word);
+            } else if (snakeCase) {
+                sb.append('_').append(word);
+            } else {
+                sb.append(RenameRule.capitalise(word));
+            }
+        }
+    }
+
+    /**
+     * Finds the end of the word starting at an alphanumeric character.
+     */
+    private static int nextWordEnd(String str, int start) {
+        int length = str.length();
+        char first = str.charAt(start);
+        int i = start + 1;
+
+        if (Character.isDigit(first)) {
+            while (i < length && Character.isDigit(str.charAt(i))) i++;
+            return i;
+        } else if (Character.isUpperCase(first) && i < length && Character.isUpperCase(str.charAt(i))) {
+            while (i < length && Character.isUpperCase(str.charAt(i))) i++;
+
+            // The last capital of an acronym followed by lowercase letters starts the next word (HTMLParser)
+            if (i < length && isLowerCaseLetter(str.charAt(i))) {
+                i--;
+            }
+
+            return i;
+        }
+
+        while (i < length && isLowerCaseLetter(str.charAt(i))) i++;
+        return i;
+    }
+
+    private static boolean isLowerCaseLetter(char c) {
+        // Includes letters without case
+        return Character.isLetter(c) && !Character.isUpperCase(c);
+    }
+
+    @Override
+    public NameProcessorCodec<WordRenamer> codec() {
+        return new Codec();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof WordRenamer)) return false;
+        return rules.equals(((WordRenamer) o).rules);
+    }
+
+    @Override
+    public int hashCode() {
+        return rules.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("WordRenamer[");
+        boolean first = true;
+
+        for (Map.Entry<String, String> entry : rules.entrySet()) {
+            if (!first) {
+                sb.append(", ");
+            }
+
+            sb.append(entry.getKey()).append(" -> ").append(entry.getValue());
+            first = false;
+        }
+
+        return sb.append(']').toString();
+    }
+
+    private enum Casing {
+        /** Digits. */
+        NONE,
+        LOWER,
+        CAPITALISED,
+        UPPER;
+
+        static Casing of(String name, int start, int end) {
+            char first = name.charAt(start);
+
+            if (Character.isDigit(first)) {
+                return NONE;
+            } else if (!Character.isUpperCase(first)) {
+                return LOWER;
+            } else if (end - start > 1) {
+                return Character.isUpperCase(name.charAt(start + 1)) ? UPPER : CAPITALISED;
+            }
+
+            // A single capital letter is only a constant case word if the name has no lowercase letters (X in getX vs MAX_X)
+            for (int i = 0; i < name.length(); i++) {
+                if (isLowerCaseLetter(name.charAt(i))) {
+                    return CAPITALISED;
+                }
+            }
+
+            return UPPER;
+        }
+    }
+
+    private static final class Node {
+        private char[] keys = new char[0];
+        private Node[] children = new Node[0];
+        int rule = -1;
+
+        @Nullable Node get(char key) {
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] == key) {
+                    return children[i];
+                }
+            }
+
+            return null;
+        }
+
+        Node getOrCreate(char key) {
+            @Nullable Node child = get(key);
+
+            if (child == null) {
+                child = new Node();
+                keys = Arrays.copyOf(keys, keys.length + 1);
+                children = Arrays.copyOf(children, children.length + 1);
+                keys[keys.length - 1] = key;
+                children[children.length - 1] = child;
+            }
+
+            return child;
+        }
+    }
+
+    /**
+     * The codec of {@link WordRenamer}.
+     */
+    public static final class Codec implements NameProcessorCodec<WordRenamer> {
+        private static final Identifier ID = new Identifier("ripple", "words");
+
+        @Override
+        public Identifier getId() {
+            return ID;
+        }
+
+        @Override
+        public Stream<WordRenamer> read(JsonObject json) {
+            Map<String, String> rules = new LinkedHashMap<>();
+
+            for (JsonElement element : json.get(JsonArray.class, "rules")) {
+                if (!(element instanceof JsonObject)) {
+                    throw new IllegalArgumentException("Word rule array contains non-object child " + element.toJson());
+                }
+
+                JsonObject rule = (JsonObject) element;
+                String from = Objects.requireNonNull(rule.get(String.class, "from"), "Word rule is missing 'from'");
+                String to = Objects.requireNonNull(rule.get(String.class, "to"), "Word rule is missing 'to'");
+                rules.put(from, to);
+            }
+
+            return Stream.of(new WordRenamer(rules));
+        }
+
+        @Override
+        public void write(WordRenamer processor, JsonObject json) {
+            JsonArray rulesJson = new JsonArray();
+
+            for (Map.Entry<String, String> entry : processor.rules.entrySet()) {
+                JsonObject rule = new JsonObject();
+                rule.put("from", new JsonPrimitive(entry.getKey()));
+                rule.put("to", new JsonPrimitive(entry.getValue()));
+                rulesJson.add(rule);
+            }
+
+            json.put("rules", rulesJson);
+        }
+    }
+}
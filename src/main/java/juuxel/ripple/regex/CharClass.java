@@ -0,0 +1,127 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package juuxel.ripple.regex;
+
+import java.util.Arrays;
+
+/**
+ * An immutable set of chars, stored as sorted, non-overlapping inclusive ranges.
+ */
+final class CharClass {
+    static final CharClass ANY = new CharClass(new char[] { Character.MIN_VALUE, Character.MAX_VALUE });
+    static final CharClass DIGIT = range('0', '9');
+    static final CharClass WORD = range('a', 'z').union(range('A', 'Z')).union(DIGIT).union(of('_'));
+    static final CharClass SPACE = of(' ').union(range('\t', '\r'));
+    private static final CharClass EMPTY = new CharClass(new char[0]);
+
+    /** Pairs of range starts and ends. */
+    private final char[] ranges;
+
+    private CharClass(char[] ranges) {
+        this.ranges = ranges;
+    }
+
+    static CharClass of(char c) {
+        return range(c, c);
+    }
+
+    static CharClass range(char from, char to) {
+        return new CharClass(new char[] { from, to });
+    }
+
+    static CharClass empty() {
+        return EMPTY;
+    }
+
+    boolean contains(char c) {
+        // Most classes have only a few ranges, so a linear scan is fastest
+        for (int i = 0; i < ranges.length; i += 2) {
+            if (c < ranges[i]) {
+                return false;
+            } else if (c <= ranges[i + 1]) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Gets the only char of this class.
+     *
+     * @return the char, or -1 if this class doesn't contain exactly one char
+     */
+    int singleChar() {
+        return ranges.length == 2 && ranges[0] == ranges[1] ? ranges[0] : -1;
+    }
+
+    CharClass union(CharClass other) {
+        char[] all = Arrays.copyOf(ranges, ranges.length + other.ranges.length);
+        System.arraycopy(other.ranges, 0, all, ranges.length, other.ranges.length);
+
+        // Sort the ranges by their start
+        Integer[] order = new Integer[all.length / 2];
+        for (int i = 0; i < order.length; i++) order[i] = i;
+        Arrays.sort(order, (a, b) -> Character.compare(all[a * 2], all[b * 2]));
+
+        char[] merged = new char[all.length];
+        int size = 0;
+
+        for (int index : order) {
+            char start = all[index * 2];
+            char end = all[index * 2 + 1];
+
+            if (size > 0 && start <= merged[size - 1] + 1) {
+                if (end > merged[size - 1]) {
+                    merged[size - 1] = end;
+                }
+            } else {
+                merged[size++] = start;
+                merged[size++] = end;
+            }
+        }
+
+        return new CharClass(Arrays.copyOf(merged, size));
+    }
+
+    CharClass negate() {
+        char[] result = new char[ranges.length + 2];
+        int size = 0;
+        int next = Character.MIN_VALUE;
+
+        for (int i = 0; i < ranges.length; i += 2) {
+            if (ranges[i] > next) {
+                result[size++] = (char) next;
+                result[size++] = (char) (ranges[i] - 1);
+            }
+
+            next = ranges[i + 1] + 1;
+        }
+
+        if (next <= Character.MAX_VALUE) {
+            result[size++] = (char) next;
+            result[size++] = Character.MAX_VALUE;
+        }
+
+        return new CharClass(Arrays.copyOf(result, size));
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("[");
+
+        for (int i = 0; i < ranges.length; i += 2) {
+            sb.append(ranges[i]);
+
+            if (ranges[i + 1] != ranges[i]) {
+                sb.append('-').append(ranges[i + 1]);
+            }
+        }
+
+        return sb.append(']').toString();
+    }
+}
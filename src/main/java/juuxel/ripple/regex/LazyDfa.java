@@ -0,0 +1,225 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package juuxel.ripple.regex;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A DFA for finding which patterns of a {@link Program} match an input, built lazily from the NFA.
+ *
+ * <p>Each DFA state is a set of NFA instructions. The states and their transitions for ASCII chars are cached
+ * as they're discovered, so matching a name whose chars have been seen before only follows cached transitions.
+ * Transitions for other chars are computed every time. The number of cached states is bounded;
+ * past the limit, new states are computed but not cached, which keeps matching linear but slower.
+ *
+ * <p>The DFA is thread-safe. Racing threads may compute the same transition twice, but
+ * the states are interned, so they always get the same result.
+ */
+final class LazyDfa {
+    private static final int ASCII = 128;
+    private static final int MAX_CACHED_STATES = 4096;
+
+    private final Program program;
+    private final Map<Key, State> states = new ConcurrentHashMap<>();
+    /** Reused by {@link #step} and {@link #closure} so that uncached transitions don't allocate arrays for the whole program. */
+    private final ThreadLocal<Scratch> scratch;
+    private final State initial;
+
+    LazyDfa(Program program) {
+        this.program = program;
+        this.scratch = ThreadLocal.withInitial(() -> new Scratch(program.size()));
+        this.initial = intern(closure(scratch.get(), program.starts, program.starts.length));
+    }
+
+    /**
+     * Finds the first pattern that matches the whole input.
+     *
+     * @param input the input
+     * @return the index of the first matching pattern, or -1 if no pattern matches
+     */
+    int matchFirst(CharSequence input) {
+        State state = initial;
+
+        for (int i = 0; i < input.length(); i++) {
+            char c = input.charAt(i);
+            State next = c < ASCII ? state.next[c] : null;
+
+            if (next == null) {
+                next = step(state, c);
+
+                if (c < ASCII) {
+                    state.next[c] = next;
+                }
+            }
+
+            if (next.pcs.length == 0) {
+                return -1;
+            }
+
+            state = next;
+        }
+
+        return state.firstMatch;
+    }
+
+    private State step(State state, char c) {
+        Scratch scratch = this.scratch.get();
+        int[] seeds = scratch.seeds;
+        int count = 0;
+
+        for (int pc : state.pcs) {
+            if (program.ops[pc] == Program.CHAR_CLASS && program.classes[program.arg1[pc]].contains(c)) {
+                seeds[count++] = pc + 1;
+            }
+        }
+
+        return intern(closure(scratch, seeds, count));
+    }
+
+    /**
+     * Follows the instructions that don't consume input from the seeds.
+     *
+     * @return the sorted instructions that consume input or match
+     */
+    private int[] closure(Scratch scratch, int[] seeds, int seedCount) {
+        int[] stack = scratch.stack;
+        int[] result = scratch.result;
+        int generation = scratch.nextGeneration();
+        int stackSize = 0;
+        int resultSize = 0;
+
+        for (int i = 0; i < seedCount; i++) {
+            stack[stackSize++] = seeds[i];
+        }
+
+        while (stackSize > 0) {
+            int pc = stack[--stackSize];
+
+            if (scratch.marks[pc] == generation) {
+                continue;
+            }
+
+            scratch.marks[pc] = generation;
+
+            switch (program.ops[pc]) {
+                case Program.SPLIT:
+                    stack[stackSize++] = program.arg1[pc];
+                    stack[stackSize++] = program.arg2[pc];
+                    break;
+                case Program.JUMP:
+                    stack[stackSize++] = program.arg1[pc];
+                    break;
+                case Program.SAVE:
+                    stack[stackSize++] = pc + 1;
+                    break;
+                default:
+                    result[resultSize++] = pc;
+                    break;
+            }
+        }
+
+        int[] pcs = Arrays.copyOf(result, resultSize);
+        Arrays.sort(pcs);
+        return pcs;
+    }
+
+    private State intern(int[] pcs) {
+        Key key = new Key(pcs);
+        State state = states.get(key);
+
+        if (state == null) {
+            state = new State(pcs, firstMatch(pcs));
+
+            if (states.size() < MAX_CACHED_STATES) {
+                State existing = states.putIfAbsent(key, state);
+
+                if (existing != null) {
+                    state = existing;
+                }
+            }
+        }
+
+        return state;
+    }
+
+    private int firstMatch(int[] pcs) {
+        int first = -1;
+
+        for (int pc : pcs) {
+            if (program.ops[pc] == Program.MATCH && (first < 0 || program.arg1[pc] < first)) {
+                first = program.arg1[pc];
+            }
+        }
+
+        return first;
+    }
+
+    /**
+     * Per-thread working arrays for computing transitions.
+     * There's at most one seed per char class instruction or pattern start, and only splits push more
+     * instructions than they pop, so the stack never holds more entries than the program has instructions.
+     */
+    private static final class Scratch {
+        final int[] seeds;
+        final int[] stack;
+        final int[] result;
+        /** The generation in which each instruction was last visited. */
+        final int[] marks;
+        private int generation = 0;
+
+        Scratch(int programSize) {
+            seeds = new int[programSize];
+            stack = new int[programSize];
+            result = new int[programSize];
+            marks = new int[programSize];
+        }
+
+        int nextGeneration() {
+            if (++generation == 0) {
+                // Wrapped around, so old marks could look current
+                Arrays.fill(marks, 0);
+                generation = 1;
+            }
+
+            return generation;
+        }
+    }
+
+    private static final class State {
+        final int[] pcs;
+        final int firstMatch;
+        /** Cached transitions for ASCII chars. Elements are written racily, which is fine as states are immutable. */
+        final State[] next = new State[ASCII];
+
+        State(int[] pcs, int firstMatch) {
+            this.pcs = pcs;
+            this.firstMatch = firstMatch;
+        }
+    }
+
+    private static final class Key {
+        private final int[] pcs;
+        private final int hash;
+
+        Key(int[] pcs) {
+            this.pcs = pcs;
+            this.hash = Arrays.hashCode(pcs);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key && Arrays.equals(pcs, ((Key) o).pcs);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
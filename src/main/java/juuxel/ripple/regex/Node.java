@@ -0,0 +1,71 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package juuxel.ripple.regex;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A node in the syntax tree of a parsed pattern.
+ */
+final class Node {
+    /** Repetition count for unbounded repetitions. */
+    static final int UNBOUNDED = -1;
+
+    final Kind kind;
+    final @Nullable CharClass charClass;
+    final List<Node> children;
+    /** The minimum repetition count or the group index. */
+    final int min;
+    final int max;
+    final boolean greedy;
+
+    private Node(Kind kind, @Nullable CharClass charClass, List<Node> children, int min, int max, boolean greedy) {
+        this.kind = kind;
+        this.charClass = charClass;
+        this.children = children;
+        this.min = min;
+        this.max = max;
+        this.greedy = greedy;
+    }
+
+    static Node empty() {
+        return new Node(Kind.EMPTY, null, Collections.emptyList(), 0, 0, false);
+    }
+
+    static Node charClass(CharClass charClass) {
+        return new Node(Kind.CHAR_CLASS, charClass, Collections.emptyList(), 0, 0, false);
+    }
+
+    static Node concat(List<Node> children) {
+        return children.size() == 1 ? children.get(0) : new Node(Kind.CONCAT, null, children, 0, 0, false);
+    }
+
+    static Node alternate(List<Node> children) {
+        return children.size() == 1 ? children.get(0) : new Node(Kind.ALTERNATE, null, children, 0, 0, false);
+    }
+
+    static Node repeat(Node child, int min, int max, boolean greedy) {
+        return new Node(Kind.REPEAT, null, Collections.singletonList(child), min, max, greedy);
+    }
+
+    static Node group(Node child, int index) {
+        return new Node(Kind.GROUP, null, Collections.singletonList(child), index, 0, false);
+    }
+
+    enum Kind {
+        EMPTY,
+        CHAR_CLASS,
+        CONCAT,
+        ALTERNATE,
+        REPEAT,
+        /** A capturing group. */
+        GROUP,
+    }
+}
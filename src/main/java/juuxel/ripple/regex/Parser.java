@@ -0,0 +1,379 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package juuxel.ripple.regex;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * A recursive descent parser for the pattern syntax supported by {@link RegexSet}.
+ */
+final class Parser {
+    private static final int MAX_REPETITIONS = 1000;
+
+    private final String pattern;
+    private final int end;
+    private int pos;
+    private int groupCount = 0;
+
+    private Parser(String pattern) {
+        this.pattern = pattern;
+        // Patterns always match whole names, so anchors at the start and the end are allowed but do nothing
+        this.pos = pattern.startsWith("^") ? 1 : 0;
+        this.end = pattern.length() > pos && pattern.endsWith("$") && !isEscaped(pattern.length() - 1)
+            ? pattern.length() - 1
+            : pattern.length();
+    }
+
+    private boolean isEscaped(int index) {
+        int backslashes = 0;
+
+        for (int i = index - 1; i >= 0 && pattern.charAt(i) == '\\'; i--) {
+            backslashes++;
+        }
+
+        return backslashes % 2 == 1;
+    }
+
+    /**
+     * Parses a pattern.
+     *
+     * @param pattern the pattern
+     * @return the parsed pattern
+     * @throws PatternSyntaxException if the pattern is invalid or not supported
+     */
+    static Parsed parse(String pattern) {
+        Parser parser = new Parser(pattern);
+        Node root = parser.parseAlternation();
+
+        if (parser.pos < parser.end) {
+            // parseAlternation only stops early at unmatched closing parentheses
+            throw parser.error("Unmatched closing ')'");
+        }
+
+        return new Parsed(root, parser.groupCount);
+    }
+
+    private PatternSyntaxException error(String description) {
+        return new PatternSyntaxException(description, pattern, pos);
+    }
+
+    private boolean peek(char c) {
+        return pos < end && pattern.charAt(pos) == c;
+    }
+
+    private boolean lookingAt(String str) {
+        return pattern.startsWith(str, pos) && pos + str.length() <= end;
+    }
+
+    private Node parseAlternation() {
+        List<Node> alternatives = new ArrayList<>();
+        alternatives.add(parseConcat());
+
+        while (peek('|')) {
+            pos++;
+            alternatives.add(parseConcat());
+        }
+
+        return Node.alternate(alternatives);
+    }
+
+    private Node parseConcat() {
+        List<Node> items = new ArrayList<>();
+
+        while (pos < end && !peek('|') && !peek(')')) {
+            items.add(parseRepeat());
+        }
+
+        return items.isEmpty() ? Node.empty() : Node.concat(items);
+    }
+
+    private Node parseRepeat() {
+        Node atom = parseAtom();
+
+        if (pos >= end) {
+            return atom;
+        }
+
+        int min;
+        int max;
+
+        switch (pattern.charAt(pos)) {
+            case '*':
+                min = 0;
+                max = Node.UNBOUNDED;
+                pos++;
+                break;
+            case '+':
+                min = 1;
+                max = Node.UNBOUNDED;
+                pos++;
+                break;
+            case '?':
+                min = 0;
+                max = 1;
+                pos++;
+                break;
+            case '{': {
+                pos++;
+                min = parseCount();
+                max = min;
+
+                if (peek(',')) {
+                    pos++;
+                    max = peek('}') ? Node.UNBOUNDED : parseCount();
+                }
+
+                if (!peek('}')) {
+                    throw error("Unclosed counted repetition");
+                } else if (max != Node.UNBOUNDED && max < min) {
+                    throw error("Illegal repetition range");
+                }
+
+                pos++;
+                break;
+            }
+            default:
+                return atom;
+        }
+
+        boolean greedy = true;
+
+        if (peek('?')) {
+            greedy = false;
+            pos++;
+        } else if (peek('+')) {
+            throw error("Possessive quantifiers are not supported");
+        }
+
+        if (pos < end && isQuantifier(pattern.charAt(pos))) {
+            throw error("Dangling meta character '" + pattern.charAt(pos) + "'");
+        }
+
+        return Node.repeat(atom, min, max, greedy);
+    }
+
+    private int parseCount() {
+        int start = pos;
+        int count = 0;
+
+        while (pos < end && Character.isDigit(pattern.charAt(pos))) {
+            count = count * 10 + (pattern.charAt(pos) - '0');
+            pos++;
+
+            if (count > MAX_REPETITIONS) {
+                throw error("Repetition count is larger than " + MAX_REPETITIONS);
+            }
+        }
+
+        if (pos == start) {
+            throw error("Illegal repetition");
+        }
+
+        return count;
+    }
+
+    private static boolean isQuantifier(char c) {
+        return c == '*' || c == '+' || c == '?' || c == '{';
+    }
+
+    private Node parseAtom() {
+        char c = pattern.charAt(pos);
+
+        switch (c) {
+            case '(':
+                return parseGroup();
+            case '[':
+                return Node.charClass(parseCharClass());
+            case '.':
+                pos++;
+                return Node.charClass(CharClass.ANY);
+            case '\\':
+                return Node.charClass(parseEscape());
+            case '^':
+            case '$':
+                throw error("Anchors are only supported at the start and the end of the pattern");
+            default:
+                if (isQuantifier(c)) {
+                    throw error("Dangling meta character '" + c + "'");
+                }
+
+                pos++;
+                return Node.charClass(CharClass.of(c));
+        }
+    }
+
+    private Node parseGroup() {
+        pos++;
+        int index = -1;
+
+        if (lookingAt("?:")) {
+            pos += 2;
+        } else if (lookingAt("?=") || lookingAt("?!") || lookingAt("?<=") || lookingAt("?<!")) {
+            throw error("Lookaround is not supported, as it can't be matched in linear time");
+        } else if (peek('?')) {
+            throw error("Unsupported group construct");
+        } else {
+            index = ++groupCount;
+        }
+
+        Node inner = parseAlternation();
+
+        if (!peek(')')) {
+            throw error("Unclosed group");
+        }
+
+        pos++;
+        return index >= 0 ? Node.group(inner, index) : inner;
+    }
+
+    private CharClass parseCharClass() {
+        pos++;
+        boolean negated = false;
+
+        if (peek('^')) {
+            negated = true;
+            pos++;
+        }
+
+        CharClass result = CharClass.empty();
+        boolean first = true;
+
+        while (true) {
+            if (pos >= end) {
+                throw error("Unclosed character class");
+            }
+
+            char c = pattern.charAt(pos);
+
+            if (c == ']' && !first) {
+                pos++;
+                break;
+            } else if (c == '[') {
+                throw error("Nested character classes are not supported");
+            } else if (lookingAt("&&")) {
+                throw error("Character class intersections are not supported");
+            }
+
+            CharClass item = parseClassAtom();
+            int start = item.singleChar();
+
+            if (start >= 0 && peek('-') && pos + 1 < end && pattern.charAt(pos + 1) != ']') {
+                pos++;
+                int rangeEnd = parseClassAtom().singleChar();
+
+                if (rangeEnd < 0 || rangeEnd < start) {
+                    throw error("Illegal character range");
+                }
+
+                item = CharClass.range((char) start, (char) rangeEnd);
+            }
+
+            result = result.union(item);
+            first = false;
+        }
+
+        return negated ? result.negate() : result;
+    }
+
+    private CharClass parseClassAtom() {
+        if (peek('\\')) {
+            return parseEscape();
+        }
+
+        return CharClass.of(pattern.charAt(pos++));
+    }
+
+    private CharClass parseEscape() {
+        pos++;
+
+        if (pos >= end) {
+            throw error("Unexpected end of pattern after '\\'");
+        }
+
+        char c = pattern.charAt(pos++);
+
+        switch (c) {
+            case 'd':
+                return CharClass.DIGIT;
+            case 'D':
+                return CharClass.DIGIT.negate();
+            case 'w':
+                return CharClass.WORD;
+            case 'W':
+                return CharClass.WORD.negate();
+            case 's':
+                return CharClass.SPACE;
+            case 'S':
+                return CharClass.SPACE.negate();
+            case 't':
+                return CharClass.of('\t');
+            case 'n':
+                return CharClass.of('\n');
+            case 'r':
+                return CharClass.of('\r');
+            case 'f':
+                return CharClass.of('\f');
+            case 'x':
+                return CharClass.of(parseHex(2));
+            case 'u':
+                return CharClass.of(parseHex(4));
+            case 'b':
+            case 'B':
+            case 'A':
+            case 'z':
+            case 'Z':
+            case 'G':
+                pos--;
+                throw error("Boundary matchers are not supported");
+            case 'k':
+                pos--;
+                throw error("Backreferences are not supported, as they can't be matched in linear time");
+            default:
+                if (c >= '1' && c <= '9') {
+                    pos--;
+                    throw error("Backreferences are not supported, as they can't be matched in linear time");
+                } else if (Character.isLetterOrDigit(c)) {
+                    pos--;
+                    throw error("Unsupported escape sequence '\\" + c + "'");
+                }
+
+                return CharClass.of(c);
+        }
+    }
+
+    private char parseHex(int digits) {
+        if (pos + digits > end) {
+            throw error("Illegal hexadecimal escape sequence");
+        }
+
+        int value = 0;
+
+        for (int i = 0; i < digits; i++) {
+            int digit = Character.digit(pattern.charAt(pos++), 16);
+
+            if (digit < 0) {
+                throw error("Illegal hexadecimal escape sequence");
+            }
+
+            value = value * 16 + digit;
+        }
+
+        return (char) value;
+    }
+
+    static final class Parsed {
+        final Node root;
+        final int groupCount;
+
+        Parsed(Node root, int groupCount) {
+            this.root = root;
+            this.groupCount = groupCount;
+        }
+    }
+}
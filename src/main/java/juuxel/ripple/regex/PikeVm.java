@@ -0,0 +1,176 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package juuxel.ripple.regex;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+
+/**
+ * Finds the capture groups of a full match by simulating the NFA of a pattern with prioritised threads.
+ *
+ * <p>The threads are kept in priority order, so the captures are the ones a backtracking matcher would
+ * find first. Each char is processed once per instruction, so the running time is linear in the input length.
+ */
+final class PikeVm {
+    private final Program program;
+
+    PikeVm(Program program) {
+        this.program = program;
+    }
+
+    /**
+     * Matches a pattern against the whole input.
+     *
+     * @param pattern    the pattern index
+     * @param groupCount the number of capturing groups in the pattern
+     * @param input      the input
+     * @return the start and end positions of each group (including the whole match as group 0),
+     *         -1 for groups that didn't participate in the match, or null if the pattern doesn't match
+     */
+    @Nullable int[] match(int pattern, int groupCount, CharSequence input) {
+        // Instructions of different patterns never jump to each other, so the threads only need room for this pattern
+        int base = program.starts[pattern];
+        int size = program.end(pattern) - base;
+        ThreadList current = new ThreadList(base, size);
+        ThreadList next = new ThreadList(base, size);
+        Stack stack = new Stack(size);
+        int[] captures = new int[(groupCount + 1) * 2];
+        Arrays.fill(captures, -1);
+
+        add(current, stack, base, captures, 0);
+
+        for (int i = 0; i < input.length() && current.size > 0; i++) {
+            char c = input.charAt(i);
+            next.clear();
+
+            for (int t = 0; t < current.size; t++) {
+                int pc = current.pcs[t];
+
+                if (program.ops[pc] == Program.CHAR_CLASS && program.classes[program.arg1[pc]].contains(c)) {
+                    add(next, stack, pc + 1, current.captures[t], i + 1);
+                }
+            }
+
+            ThreadList swap = current;
+            current = next;
+            next = swap;
+        }
+
+        // The highest priority thread that reached the end of the pattern wins
+        for (int t = 0; t < current.size; t++) {
+            if (program.ops[current.pcs[t]] == Program.MATCH) {
+                int[] result = current.captures[t].clone();
+                result[0] = 0;
+                result[1] = input.length();
+                return result;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Adds the threads reachable from an instruction without consuming input, in priority order.
+     * This is a depth-first search that visits the preferred branch of each split first,
+     * with an explicit stack so that deeply nested patterns can't overflow the call stack.
+     */
+    private void add(ThreadList list, Stack stack, int startPc, int[] startCaptures, int pos) {
+        stack.push(startPc, startCaptures);
+
+        while (stack.size > 0) {
+            stack.size--;
+            int pc = stack.pcs[stack.size];
+            int[] captures = stack.captures[stack.size];
+            stack.captures[stack.size] = null;
+
+            if (!list.mark(pc)) {
+                continue;
+            }
+
+            switch (program.ops[pc]) {
+                case Program.JUMP:
+                    stack.push(program.arg1[pc], captures);
+                    break;
+                case Program.SPLIT:
+                    // Pushed in reverse so that the preferred branch is visited first
+                    stack.push(program.arg2[pc], captures);
+                    stack.push(program.arg1[pc], captures);
+                    break;
+                case Program.SAVE: {
+                    int[] saved = captures.clone();
+                    saved[program.arg1[pc]] = pos;
+                    stack.push(pc + 1, saved);
+                    break;
+                }
+                default:
+                    list.add(pc, captures);
+                    break;
+            }
+        }
+    }
+
+    /**
+     * The pending instructions of {@link #add}. Each instruction is marked when it's popped,
+     * and only splits push more than one instruction, so the stack never holds more than
+     * one entry per instruction plus the first one.
+     */
+    private static final class Stack {
+        final int[] pcs;
+        final int[][] captures;
+        int size = 0;
+
+        Stack(int programSize) {
+            pcs = new int[programSize + 1];
+            captures = new int[programSize + 1][];
+        }
+
+        void push(int pc, int[] threadCaptures) {
+            pcs[size] = pc;
+            captures[size] = threadCaptures;
+            size++;
+        }
+    }
+
+    private static final class ThreadList {
+        final int[] pcs;
+        final int[][] captures;
+        /** The first instruction of the pattern, which is subtracted from the instructions to index {@link #marks}. */
+        private final int base;
+        /** The generation in which each instruction was last visited. */
+        private final int[] marks;
+        private int generation = 1;
+        int size = 0;
+
+        ThreadList(int base, int patternSize) {
+            this.base = base;
+            pcs = new int[patternSize];
+            captures = new int[patternSize][];
+            marks = new int[patternSize];
+        }
+
+        boolean mark(int pc) {
+            if (marks[pc - base] == generation) {
+                return false;
+            }
+
+            marks[pc - base] = generation;
+            return true;
+        }
+
+        void add(int pc, int[] threadCaptures) {
+            pcs[size] = pc;
+            captures[size] = threadCaptures;
+            size++;
+        }
+
+        void clear() {
+            size = 0;
+            generation++;
+        }
+    }
+}
@@ -0,0 +1,214 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package juuxel.ripple.regex;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * The instructions of a Thompson NFA compiled from multiple patterns.
+ *
+ * <p>Each pattern has its own start instruction, and its instructions end in a {@link #MATCH}
+ * with the pattern index as the argument. Instructions of different patterns never jump to each other.
+ */
+final class Program {
+    /** Consumes a char in {@link #classes}{@code [arg1]}, then continues at the next instruction. */
+    static final byte CHAR_CLASS = 0;
+    /** Continues at {@code arg1} and {@code arg2}, preferring {@code arg1}. */
+    static final byte SPLIT = 1;
+    /** Continues at {@code arg1}. */
+    static final byte JUMP = 2;
+    /** Saves the current position in capture slot {@code arg1}, then continues at the next instruction. */
+    static final byte SAVE = 3;
+    /** Matches pattern {@code arg1} if the input has ended. */
+    static final byte MATCH = 4;
+
+    private static final int MAX_SIZE_PER_PATTERN = 1 << 16;
+
+    final byte[] ops;
+    final int[] arg1;
+    final int[] arg2;
+    final CharClass[] classes;
+    final int[] starts;
+
+    private Program(byte[] ops, int[] arg1, int[] arg2, CharClass[] classes, int[] starts) {
+        this.ops = ops;
+        this.arg1 = arg1;
+        this.arg2 = arg2;
+        this.classes = classes;
+        this.starts = starts;
+    }
+
+    int size() {
+        return ops.length;
+    }
+
+    /**
+     * Gets the end of the instructions of a pattern. The instructions of the pattern are
+     * {@code starts[pattern]} (inclusive) to {@code end(pattern)} (exclusive).
+     *
+     * @param pattern the pattern index
+     * @return the index after the last instruction of the pattern
+     */
+    int end(int pattern) {
+        return pattern + 1 < starts.length ? starts[pattern + 1] : ops.length;
+    }
+
+    static Program compile(List<String> patterns, List<Parser.Parsed> parsed) {
+        Compiler compiler = new Compiler();
+        int[] starts = new int[parsed.size()];
+
+        for (int i = 0; i < parsed.size(); i++) {
+            starts[i] = compiler.size;
+            int limit = compiler.size + MAX_SIZE_PER_PATTERN;
+            compiler.compile(parsed.get(i).root, limit, patterns.get(i));
+            compiler.emit(MATCH, i, 0);
+        }
+
+        return compiler.toProgram(starts);
+    }
+
+    private static final class Compiler {
+        private byte[] ops = new byte[64];
+        private int[] arg1 = new int[64];
+        private int[] arg2 = new int[64];
+        private final List<CharClass> classes = new ArrayList<>();
+        private int size = 0;
+
+        int emit(byte op, int a, int b) {
+            if (size == ops.length) {
+                ops = Arrays.copyOf(ops, size * 2);
+                arg1 = Arrays.copyOf(arg1, size * 2);
+                arg2 = Arrays.copyOf(arg2, size * 2);
+            }
+
+            ops[size] = op;
+            arg1[size] = a;
+            arg2[size] = b;
+            return size++;
+        }
+
+        void compile(Node node, int limit, String pattern) {
+            if (size > limit) {
+                throw new PatternSyntaxException("Pattern is too large", pattern, -1);
+            }
+
+            switch (node.kind) {
+                case EMPTY:
+                    break;
+                case CHAR_CLASS:
+                    classes.add(node.charClass);
+                    emit(CHAR_CLASS, classes.size() - 1, 0);
+                    break;
+                case CONCAT:
+                    for (Node child : node.children) {
+                        compile(child, limit, pattern);
+                    }
+
+                    break;
+                case ALTERNATE: {
+                    List<Integer> jumps = new ArrayList<>();
+
+                    for (int i = 0; i < node.children.size(); i++) {
+                        if (i < node.children.size() - 1) {
+                            int split = emit(SPLIT, size + 1, 0);
+                            compile(node.children.get(i), limit, pattern);
+                            jumps.add(emit(JUMP, 0, 0));
+                            arg2[split] = size;
+                        } else {
+                            compile(node.children.get(i), limit, pattern);
+                        }
+                    }
+
+                    for (int jump : jumps) {
+                        arg1[jump] = size;
+                    }
+
+                    break;
+                }
+                case REPEAT:
+                    compileRepeat(node, limit, pattern);
+                    break;
+                case GROUP:
+                    emit(SAVE, node.min * 2, 0);
+                    compile(node.children.get(0), limit, pattern);
+                    emit(SAVE, node.min * 2 + 1, 0);
+                    break;
+            }
+        }
+
+        private void compileRepeat(Node node, int limit, String pattern) {
+            Node child = node.children.get(0);
+
+            if (node.max == Node.UNBOUNDED) {
+                if (node.min == 0) {
+                    // loop: SPLIT body, end; body; JUMP loop
+                    int loop = emitSplit(node.greedy);
+                    compile(child, limit, pattern);
+                    emit(JUMP, loop, 0);
+                    patchSplit(loop, node.greedy);
+                } else {
+                    for (int i = 0; i < node.min - 1; i++) {
+                        compile(child, limit, pattern);
+                    }
+
+                    // body: body; SPLIT body, end
+                    int body = size;
+                    compile(child, limit, pattern);
+                    int split = emit(SPLIT, 0, 0);
+                    arg1[split] = node.greedy ? body : size;
+                    arg2[split] = node.greedy ? size : body;
+                }
+
+                return;
+            }
+
+            for (int i = 0; i < node.min; i++) {
+                compile(child, limit, pattern);
+            }
+
+            // Optional copies nested like (x(x(x)?)?)?, so they all skip to the same end
+            int[] splits = new int[node.max - node.min];
+            for (int i = 0; i < splits.length; i++) {
+                splits[i] = emitSplit(node.greedy);
+                compile(child, limit, pattern);
+            }
+
+            for (int split : splits) {
+                patchSplit(split, node.greedy);
+            }
+        }
+
+        /**
+         * Emits a split whose preferred branch is the next instruction if greedy, and the end of the loop otherwise.
+         * The end is filled in by {@link #patchSplit}.
+         */
+        private int emitSplit(boolean greedy) {
+            return greedy ? emit(SPLIT, size + 1, 0) : emit(SPLIT, 0, size + 1);
+        }
+
+        private void patchSplit(int split, boolean greedy) {
+            if (greedy) {
+                arg2[split] = size;
+            } else {
+                arg1[split] = size;
+            }
+        }
+
+        Program toProgram(int[] starts) {
+            return new Program(
+                Arrays.copyOf(ops, size),
+                Arrays.copyOf(arg1, size),
+                Arrays.copyOf(arg2, size),
+                classes.toArray(new CharClass[0]),
+                starts
+            );
+        }
+    }
+}
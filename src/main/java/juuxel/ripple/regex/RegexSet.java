@@ -0,0 +1,114 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package juuxel.ripple.regex;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * A set of regular expressions that are matched against whole inputs in linear time.
+ *
+ * <p>The patterns use a subset of the {@link java.util.regex.Pattern} syntax: literals, escapes, {@code .},
+ * character classes with ranges and negation, the predefined classes {@code \d \w \s} and their negations,
+ * capturing and non-capturing groups, alternation, and greedy and lazy quantifiers. Patterns always match
+ * the whole input, so they may start with {@code ^} and end with {@code $}, but anchors aren't allowed elsewhere.
+ * Constructs that can't be matched without backtracking, such as backreferences and lookaround,
+ * are rejected when the set is compiled, as are possessive quantifiers and boundary matchers.
+ *
+ * <p>All patterns are compiled into one automaton, so finding the first matching pattern takes a single pass
+ * over the input regardless of the number of patterns. The automaton is built lazily and cached,
+ * and it's safe to use from multiple threads.
+ *
+ * @since 0.5.0
+ */
+public final class RegexSet {
+    private final List<String> patterns;
+    private final int[] groupCounts;
+    private final LazyDfa dfa;
+    private final PikeVm vm;
+
+    private RegexSet(List<String> patterns, int[] groupCounts, Program program) {
+        this.patterns = patterns;
+        this.groupCounts = groupCounts;
+        this.dfa = new LazyDfa(program);
+        this.vm = new PikeVm(program);
+    }
+
+    /**
+     * Compiles a set of patterns.
+     *
+     * @param patterns the patterns
+     * @return the compiled set
+     * @throws PatternSyntaxException if a pattern is invalid or uses an unsupported construct
+     */
+    public static RegexSet compile(List<String> patterns) {
+        List<String> patternsCopy = Collections.unmodifiableList(new ArrayList<>(patterns));
+        List<Parser.Parsed> parsed = new ArrayList<>(patternsCopy.size());
+        int[] groupCounts = new int[patternsCopy.size()];
+
+        for (int i = 0; i < patternsCopy.size(); i++) {
+            Parser.Parsed pattern = Parser.parse(patternsCopy.get(i));
+            parsed.add(pattern);
+            groupCounts[i] = pattern.groupCount;
+        }
+
+        return new RegexSet(patternsCopy, groupCounts, Program.compile(patternsCopy, parsed));
+    }
+
+    /**
+     * Gets the patterns of this set.
+     *
+     * @return the patterns
+     */
+    public List<String> getPatterns() {
+        return patterns;
+    }
+
+    /**
+     * Gets the number of capturing groups in a pattern.
+     *
+     * @param pattern the index of the pattern
+     * @return the number of groups, not including the whole match
+     */
+    public int getGroupCount(int pattern) {
+        return groupCounts[pattern];
+    }
+
+    /**
+     * Finds the first pattern in this set that matches the whole input.
+     *
+     * @param input the input
+     * @return the index of the pattern, or -1 if no pattern matches
+     */
+    public int matchFirst(CharSequence input) {
+        return dfa.matchFirst(input);
+    }
+
+    /**
+     * Matches a pattern against the whole input and finds the positions of its capturing groups.
+     * The groups are captured like {@link java.util.regex.Matcher#matches()} would, except that
+     * a repeated group that matches an empty string doesn't end the repetition.
+     *
+     * @param pattern the index of the pattern
+     * @param input   the input
+     * @return the start and end of each group at indices {@code 2 * group} and {@code 2 * group + 1},
+     *         with group 0 being the whole match and -1 marking groups that didn't participate in the match,
+     *         or null if the pattern doesn't match
+     */
+    public @Nullable int[] capture(int pattern, CharSequence input) {
+        return vm.match(pattern, groupCounts[pattern], input);
+    }
+
+    @Override
+    public String toString() {
+        return "RegexSet" + patterns;
+    }
+}
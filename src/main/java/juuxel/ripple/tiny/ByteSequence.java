@@ -0,0 +1,75 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package juuxel.ripple.tiny;
+
+import java.nio.ByteBuffer;
+
+/**
+ * A {@link CharSequence} view of a range of ASCII bytes in a byte buffer.
+ * Each byte is mapped to the character with the same value, so the view is only meaningful for ASCII text.
+ *
+ * <p>The range can be moved with {@link #set(int, int)}, so a single view can be reused for many ranges
+ * as long as no one keeps a reference to it.
+ */
+final class ByteSequence implements CharSequence {
+    private final ByteBuffer bytes;
+    private int offset;
+    private int length;
+
+    ByteSequence(ByteBuffer bytes, int offset, int length) {
+        this.bytes = bytes;
+        this.offset = offset;
+        this.length = length;
+    }
+
+    /**
+     * Moves this view to another range of the same buffer.
+     *
+     * @param offset the start of the range
+     * @param length the length of the range
+     * @return this view
+     */
+    ByteSequence set(int offset, int length) {
+        this.offset = offset;
+        this.length = length;
+        return this;
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + length);
+        }
+
+        return (char) (bytes.get(offset + index) & 0xFF);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        if (start < 0 || start > end || end > length) {
+            throw new IndexOutOfBoundsException("Range [" + start + ", " + end + ") out of bounds for length " + length);
+        }
+
+        return new ByteSequence(bytes, offset + start, end - start);
+    }
+
+    @Override
+    public String toString() {
+        char[] chars = new char[length];
+
+        for (int i = 0; i < length; i++) {
+            chars[i] = (char) (bytes.get(offset + i) & 0xFF);
+        }
+
+        return new String(chars);
+    }
+}
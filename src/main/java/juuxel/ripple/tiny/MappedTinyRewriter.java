@@ -0,0 +1,376 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package juuxel.ripple.tiny;
+
+import juuxel.ripple.NameType;
+import juuxel.ripple.Ripple;
+import juuxel.ripple.jfr.RippleEvent;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+
+/**
+ * Processes Tiny v1 and v2 mapping files by memory-mapping them.
+ *
+ * <p>This produces the same names as {@link TinyRewriter}, but works directly on the bytes of the input file.
+ * Fields are only decoded into strings if {@link Ripple#mayChange(CharSequence, NameType)} can't rule out
+ * a change, and all unchanged parts of the file are copied to the output as byte ranges.
+ * Like in {@link TinyRewriter}, all line terminators are written as {@code \n}, and the last line
+ * always ends with one.
+ *
+ * <p>Only {@linkplain Ripple.Builder#compile(boolean) compiled} engines can rule out changes without decoding,
+ * so other engines decode every name and don't gain much over {@link TinyRewriter}.
+ *
+ * <p>Files larger than 2 GiB can't be mapped into a single buffer, and are processed with {@link TinyRewriter} instead.
+ *
+ * @since 0.5.0
+ */
+public final class MappedTinyRewriter {
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final byte[] NEWLINE = {'\n'};
+
+    private final Ripple ripple;
+    private final TinyFieldProcessor fieldProcessor;
+    private final String namespace;
+    private final boolean processComments;
+
+    /**
+     * Constructs a mapped Tiny rewriter that keeps comments as they are.
+     *
+     * @param ripple    the Ripple engine used for processing
+     * @param namespace the namespace whose names are processed
+     */
+    public MappedTinyRewriter(Ripple ripple, String namespace) {
+        this(ripple, namespace, false);
+    }
+
+    /**
+     * Constructs a mapped Tiny rewriter.
+     *
+     * @param ripple          the Ripple engine used for processing
+     * @param namespace       the namespace whose names are processed
+     * @param processComments if true, Tiny v2 comments are processed as {@linkplain NameType#COMMENT comments}
+     */
+    public MappedTinyRewriter(Ripple ripple, String namespace, boolean processComments) {
+        this.ripple = Objects.requireNonNull(ripple, "ripple");
+        this.fieldProcessor = new TinyFieldProcessor(ripple);
+        this.namespace = Objects.requireNonNull(namespace, "namespace");
+        this.processComments = processComments;
+    }
+
+    /**
+     * Processes a Tiny file. The input and output files must be different.
+     *
+     * @param input  the input file
+     * @param output the output file
+     * @throws IOException if an I/O error occurs, the input is not a valid Tiny file,
+     *                     or the input and output are the same file
+     */
+    public void rewrite(Path input, Path output) throws IOException {
+        if (Files.exists(output) && Files.isSameFile(input, output)) {
+            // Truncating a mapped file would break the mapping
+            throw new IOException("Cannot rewrite mapped Tiny file '" + input + "' in place");
+        }
+
+        try (FileChannel in = FileChannel.open(input, StandardOpenOption.READ)) {
+            long size = in.size();
+
+            if (size > Integer.MAX_VALUE) {
+                new TinyRewriter(ripple, namespace, processComments).rewrite(input, output);
+                return;
+            }
+
+            ByteBuffer bytes = in.map(FileChannel.MapMode.READ_ONLY, 0, size);
+
+            try (FileChannel out = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                new FileRewriter(bytes, out).rewrite();
+            }
+        }
+    }
+
+    private final class FileRewriter {
+        private final ByteBuffer bytes;
+        private final ByteSequence chars;
+        /** A view of the name that is being checked, reused for all names. */
+        private final ByteSequence name;
+        private final ByteBuffer reader;
+        private final int size;
+        private final FileChannel out;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        private byte[] scratch = new byte[256];
+        /** The end of the input that has already been written to the output. */
+        private int copied = 0;
+        private int version;
+        private int namespaceIndex;
+        private boolean inProperties;
+        private boolean escapedNames = false;
+        private long nameCount = 0;
+
+        FileRewriter(ByteBuffer bytes, FileChannel out) {
+            this.bytes = bytes;
+            this.chars = new ByteSequence(bytes, 0, bytes.limit());
+            this.name = new ByteSequence(bytes, 0, 0);
+            this.reader = bytes.duplicate();
+            this.size = bytes.limit();
+            this.out = out;
+        }
+
+        void rewrite() throws IOException {
+            RippleEvent event = RippleEvent.begin(RippleEvent.Type.TINY_REWRITE);
+
+            if (size == 0) {
+                throw new IOException("Tiny file is empty");
+            }
+
+            int lineEnd = lineEnd(0);
+            TinyHeader header = TinyHeader.parse(decode(0, lineEnd));
+            version = header.getVersion();
+            namespaceIndex = header.indexOf(namespace);
+            inProperties = version == 2;
+
+            for (int lineStart = endLine(lineEnd); lineStart < size; lineStart = endLine(lineEnd)) {
+                lineEnd = lineEnd(lineStart);
+                rewriteLine(lineStart, lineEnd);
+            }
+
+            copy(copied, size);
+            flush();
+            event.setNameCount(nameCount).commit();
+        }
+
+        private void rewriteLine(int start, int end) throws IOException {
+            int kindStart = start;
+            while (kindStart < end && bytes.get(kindStart) == '\t') {
+                kindStart++;
+            }
+
+            int depth = kindStart - start;
+            int kindEnd = indexOf('\t', kindStart, end);
+
+            // Tiny v2 properties are indented lines between the header and the first class
+            if (inProperties) {
+                if (depth == 0) {
+                    inProperties = false;
+                } else {
+                    if (depth == 1 && equalsAscii(kindStart, kindEnd, TinyHeader.ESCAPED_NAMES_PROPERTY)) {
+                        escapedNames = true;
+                    }
+
+                    return;
+                }
+            }
+
+            @Nullable TinyEntry entry = TinyEntry.of(version, depth, chars, kindStart, kindEnd);
+
+            if (entry == null || (entry.isComment() && !processComments)) {
+                return;
+            }
+
+            // Find the name field
+            int fieldStart = kindEnd + 1;
+            for (int field = entry.getNameField(namespaceIndex); field > 0; field--) {
+                int tab = indexOf('\t', fieldStart, end);
+
+                if (tab == end) {
+                    return;
+                }
+
+                fieldStart = tab + 1;
+            }
+
+            if (fieldStart >= end) {
+                return;
+            }
+
+            int fieldEnd = indexOf('\t', fieldStart, end);
+
+            if (fieldStart == fieldEnd) {
+                // Missing name
+                return;
+            }
+
+            nameCount++;
+            boolean escaped = entry.isComment() || escapedNames;
+
+            if (!mustDecode(fieldStart, fieldEnd, escaped) && !mayChange(entry.getType(), fieldStart, fieldEnd)) {
+                return;
+            }
+
+            String field = decode(fieldStart, fieldEnd);
+            String processed = fieldProcessor.process(entry, field, escaped);
+
+            if (processed != field) {
+                copy(copied, fieldStart);
+                write(processed.getBytes(StandardCharsets.UTF_8));
+                copied = fieldEnd;
+            }
+        }
+
+        /**
+         * Checks if a field has to be decoded before checking whether it may change,
+         * which is the case when it contains non-ASCII characters or escape sequences.
+         */
+        private boolean mustDecode(int start, int end, boolean escaped) {
+            for (int i = start; i < end; i++) {
+                byte b = bytes.get(i);
+
+                if (b < 0 || (escaped && b == '\\')) {
+                    return true;
+                }
+            }
+
+            return false;
+        }
+
+        private boolean mayChange(NameType type, int start, int end) {
+            if (type != NameType.CLASS) {
+                return ripple.mayChange(name.set(start, end - start), type);
+            }
+
+            // Each part of a class name is processed separately, see TinyFieldProcessor
+            for (int partStart = start; partStart <= end; ) {
+                int partEnd = indexOf('$', partStart, end);
+
+                if (partEnd > partStart && ripple.mayChange(name.set(partStart, partEnd - partStart), type)) {
+                    return true;
+                }
+
+                partStart = partEnd + 1;
+            }
+
+            return false;
+        }
+
+        private int indexOf(char c, int start, int end) {
+            for (int i = start; i < end; i++) {
+                if (bytes.get(i) == c) {
+                    return i;
+                }
+            }
+
+            return end;
+        }
+
+        /** Finds the end of a line's content, which is the start of its terminator or the end of the file. */
+        private int lineEnd(int start) {
+            for (int i = start; i < size; i++) {
+                byte b = bytes.get(i);
+
+                if (b == '\n' || b == '\r') {
+                    return i;
+                }
+            }
+
+            return size;
+        }
+
+        /**
+         * Writes the terminator of a line as {@code \n} like {@link TinyRewriter}.
+         * Only {@code \r\n}, lone {@code \r} and missing terminators have to be replaced.
+         *
+         * @return the start of the next line
+         */
+        private int endLine(int lineEnd) throws IOException {
+            if (lineEnd < size && bytes.get(lineEnd) == '\n') {
+                return lineEnd + 1;
+            }
+
+            int next = lineEnd;
+            if (next < size) {
+                next++;
+
+                if (next < size && bytes.get(next) == '\n') {
+                    next++;
+                }
+            }
+
+            copy(copied, lineEnd);
+            write(NEWLINE);
+            copied = next;
+            return next;
+        }
+
+        private boolean equalsAscii(int start, int end, String str) {
+            if (end - start != str.length()) {
+                return false;
+            }
+
+            for (int i = 0; i < str.length(); i++) {
+                if (bytes.get(start + i) != str.charAt(i)) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+
+        private String decode(int start, int end) {
+            int length = end - start;
+
+            if (scratch.length < length) {
+                scratch = new byte[Math.max(length, scratch.length * 2)];
+            }
+
+            reader.position(start);
+            reader.get(scratch, 0, length);
+            return new String(scratch, 0, length, StandardCharsets.UTF_8);
+        }
+
+        private void copy(int start, int end) throws IOException {
+            if (start == end) {
+                return;
+            }
+
+            ByteBuffer range = bytes.duplicate();
+            range.limit(end);
+            range.position(start);
+
+            if (range.remaining() > buffer.remaining()) {
+                flush();
+
+                if (range.remaining() > buffer.capacity()) {
+                    writeFully(range);
+                    return;
+                }
+            }
+
+            buffer.put(range);
+        }
+
+        private void write(byte[] data) throws IOException {
+            if (data.length > buffer.remaining()) {
+                flush();
+
+                if (data.length > buffer.capacity()) {
+                    writeFully(ByteBuffer.wrap(data));
+                    return;
+                }
+            }
+
+            buffer.put(data);
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            writeFully(buffer);
+            buffer.clear();
+        }
+
+        private void writeFully(ByteBuffer data) throws IOException {
+            while (data.hasRemaining()) {
+                out.write(data);
+            }
+        }
+    }
+}
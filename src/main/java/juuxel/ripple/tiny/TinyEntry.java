@@ -0,0 +1,106 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package juuxel.ripple.tiny;
+
+import juuxel.ripple.NameType;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * The kinds of Tiny entries that contain processable names.
+ */
+enum TinyEntry {
+    V1_CLASS(1, 0, "CLASS", NameType.CLASS, 0),
+    V1_FIELD(1, 0, "FIELD", NameType.FIELD, 2),
+    V1_METHOD(1, 0, "METHOD", NameType.METHOD, 2),
+    CLASS(2, 0, "c", NameType.CLASS, 0),
+    METHOD(2, 1, "m", NameType.METHOD, 1),
+    FIELD(2, 1, "f", NameType.FIELD, 1),
+    PARAMETER(2, 2, "p", NameType.PARAMETER, 1),
+    LOCAL_VARIABLE(2, 2, "v", NameType.LOCAL_VARIABLE, 3),
+    CLASS_COMMENT(2, 1, "c", NameType.COMMENT, 0),
+    MEMBER_COMMENT(2, 2, "c", NameType.COMMENT, 0),
+    VARIABLE_COMMENT(2, 3, "c", NameType.COMMENT, 0),
+    ;
+
+    private static final TinyEntry[] VALUES = values();
+
+    private final int version;
+    private final int depth;
+    private final String kind;
+    private final NameType type;
+    private final int nameOffset;
+
+    TinyEntry(int version, int depth, String kind, NameType type, int nameOffset) {
+        this.version = version;
+        this.depth = depth;
+        this.kind = kind;
+        this.type = type;
+        this.nameOffset = nameOffset;
+    }
+
+    /**
+     * Gets the type of the names in this entry.
+     *
+     * @return the name type
+     */
+    NameType getType() {
+        return type;
+    }
+
+    /**
+     * Tests whether this entry is a comment. Comments have a single column regardless of the namespaces.
+     *
+     * @return true if this entry is a comment, false otherwise
+     */
+    boolean isComment() {
+        return type == NameType.COMMENT;
+    }
+
+    /**
+     * Gets the index of the field that contains a name.
+     *
+     * @param namespace the index of the name's namespace
+     * @return the field index, where 0 is the first field after the entry kind
+     */
+    int getNameField(int namespace) {
+        return isComment() ? 0 : nameOffset + namespace;
+    }
+
+    /**
+     * Finds the entry matching a line.
+     *
+     * @param version   the Tiny major version
+     * @param depth     the number of leading tabs on the line
+     * @param line      the line
+     * @param kindStart the start index of the entry kind, which is the first field after the tabs
+     * @param kindEnd   the end index of the entry kind (exclusive)
+     * @return the matching entry, or null if the line doesn't contain processable names
+     */
+    static @Nullable TinyEntry of(int version, int depth, CharSequence line, int kindStart, int kindEnd) {
+        for (TinyEntry entry : VALUES) {
+            if (entry.version == version && entry.depth == depth && entry.kindEquals(line, kindStart, kindEnd)) {
+                return entry;
+            }
+        }
+
+        return null;
+    }
+
+    private boolean kindEquals(CharSequence line, int start, int end) {
+        if (kind.length() != end - start) {
+            return false;
+        }
+
+        for (int i = 0; i < kind.length(); i++) {
+            if (kind.charAt(i) != line.charAt(start + i)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+}
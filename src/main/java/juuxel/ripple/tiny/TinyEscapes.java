@@ -0,0 +1,78 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package juuxel.ripple.tiny;
+
+/**
+ * Handles the escape sequences of Tiny v2 comments and escaped names.
+ */
+final class TinyEscapes {
+    private static final String ESCAPED = "\\\n\r\t\0";
+    private static final String UNESCAPED = "\\nrt0";
+
+    private TinyEscapes() {
+    }
+
+    static String unescape(String str) {
+        int backslash = str.indexOf('\\');
+
+        if (backslash < 0) {
+            return str;
+        }
+
+        StringBuilder sb = new StringBuilder(str.length());
+        sb.append(str, 0, backslash);
+
+        for (int i = backslash; i < str.length(); i++) {
+            char c = str.charAt(i);
+
+            if (c == '\\' && i + 1 < str.length()) {
+                int index = UNESCAPED.indexOf(str.charAt(i + 1));
+
+                if (index >= 0) {
+                    sb.append(ESCAPED.charAt(index));
+                    i++;
+                    continue;
+                }
+            }
+
+            sb.append(c);
+        }
+
+        return sb.toString();
+    }
+
+    static String escape(String str) {
+        int first = -1;
+
+        for (int i = 0; i < str.length(); i++) {
+            if (ESCAPED.indexOf(str.charAt(i)) >= 0) {
+                first = i;
+                break;
+            }
+        }
+
+        if (first < 0) {
+            return str;
+        }
+
+        StringBuilder sb = new StringBuilder(str.length() + 8);
+        sb.append(str, 0, first);
+
+        for (int i = first; i < str.length(); i++) {
+            char c = str.charAt(i);
+            int index = ESCAPED.indexOf(c);
+
+            if (index >= 0) {
+                sb.append('\\').append(UNESCAPED.charAt(index));
+            } else {
+                sb.append(c);
+            }
+        }
+
+        return sb.toString();
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package juuxel.ripple.tiny;
+
+import juuxel.ripple.NameType;
+import juuxel.ripple.Ripple;
+
+/**
+ * Processes the raw contents of name and comment fields in Tiny files.
+ */
+final class TinyFieldProcessor {
+    private final Ripple ripple;
+
+    TinyFieldProcessor(Ripple ripple) {
+        this.ripple = ripple;
+    }
+
+    /**
+     * Processes a field.
+     *
+     * @param entry   the entry containing the field
+     * @param field   the raw field contents
+     * @param escaped whether the field contents are escaped
+     * @return the processed raw field contents, or the same instance if unchanged
+     */
+    String process(TinyEntry entry, String field, boolean escaped) {
+        String name = escaped ? TinyEscapes.unescape(field) : field;
+        String processed = entry.getType() == NameType.CLASS
+            ? processClassName(name)
+            : ripple.process(name, entry.getType());
+
+        if (processed.equals(name)) {
+            return field;
+        }
+
+        return escaped ? TinyEscapes.escape(processed) : processed;
+    }
+
+    private String processClassName(String name) {
+        if (name.indexOf('$') < 0) {
+            return ripple.process(name, NameType.CLASS);
+        }
+
+        String[] parts = name.split("\\$", -1);
+
+        for (int i = 0; i < parts.length; i++) {
+            if (!parts[i].isEmpty()) {
+                parts[i] = ripple.process(parts[i], NameType.CLASS);
+            }
+        }
+
+        return String.join("$", parts);
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package juuxel.ripple.tiny;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A parsed Tiny v1 or v2 header line.
+ */
+final class TinyHeader {
+    /** The Tiny v2 property that marks names as escaped. */
+    static final String ESCAPED_NAMES_PROPERTY = "escaped-names";
+
+    private final int version;
+    private final List<String> namespaces;
+
+    private TinyHeader(int version, List<String> namespaces) {
+        this.version = version;
+        this.namespaces = namespaces;
+    }
+
+    /**
+     * Parses a header line.
+     *
+     * @param line the first line of a Tiny file, without the line terminator
+     * @return the parsed header
+     * @throws IOException if the line is not a valid Tiny v1 or v2 header
+     */
+    static TinyHeader parse(String line) throws IOException {
+        String[] fields = line.split("\t", -1);
+
+        if (fields.length >= 2 && fields[0].equals("v1")) {
+            return new TinyHeader(1, Arrays.asList(fields).subList(1, fields.length));
+        } else if (fields.length >= 4 && fields[0].equals("tiny") && fields[1].equals("2")) {
+            return new TinyHeader(2, Arrays.asList(fields).subList(3, fields.length));
+        }
+
+        throw new IOException("Unsupported Tiny header: " + line);
+    }
+
+    /**
+     * Gets the major version of the Tiny format.
+     *
+     * @return 1 or 2
+     */
+    int getVersion() {
+        return version;
+    }
+
+    /**
+     * Gets the index of a namespace.
+     *
+     * @param namespace the namespace
+     * @return the index of the namespace among the namespaces of the file
+     * @throws IOException if the file doesn't contain the namespace
+     */
+    int indexOf(String namespace) throws IOException {
+        int index = namespaces.indexOf(namespace);
+
+        if (index < 0) {
+            throw new IOException("Namespace '" + namespace + "' not found in Tiny file with namespaces " + namespaces);
+        }
+
+        return index;
+    }
+}
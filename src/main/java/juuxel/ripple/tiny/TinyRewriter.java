@@ -0,0 +1,193 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package juuxel.ripple.tiny;
+
+import juuxel.ripple.NameType;
+import juuxel.ripple.Ripple;
+import juuxel.ripple.jfr.RippleEvent;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Objects;
+
+/**
+ * Processes Tiny v1 and v2 mapping files line by line without reading them into a {@link org.cadixdev.lorenz.MappingSet}.
+ *
+ * <p>The names of a single namespace are processed with {@link Ripple#process(String, NameType)}, and
+ * everything else is copied as-is. Unlike processing a mapping set read from a Tiny file, this preserves
+ * all namespaces, comments, properties and local variables of the file, and only uses a constant amount of memory.
+ * Each file is recorded as a {@linkplain RippleEvent.Type#TINY_REWRITE Tiny rewrite} JFR event.
+ *
+ * <p>Class names are processed like in {@link Ripple#process(org.cadixdev.lorenz.MappingSet)}: the top-level
+ * class name (including the package) and the name of each inner class are processed separately.
+ * Local variable names are processed as {@linkplain NameType#LOCAL_VARIABLE local variables}, and
+ * Tiny v2 comments can optionally be processed as {@linkplain NameType#COMMENT comments}.
+ *
+ * @since 0.5.0
+ */
+public final class TinyRewriter {
+    private final TinyFieldProcessor fieldProcessor;
+    private final String namespace;
+    private final boolean processComments;
+
+    /**
+     * Constructs a Tiny rewriter that keeps comments as they are.
+     *
+     * @param ripple    the Ripple engine used for processing
+     * @param namespace the namespace whose names are processed
+     */
+    public TinyRewriter(Ripple ripple, String namespace) {
+        this(ripple, namespace, false);
+    }
+
+    /**
+     * Constructs a Tiny rewriter.
+     *
+     * @param ripple          the Ripple engine used for processing
+     * @param namespace       the namespace whose names are processed
+     * @param processComments if true, Tiny v2 comments are processed as {@linkplain NameType#COMMENT comments}
+     */
+    public TinyRewriter(Ripple ripple, String namespace, boolean processComments) {
+        this.fieldProcessor = new TinyFieldProcessor(Objects.requireNonNull(ripple, "ripple"));
+        this.namespace = Objects.requireNonNull(namespace, "namespace");
+        this.processComments = processComments;
+    }
+
+    /**
+     * Processes a Tiny file.
+     *
+     * @param input  the input file
+     * @param output the output file
+     * @throws IOException if an I/O error occurs or the input is not a valid Tiny file
+     */
+    public void rewrite(Path input, Path output) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(input, StandardCharsets.UTF_8);
+             BufferedWriter writer = Files.newBufferedWriter(output, StandardCharsets.UTF_8)) {
+            rewrite(reader, writer);
+        }
+    }
+
+    /**
+     * Processes Tiny mappings from a reader to a writer. The reader and the writer are not closed.
+     *
+     * @param input  the input reader
+     * @param output the output writer
+     * @throws IOException if an I/O error occurs or the input is not a valid Tiny file
+     */
+    public void rewrite(Reader input, Writer output) throws IOException {
+        RippleEvent event = RippleEvent.begin(RippleEvent.Type.TINY_REWRITE);
+        BufferedReader reader = input instanceof BufferedReader ? (BufferedReader) input : new BufferedReader(input);
+        @Nullable String headerLine = reader.readLine();
+
+        if (headerLine == null) {
+            throw new IOException("Tiny file is empty");
+        }
+
+        TinyHeader header = TinyHeader.parse(headerLine);
+        LineRewriter lineRewriter = new LineRewriter(header.getVersion(), header.indexOf(namespace));
+        output.write(headerLine);
+        output.write('\n');
+
+        @Nullable String line;
+        while ((line = reader.readLine()) != null) {
+            output.write(lineRewriter.rewrite(line));
+            output.write('\n');
+        }
+
+        output.flush();
+        event.setNameCount(lineRewriter.nameCount).commit();
+    }
+
+    private final class LineRewriter {
+        private final int version;
+        private final int namespaceIndex;
+        private boolean inProperties;
+        private boolean escapedNames = false;
+        long nameCount = 0;
+
+        LineRewriter(int version, int namespaceIndex) {
+            this.version = version;
+            this.namespaceIndex = namespaceIndex;
+            this.inProperties = version == 2;
+        }
+
+        String rewrite(String line) {
+            int depth = 0;
+            while (depth < line.length() && line.charAt(depth) == '\t') {
+                depth++;
+            }
+
+            int kindEnd = line.indexOf('\t', depth);
+            if (kindEnd < 0) {
+                kindEnd = line.length();
+            }
+
+            // Tiny v2 properties are indented lines between the header and the first class
+            if (inProperties) {
+                if (depth == 0) {
+                    inProperties = false;
+                } else {
+                    if (depth == 1 && kindEnd - depth == TinyHeader.ESCAPED_NAMES_PROPERTY.length()
+                        && line.startsWith(TinyHeader.ESCAPED_NAMES_PROPERTY, depth)) {
+                        escapedNames = true;
+                    }
+
+                    return line;
+                }
+            }
+
+            @Nullable TinyEntry entry = TinyEntry.of(version, depth, line, depth, kindEnd);
+
+            if (entry == null || (entry.isComment() && !processComments)) {
+                return line;
+            }
+
+            // Find the name field
+            int start = kindEnd + 1;
+            for (int field = entry.getNameField(namespaceIndex); field > 0; field--) {
+                int tab = line.indexOf('\t', start);
+
+                if (tab < 0) {
+                    return line;
+                }
+
+                start = tab + 1;
+            }
+
+            if (start >= line.length()) {
+                return line;
+            }
+
+            int end = line.indexOf('\t', start);
+            if (end < 0) {
+                end = line.length();
+            }
+
+            if (start == end) {
+                // Missing name
+                return line;
+            }
+
+            nameCount++;
+            String field = line.substring(start, end);
+            String processed = fieldProcessor.process(entry, field, entry.isComment() || escapedNames);
+
+            if (processed == field) {
+                return line;
+            }
+
+            return line.substring(0, start) + processed + line.substring(end);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package juuxel.ripple.util;
+
+import org.jetbrains.annotations.ApiStatus;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * SHA-256 hashing shared by rule fingerprints, binary rule sets and the Gradle plugin's cache keys.
+ *
+ * <p>This class is internal to Ripple and may change without notice.
+ *
+ * @since 0.5.0
+ */
+@ApiStatus.Internal
+public final class Hashes {
+    private Hashes() {
+    }
+
+    /**
+     * Creates a new SHA-256 message digest.
+     *
+     * @return the digest
+     */
+    public static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform is required to support SHA-256
+            throw new AssertionError(e);
+        }
+    }
+
+    /**
+     * Formats a hash as a lowercase hex string.
+     *
+     * @param hash the hash
+     * @return the hex string
+     */
+    public static String toHex(byte[] hash) {
+        StringBuilder sb = new StringBuilder(hash.length * 2);
+
+        for (byte b : hash) {
+            sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+
+        return sb.toString();
+    }
+}
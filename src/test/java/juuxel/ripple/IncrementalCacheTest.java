@@ -0,0 +1,85 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package juuxel.ripple;
+
+import juuxel.ripple.processor.NameProcessor;
+import juuxel.ripple.processor.RenameRule;
+import org.cadixdev.lorenz.MappingSet;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class IncrementalCacheTest {
+    private static final List<NameProcessor<?>> PROCESSORS = Collections.singletonList(new RenameRule("Block", "Tile"));
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void reusesPreviousOutput() {
+        MappingSet previousInput = MappingSet.create();
+        previousInput.createTopLevelClassMapping("a", "BlockEntity");
+        MappingSet previousOutput = MappingSet.create();
+        // Not what the processors would produce, which shows that the name isn't processed again
+        previousOutput.createTopLevelClassMapping("a", "CustomEntity");
+
+        IncrementalCache cache = IncrementalCache.fromMappings(PROCESSORS, previousInput, previousOutput);
+        Ripple ripple = Ripple.builder(PROCESSORS).incremental(cache).build();
+
+        assertEquals("CustomEntity", ripple.process("BlockEntity", NameType.CLASS));
+        assertEquals("TileItem", ripple.process("BlockItem", NameType.CLASS));
+        assertEquals(1, cache.getReusedCount());
+        assertEquals(1, cache.getProcessedCount());
+    }
+
+    @Test
+    void roundTripsThroughFiles() throws IOException {
+        Path file = tempDir.resolve("cache.bin");
+        IncrementalCache cache = IncrementalCache.read(file, PROCESSORS);
+        Ripple ripple = Ripple.builder(PROCESSORS).incremental(cache).build();
+        assertEquals("TileEntity", ripple.process("BlockEntity", NameType.CLASS));
+        assertEquals("entity", ripple.process("entity", NameType.FIELD));
+        assertEquals(0, cache.getReusedCount());
+        assertEquals(2, cache.getProcessedCount());
+        cache.write(file);
+
+        IncrementalCache next = IncrementalCache.read(file, PROCESSORS);
+        Ripple nextRipple = Ripple.builder(PROCESSORS).incremental(next).build();
+        assertEquals("TileEntity", nextRipple.process("BlockEntity", NameType.CLASS));
+        assertEquals("entity", nextRipple.process("entity", NameType.FIELD));
+        assertEquals(2, next.getReusedCount());
+        assertEquals(0, next.getProcessedCount());
+
+        // Caches written for other processors are outdated
+        List<NameProcessor<?>> otherProcessors = Collections.singletonList(new RenameRule("Block", "Brick"));
+        IncrementalCache outdated = IncrementalCache.read(file, otherProcessors);
+        assertEquals("BrickEntity", Ripple.builder(otherProcessors).incremental(outdated).build().process("BlockEntity", NameType.CLASS));
+        assertEquals(0, outdated.getReusedCount());
+    }
+
+    @Test
+    void rejectsCachesForOtherProcessors() {
+        IncrementalCache cache = IncrementalCache.create(Collections.singletonList(new RenameRule("Block", "Brick")));
+        assertThrows(IllegalStateException.class, () -> Ripple.builder(PROCESSORS).incremental(cache).build());
+    }
+
+    @Test
+    void rejectsOtherFiles() throws IOException {
+        Path file = tempDir.resolve("cache.bin");
+        Files.write(file, "not a cache".getBytes(StandardCharsets.UTF_8));
+        assertThrows(IOException.class, () -> IncrementalCache.read(file, PROCESSORS));
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package juuxel.ripple;
+
+import org.cadixdev.lorenz.MappingSet;
+import org.cadixdev.lorenz.model.ClassMapping;
+import org.cadixdev.lorenz.model.FieldMapping;
+import org.cadixdev.lorenz.model.MethodMapping;
+import org.cadixdev.lorenz.model.MethodParameterMapping;
+import org.cadixdev.lorenz.model.TopLevelClassMapping;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Utilities for comparing mapping sets in tests.
+ */
+public final class MappingSets {
+    private MappingSets() {
+    }
+
+    /**
+     * Describes every mapping in a mapping set as a line of text. Mapping sets with the same mappings
+     * have equal descriptions regardless of the order of the mappings.
+     *
+     * @param mappings the mapping set
+     * @return the sorted lines
+     */
+    public static List<String> describe(MappingSet mappings) {
+        List<String> lines = new ArrayList<>();
+
+        for (TopLevelClassMapping mapping : mappings.getTopLevelClassMappings()) {
+            describe(mapping, lines);
+        }
+
+        Collections.sort(lines);
+        return lines;
+    }
+
+    private static void describe(ClassMapping<?, ?> mapping, List<String> lines) {
+        String owner = mapping.getFullObfuscatedName();
+        lines.add("c " + owner + " " + mapping.getDeobfuscatedName());
+
+        for (MethodMapping method : mapping.getMethodMappings()) {
+            String name = method.getSignature().getName() + method.getObfuscatedDescriptor();
+            lines.add("m " + owner + " " + name + " " + method.getDeobfuscatedName());
+
+            for (MethodParameterMapping parameter : method.getParameterMappings()) {
+                lines.add("p " + owner + " " + name + " " + parameter.getIndex() + " " + parameter.getDeobfuscatedName());
+            }
+        }
+
+        for (FieldMapping field : mapping.getFieldMappings()) {
+            lines.add("f " + owner + " " + field.getSignature().getName() + " " + field.getDeobfuscatedName());
+        }
+
+        for (ClassMapping<?, ?> innerClass : mapping.getInnerClassMappings()) {
+            describe(innerClass, lines);
+        }
+    }
+}
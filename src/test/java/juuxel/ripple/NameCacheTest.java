@@ -0,0 +1,61 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package juuxel.ripple;
+
+import juuxel.ripple.processor.RenameRule;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NameCacheTest {
+    private static Ripple cachedRipple(int maximumSize, NameCache.Eviction eviction) {
+        return Ripple.builder(Collections.singletonList(new RenameRule("Block", "Tile"))).cache(maximumSize, eviction).build();
+    }
+
+    @Test
+    void countsHitsAndMisses() {
+        Ripple ripple = cachedRipple(100, NameCache.Eviction.LEAST_RECENTLY_USED);
+        assertEquals("TileEntity", ripple.process("BlockEntity", NameType.CLASS));
+        assertEquals("TileEntity", ripple.process("BlockEntity", NameType.CLASS));
+        // Names are cached separately for each type
+        assertEquals("getTile", ripple.process("getBlock", NameType.METHOD));
+
+        NameCache.Stats stats = ripple.getCacheStats().orElseThrow(AssertionError::new);
+        assertEquals(1, stats.getHitCount());
+        assertEquals(2, stats.getMissCount());
+        assertEquals(0, stats.getEvictionCount());
+        assertEquals(2, stats.getSize());
+        assertEquals(1.0 / 3.0, stats.getHitRate(), 1e-9);
+    }
+
+    @Test
+    void staysWithinMaximumSize() {
+        for (NameCache.Eviction eviction : NameCache.Eviction.values()) {
+            Ripple ripple = cachedRipple(10, eviction);
+
+            for (int i = 0; i < 100; i++) {
+                assertEquals("Tile" + i, ripple.process("Block" + i, NameType.CLASS));
+            }
+
+            NameCache.Stats stats = ripple.getCacheStats().orElseThrow(AssertionError::new);
+            assertEquals(100, stats.getMissCount());
+            assertTrue(stats.getSize() <= 10, () -> "size " + stats.getSize() + " with " + eviction);
+            assertEquals(100, stats.getSize() + stats.getEvictionCount());
+        }
+    }
+
+    @Test
+    void uncachedEnginesHaveNoStats() {
+        assertFalse(new Ripple(Collections.singletonList(new RenameRule("Block", "Tile"))).getCacheStats().isPresent());
+        assertThrows(IllegalArgumentException.class, () -> cachedRipple(0, NameCache.Eviction.LEAST_RECENTLY_USED));
+    }
+}
@@ -0,0 +1,228 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package juuxel.ripple;
+
+import juuxel.ripple.generator.MappingGenerator;
+import juuxel.ripple.generator.MappingShape;
+import juuxel.ripple.pipeline.PipelineOptimiser;
+import juuxel.ripple.processor.FilteredProcessor;
+import juuxel.ripple.processor.NameProcessor;
+import juuxel.ripple.processor.RegexRenamer;
+import juuxel.ripple.processor.RenameRule;
+import juuxel.ripple.processor.WordRenamer;
+import org.cadixdev.lorenz.MappingSet;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Checks that the optional engine features produce the same output as plain sequential processing.
+ */
+class RippleEquivalenceTest {
+    private static final long[] SEEDS = {0, 1, 2};
+    private static final MappingShape SHAPE = MappingShape.builder()
+        .classCount(400)
+        .vocabularySize(300)
+        .methodNamePoolSize(500)
+        .build();
+
+    /**
+     * Creates a mix of all processor types. Expanded multi-word rules create duplicates and dead rules,
+     * which gives the optimiser something to do.
+     */
+    static List<NameProcessor<?>> processors(MappingGenerator generator) {
+        String[] words = generator.getVocabulary();
+        List<NameProcessor<?>> processors = new ArrayList<>(generator.generateRules(300, 0.2, 0.1));
+
+        for (int i = 0; i < 10; i++) {
+            String from = words[i * 4] + " " + words[i * 4 + 1];
+            String to = words[i * 4 + 2] + " " + words[i * 4 + 3];
+            new RenameRule(from, to).expand().forEach(processors::add);
+        }
+
+        Map<String, String> wordRules = new LinkedHashMap<>();
+        for (int i = 50; i < 70; i++) {
+            wordRules.put(words[i], words[i + 100] + " " + words[i + 120]);
+        }
+        processors.add(new WordRenamer(wordRules));
+
+        Map<String, String> regexRules = new LinkedHashMap<>();
+        regexRules.put("(get|set)" + capitalize(words[80]) + "(\\w*)", "$1" + capitalize(words[81]) + "$2");
+        regexRules.put("(\\w+)" + capitalize(words[82]), capitalize(words[83]) + "$1");
+        processors.add(new FilteredProcessor<>(new RegexRenamer(regexRules), EnumSet.of(NameType.METHOD, NameType.CLASS)));
+
+        return processors;
+    }
+
+    private static String capitalize(String str) {
+        return str.substring(0, 1).toUpperCase(Locale.ROOT) + str.substring(1);
+    }
+
+    private static void forEachSeed(Consumer<MappingGenerator> test) {
+        for (long seed : SEEDS) {
+            test.accept(new MappingGenerator(SHAPE, seed));
+        }
+    }
+
+    private static List<String> processSequentially(MappingGenerator generator, List<NameProcessor<?>> processors) {
+        MappingSet input = generator.generateMappingSet();
+        List<String> expected = MappingSets.describe(new Ripple(processors).process(input));
+        // Make sure that the rules actually do something
+        assertNotEquals(MappingSets.describe(input), expected);
+        return expected;
+    }
+
+    private static void assertSameOutput(MappingGenerator generator, List<NameProcessor<?>> processors, Ripple ripple) {
+        List<String> expected = processSequentially(generator, processors);
+        assertEquals(expected, MappingSets.describe(ripple.process(generator.generateMappingSet())));
+    }
+
+    @Test
+    void parallel() {
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+
+        try {
+            forEachSeed(generator -> {
+                List<NameProcessor<?>> processors = processors(generator);
+                assertSameOutput(generator, processors, Ripple.builder(processors).parallel().parallelThreshold(0).build());
+                assertSameOutput(generator, processors, Ripple.builder(processors).parallel(executor).parallelThreshold(0).build());
+            });
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThrows(IllegalArgumentException.class, () -> Ripple.builder(new ArrayList<>()).parallelThreshold(-1));
+    }
+
+    @Test
+    void compiled() {
+        forEachSeed(generator -> {
+            List<NameProcessor<?>> processors = processors(generator);
+            assertSameOutput(generator, processors, Ripple.builder(processors).compile(true).build());
+            assertSameOutput(generator, processors, Ripple.builder(processors).compile(true).parallel().parallelThreshold(0).build());
+        });
+    }
+
+    @Test
+    void optimised() {
+        forEachSeed(generator -> {
+            List<NameProcessor<?>> processors = processors(generator);
+            List<NameProcessor<?>> optimised = PipelineOptimiser.optimise(processors).getProcessors();
+            assertSameOutput(generator, processors, new Ripple(optimised));
+            assertSameOutput(generator, processors, Ripple.builder(optimised).compile(true).build());
+        });
+    }
+
+    @Test
+    void cached() {
+        forEachSeed(generator -> {
+            List<NameProcessor<?>> processors = processors(generator);
+            // A small cache so that names are also evicted
+            assertSameOutput(generator, processors, Ripple.builder(processors).cache(100).build());
+            assertSameOutput(generator, processors, Ripple.builder(processors).cache(100, NameCache.Eviction.FIRST_IN_FIRST_OUT).parallel().parallelThreshold(0).build());
+        });
+    }
+
+    @Test
+    void incremental() {
+        MappingGenerator previousGenerator = new MappingGenerator(SHAPE, 0);
+        List<NameProcessor<?>> processors = processors(previousGenerator);
+        MappingSet previousInput = previousGenerator.generateMappingSet();
+        IncrementalCache cache = IncrementalCache.fromMappings(processors, previousInput, new Ripple(processors).process(previousInput));
+
+        // A different seed shares the vocabulary with the previous version, but not all names
+        forEachSeed(generator -> assertSameOutput(generator, processors, Ripple.builder(processors).incremental(cache).build()));
+    }
+
+    @Test
+    void inPlace() {
+        forEachSeed(generator -> {
+            List<NameProcessor<?>> processors = processors(generator);
+            List<String> expected = processSequentially(generator, processors);
+
+            for (Ripple ripple : new Ripple[] {
+                new Ripple(processors),
+                Ripple.builder(processors).compile(true).parallel().parallelThreshold(0).build(),
+            }) {
+                MappingSet mappings = generator.generateMappingSet();
+                ripple.processInPlace(mappings);
+                assertEquals(expected, MappingSets.describe(mappings));
+            }
+        });
+    }
+
+    @Test
+    void listenerEvents() {
+        forEachSeed(generator -> {
+            List<NameProcessor<?>> processors = processors(generator);
+            List<String> expected = new ArrayList<>();
+            Ripple.builder(processors).listener(recorder(expected)).build().process(generator.generateMappingSet());
+            assertNotEquals(0, expected.size());
+
+            List<String> parallel = new ArrayList<>();
+            Ripple.builder(processors).compile(true).parallel().parallelThreshold(0).listener(recorder(parallel)).build()
+                .process(generator.generateMappingSet());
+            assertEquals(expected, parallel);
+
+            List<String> inPlace = new ArrayList<>();
+            Ripple.builder(processors).listener(recorder(inPlace)).build().processInPlace(generator.generateMappingSet());
+            assertEquals(expected, inPlace);
+        });
+    }
+
+    static ProcessingListener recorder(List<String> events) {
+        return (ownerPath, type, oldName, newName) -> events.add(ownerPath + " " + type + " " + oldName + " -> " + newName);
+    }
+
+    @Test
+    void processorsInPlace() {
+        forEachSeed(generator -> {
+            List<NameProcessor<?>> processors = processors(generator);
+            List<String> names = new ArrayList<>();
+
+            for (String name : generator.generateMethodNames(500)) {
+                names.add(name);
+                names.add(capitalize(name));
+            }
+
+            for (NameProcessor<?> processor : processors) {
+                for (NameType type : NameType.values()) {
+                    List<String> expected = names.stream().map(name -> processor.process(name, type)).collect(Collectors.toList());
+                    List<String> actual = new ArrayList<>(names.size());
+                    StringBuilder sb = new StringBuilder();
+
+                    for (String name : names) {
+                        sb.setLength(0);
+                        sb.append(name);
+                        boolean changed = processor.processInPlace(sb, type);
+                        String result = sb.toString();
+                        actual.add(result);
+
+                        if (!changed) {
+                            assertEquals(name, result, () -> processor + " changed " + name + " but reported it unchanged");
+                        }
+                    }
+
+                    assertEquals(expected, actual, () -> processor + " for " + type);
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package juuxel.ripple;
+
+import juuxel.ripple.processor.FilteredProcessor;
+import juuxel.ripple.processor.NameProcessor;
+import juuxel.ripple.processor.RenameRule;
+import org.cadixdev.bombe.type.signature.FieldSignature;
+import org.cadixdev.bombe.type.signature.MethodSignature;
+import org.cadixdev.lorenz.MappingSet;
+import org.cadixdev.lorenz.model.ClassMapping;
+import org.cadixdev.lorenz.model.MethodMapping;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RippleTest {
+    @Test
+    void nestedFiltersIntersect() {
+        List<NameProcessor<?>> processors = Arrays.asList(
+            new FilteredProcessor<>(
+                new FilteredProcessor<>(new RenameRule("Foo", "Bar"), EnumSet.of(NameType.CLASS, NameType.METHOD)),
+                EnumSet.of(NameType.METHOD, NameType.FIELD)
+            ),
+            new FilteredProcessor<>(new RenameRule("Bar", "Baz"), EnumSet.of(NameType.FIELD))
+        );
+
+        for (Ripple ripple : new Ripple[] { new Ripple(processors), Ripple.builder(processors).compile(true).build() }) {
+            assertEquals("getBar", ripple.process("getFoo", NameType.METHOD));
+            assertEquals("Foo", ripple.process("Foo", NameType.CLASS));
+            assertEquals("Foo", ripple.process("Foo", NameType.FIELD));
+            assertEquals("Baz", ripple.process("Bar", NameType.FIELD));
+            assertEquals("Bar", ripple.process("Bar", NameType.PARAMETER));
+        }
+    }
+
+    @Test
+    void processorsAreReadOnce() {
+        List<NameProcessor<?>> processors = new ArrayList<>();
+        processors.add(new RenameRule("Foo", "Bar"));
+        Ripple ripple = new Ripple(processors);
+        processors.add(new RenameRule("Bar", "Baz"));
+
+        assertEquals("Bar", ripple.process("Foo", NameType.CLASS));
+    }
+
+    @Test
+    void listenerEvents() {
+        MappingSet mappings = MappingSet.create();
+        ClassMapping<?, ?> block = mappings.createTopLevelClassMapping("a", "com/example/Block");
+        MethodMapping getBlock = block.createMethodMapping(MethodSignature.of("b", "(I)V"), "getBlock");
+        getBlock.createParameterMapping(1, "blockCount");
+        block.createMethodMapping(MethodSignature.of("c", "()V"), "tick");
+        block.createFieldMapping(FieldSignature.of("d", "I"), "block");
+
+        List<String> events = new ArrayList<>();
+        List<NameProcessor<?>> processors = Arrays.asList(new RenameRule("Block", "Tile"), new RenameRule("block", "tile"));
+        Ripple.builder(processors).listener(RippleEquivalenceTest.recorder(events)).build().process(mappings);
+
+        List<String> expected = Arrays.asList(
+            " CLASS com/example/Block -> com/example/Tile",
+            "com/example/Tile METHOD getBlock -> getTile",
+            "com/example/Tile/getTile(I)V PARAMETER blockCount -> tileCount",
+            "com/example/Tile FIELD block -> tile"
+        );
+        assertEquals(expected, events);
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package juuxel.ripple.pipeline;
+
+import juuxel.ripple.NameType;
+import juuxel.ripple.Ripple;
+import juuxel.ripple.processor.FilteredProcessor;
+import juuxel.ripple.processor.NameProcessor;
+import juuxel.ripple.processor.RenameRule;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CompiledPipelineTest {
+    private static void assertProcesses(List<NameProcessor<?>> processors, String name, NameType type, String expected) {
+        String sequential = name;
+
+        for (NameProcessor<?> processor : processors) {
+            sequential = processor.process(sequential, type);
+        }
+
+        assertEquals(expected, sequential, "sequential processing");
+        // The engine resolves the filtered processors for the pipeline
+        assertEquals(expected, Ripple.builder(processors).compile(true).build().process(name, type), "compiled processing");
+    }
+
+    @Test
+    void laterRulesSeeEarlierOutput() {
+        List<NameProcessor<?>> processors = Arrays.asList(new RenameRule("Block", "Tile"), new RenameRule("TileEntity", "Machine"));
+        assertProcesses(processors, "BlockEntity", NameType.CLASS, "Machine");
+        assertProcesses(processors, "TileBlockEntity", NameType.CLASS, "TileMachine");
+        assertProcesses(processors, "getBlockState", NameType.METHOD, "getTileState");
+    }
+
+    @Test
+    void overlappingPatterns() {
+        assertProcesses(Arrays.asList(new RenameRule("aa", "b")), "aaaaa", NameType.FIELD, "bba");
+        assertProcesses(Arrays.asList(new RenameRule("ab", "x"), new RenameRule("b", "y")), "abb", NameType.FIELD, "xy");
+
+        List<NameProcessor<?>> growing = Arrays.asList(new RenameRule("b", "ab"), new RenameRule("ab", "c"));
+        assertProcesses(growing, "b", NameType.FIELD, "c");
+        assertProcesses(growing, "bb", NameType.FIELD, "cc");
+        assertProcesses(growing, "abb", NameType.FIELD, "acc");
+    }
+
+    @Test
+    void otherProcessorsSplitRuns() {
+        List<NameProcessor<?>> processors = Arrays.asList(
+            new RenameRule("Foo", "Bar"),
+            new RenameRule("getBar", "fetch", true),
+            new FilteredProcessor<>(new RenameRule("Bar", "Baz"), EnumSet.of(NameType.CLASS)),
+            new RenameRule("Baz", "Qux")
+        );
+
+        assertProcesses(processors, "getFoo", NameType.METHOD, "fetch");
+        assertProcesses(processors, "getFooBar", NameType.METHOD, "getBarBar");
+        assertProcesses(processors, "Foo", NameType.CLASS, "Qux");
+        assertProcesses(processors, "Foo", NameType.FIELD, "Bar");
+        assertProcesses(processors, "Baz", NameType.FIELD, "Qux");
+    }
+
+    @Test
+    void exactRuleRuns() {
+        List<NameProcessor<?>> chain = Arrays.asList(new RenameRule("a", "b", true), new RenameRule("b", "c", true));
+        assertProcesses(chain, "a", NameType.FIELD, "c");
+        assertProcesses(chain, "b", NameType.FIELD, "c");
+        assertProcesses(chain, "c", NameType.FIELD, "c");
+        assertProcesses(chain, "ab", NameType.FIELD, "ab");
+
+        List<NameProcessor<?>> swap = Arrays.asList(new RenameRule("a", "b", true), new RenameRule("b", "a", true));
+        assertProcesses(swap, "a", NameType.FIELD, "a");
+        assertProcesses(swap, "b", NameType.FIELD, "a");
+
+        // The first rule wins, and the second one doesn't match its output
+        List<NameProcessor<?>> shadowed = Arrays.asList(new RenameRule("x", "y", true), new RenameRule("x", "z", true));
+        assertProcesses(shadowed, "x", NameType.FIELD, "y");
+    }
+
+    @Test
+    void filteredExactRules() {
+        List<NameProcessor<?>> processors = Arrays.asList(
+            new FilteredProcessor<>(new RenameRule("Foo", "Bar", true), EnumSet.of(NameType.FIELD)),
+            new RenameRule("Bar", "Baz", true)
+        );
+
+        assertProcesses(processors, "Foo", NameType.FIELD, "Baz");
+        assertProcesses(processors, "Foo", NameType.METHOD, "Foo");
+        assertProcesses(processors, "Bar", NameType.METHOD, "Baz");
+    }
+
+    @Test
+    void unmatchedNamesAreUnchanged() {
+        List<NameProcessor<?>> processors = Arrays.asList(new RenameRule("Block", "Tile"), new RenameRule("Item", "Stack"));
+        assertProcesses(processors, "", NameType.PARAMETER, "");
+        assertProcesses(processors, "entity", NameType.PARAMETER, "entity");
+        assertProcesses(processors, "Bloc", NameType.CLASS, "Bloc");
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package juuxel.ripple.pipeline;
+
+import juuxel.ripple.NameType;
+import juuxel.ripple.processor.FilteredProcessor;
+import juuxel.ripple.processor.NameProcessor;
+import juuxel.ripple.processor.RenameRule;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PipelineOptimiserTest {
+    @Test
+    void hoistsFiltersAndRemovesNoOps() {
+        PipelineOptimiser.Result result = PipelineOptimiser.optimise(Arrays.asList(
+            new FilteredProcessor<>(
+                new FilteredProcessor<>(new RenameRule("Foo", "Bar"), EnumSet.of(NameType.CLASS, NameType.METHOD)),
+                EnumSet.of(NameType.METHOD, NameType.FIELD)
+            ),
+            new FilteredProcessor<>(new RenameRule("Baz", "Qux"), EnumSet.allOf(NameType.class)),
+            new RenameRule("Baz", "Baz"),
+            new FilteredProcessor<>(new RenameRule("X", "Y"), EnumSet.noneOf(NameType.class))
+        ));
+
+        List<NameProcessor<?>> expected = Arrays.asList(
+            new FilteredProcessor<>(new RenameRule("Foo", "Bar"), EnumSet.of(NameType.METHOD)),
+            new RenameRule("Baz", "Qux")
+        );
+        assertEquals(expected, result.getProcessors());
+        assertEquals(4, result.getOriginalCount());
+        assertEquals(2, result.getOptimisedCount());
+        assertEquals(2, result.getHoistedCount());
+        assertEquals(2, result.getNoOpCount());
+    }
+
+    @Test
+    void removesDeadRules() {
+        PipelineOptimiser.Result exact = PipelineOptimiser.optimise(Arrays.asList(new RenameRule("a", "b", true), new RenameRule("a", "c", true)));
+        assertEquals(Collections.singletonList(new RenameRule("a", "b", true)), exact.getProcessors());
+        assertEquals(1, exact.getDeadCount());
+
+        // The second rule can't match because the first one already replaced every occurrence of the pattern
+        PipelineOptimiser.Result substring = PipelineOptimiser.optimise(Arrays.asList(new RenameRule("Block", "Tile"), new RenameRule("Block", "Tile")));
+        assertEquals(Collections.singletonList(new RenameRule("Block", "Tile")), substring.getProcessors());
+        assertEquals(1, substring.getDeadCount());
+
+        // A replacement that contains the pattern can create new matches
+        List<NameProcessor<?>> growing = Arrays.asList(new RenameRule("a", "aa"), new RenameRule("a", "aa"));
+        assertEquals(growing, PipelineOptimiser.optimise(growing).getProcessors());
+    }
+
+    @Test
+    void narrowsRulesToLiveTypes() {
+        PipelineOptimiser.Result result = PipelineOptimiser.optimise(Arrays.asList(
+            new FilteredProcessor<>(new RenameRule("a", "b", true), EnumSet.of(NameType.CLASS)),
+            new RenameRule("a", "c", true)
+        ));
+
+        EnumSet<NameType> otherTypes = EnumSet.complementOf(EnumSet.of(NameType.CLASS));
+        List<NameProcessor<?>> expected = Arrays.asList(
+            new FilteredProcessor<>(new RenameRule("a", "b", true), EnumSet.of(NameType.CLASS)),
+            new FilteredProcessor<>(new RenameRule("a", "c", true), otherTypes)
+        );
+        assertEquals(expected, result.getProcessors());
+        assertEquals(1, result.getNarrowedCount());
+    }
+
+    @Test
+    void mergesAdjacentCopies() {
+        PipelineOptimiser.Result result = PipelineOptimiser.optimise(Arrays.asList(
+            new FilteredProcessor<>(new RenameRule("Foo", "Bar"), EnumSet.of(NameType.CLASS)),
+            new FilteredProcessor<>(new RenameRule("Foo", "Bar"), EnumSet.of(NameType.METHOD))
+        ));
+
+        List<NameProcessor<?>> expected = Collections.singletonList(
+            new FilteredProcessor<>(new RenameRule("Foo", "Bar"), EnumSet.of(NameType.CLASS, NameType.METHOD))
+        );
+        assertEquals(expected, result.getProcessors());
+        assertEquals(1, result.getMergedCount());
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package juuxel.ripple.pipeline;
+
+import juuxel.ripple.NameType;
+import juuxel.ripple.processor.NameProcessor;
+import juuxel.ripple.processor.RenameRule;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PrefilterTest {
+    @Test
+    void matchesPatternPrefixes() {
+        Prefilter prefilter = Prefilter.of(Arrays.asList("Block", "ab", "x"));
+        assertTrue(prefilter.mayMatch("getBlockState"));
+        // Only the first three characters of longer patterns are checked
+        assertTrue(prefilter.mayMatch("Blob"));
+        assertTrue(prefilter.mayMatch("tab"));
+        assertTrue(prefilter.mayMatch("box"));
+        assertFalse(prefilter.mayMatch("hello"));
+        assertFalse(prefilter.mayMatch("Bl"));
+        assertFalse(prefilter.mayMatch("ba"));
+        assertFalse(prefilter.mayMatch(""));
+    }
+
+    @Test
+    void emptyPatternsMatchEverything() {
+        assertNull(Prefilter.of(Arrays.asList("Block", "")));
+    }
+
+    @Test
+    void rejectedNamesAreReturnedAsIs() {
+        List<NameProcessor<?>> processors = Arrays.asList(
+            new RenameRule("Block", "Tile"),
+            new RenameRule("a", "b", true),
+            new RenameRule("Item", "Stack")
+        );
+        Map<NameType, List<NameProcessor<?>>> chains = new EnumMap<>(NameType.class);
+        for (NameType type : NameType.values()) {
+            chains.put(type, processors);
+        }
+        CompiledPipeline pipeline = CompiledPipeline.compile(chains);
+
+        String name = "getEntity";
+        assertFalse(pipeline.mayChange(name, NameType.METHOD));
+        assertSame(name, pipeline.process(name, NameType.METHOD));
+
+        assertTrue(pipeline.mayChange("getItem", NameType.METHOD));
+        assertEquals("getStack", pipeline.process("getItem", NameType.METHOD));
+        assertEquals("b", pipeline.process("a", NameType.FIELD));
+    }
+}
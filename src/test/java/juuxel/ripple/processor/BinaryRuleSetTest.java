@@ -0,0 +1,107 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package juuxel.ripple.processor;
+
+import juuxel.ripple.NameType;
+import juuxel.ripple.generator.MappingGenerator;
+import juuxel.ripple.generator.MappingShape;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BinaryRuleSetTest {
+    @TempDir
+    Path tempDir;
+
+    private static void assertSameProcessors(List<? extends NameProcessor<?>> expected, List<? extends NameProcessor<?>> actual) {
+        assertEquals(NameProcessorIo.toJson(expected).toJson(), NameProcessorIo.toJson(actual).toJson());
+    }
+
+    @Test
+    void roundTrip() throws IOException {
+        MappingGenerator generator = new MappingGenerator(MappingShape.builder().build(), 0);
+        List<NameProcessor<?>> processors = new ArrayList<>(generator.generateRules(1000, 0.2, 0.1));
+        new RenameRule("block entity", "tile entity").expand().forEach(processors::add);
+        processors.add(new RenameRule("pös", "position", true));
+
+        Path path = tempDir.resolve("rules.bin");
+        BinaryRuleSet.write(processors, path);
+
+        assertTrue(BinaryRuleSet.isBinaryRuleSet(path));
+        assertSameProcessors(processors, BinaryRuleSet.read(path));
+
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(path));
+        assertTrue(BinaryRuleSet.isBinaryRuleSet(buffer));
+        assertSameProcessors(processors, BinaryRuleSet.read(buffer));
+        assertEquals(0, buffer.position());
+    }
+
+    @Test
+    void jsonProcessorsRoundTrip() throws IOException {
+        List<NameProcessor<?>> processors = Arrays.asList(
+            new WordRenamer(Collections.singletonMap("block entity", "tile entity")),
+            new FilteredProcessor<>(new RegexRenamer(Collections.singletonMap("func_(\\d+)_(\\w+)", "$2")), EnumSet.of(NameType.METHOD))
+        );
+
+        Path path = tempDir.resolve("rules.bin");
+        BinaryRuleSet.write(processors, path);
+        assertSameProcessors(processors, BinaryRuleSet.read(path));
+    }
+
+    @Test
+    void rejectsCorruptFiles() throws IOException {
+        Path path = tempDir.resolve("rules.bin");
+        BinaryRuleSet.write(Collections.singletonList(new RenameRule("a", "b")), path);
+        byte[] bytes = Files.readAllBytes(path);
+
+        bytes[bytes.length - 1] ^= 1;
+        Files.write(path, bytes);
+        assertThrows(IOException.class, () -> BinaryRuleSet.read(path));
+
+        Files.write(path, "{}".getBytes());
+        assertFalse(BinaryRuleSet.isBinaryRuleSet(path));
+        assertFalse(BinaryRuleSet.isBinaryRuleSet(ByteBuffer.wrap(Files.readAllBytes(path))));
+        assertThrows(IOException.class, () -> BinaryRuleSet.read(path));
+    }
+
+    @Test
+    void rejectsMalformedLengths() throws NoSuchAlgorithmException {
+        byte[][] bodies = {
+            // A string length of -1
+            {1, 0, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x0F},
+            // A string length longer than the file
+            {1, 0, (byte) 0xE8, 0x07, 'a'},
+            // A processor count with too many bytes
+            {(byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, 0x01},
+            // A truncated processor count
+            {(byte) 0x80},
+        };
+
+        for (byte[] body : bodies) {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(body);
+            ByteBuffer buffer = ByteBuffer.allocate(8 + hash.length + body.length);
+            buffer.putInt(0x52504C52).putInt(1).put(hash).put(body).flip();
+            assertThrows(IOException.class, () -> BinaryRuleSet.read(buffer));
+        }
+    }
+}
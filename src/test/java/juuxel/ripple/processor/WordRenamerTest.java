@@ -0,0 +1,146 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package juuxel.ripple.processor;
+
+import juuxel.ripple.NameType;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class WordRenamerTest {
+    private static WordRenamer renamer(String... rules) {
+        Map<String, String> map = new LinkedHashMap<>();
+
+        for (int i = 0; i < rules.length; i += 2) {
+            map.put(rules[i], rules[i + 1]);
+        }
+
+        return new WordRenamer(map);
+    }
+
+    private static void assertProcesses(WordRenamer renamer, String name, String expected) {
+        assertEquals(expected, renamer.process(name, NameType.METHOD), name);
+
+        StringBuilder sb = new StringBuilder(name);
+        renamer.processInPlace(sb, NameType.METHOD);
+        assertEquals(expected, sb.toString(), () -> name + " in place");
+    }
+
+    @Test
+    void camelCase() {
+        WordRenamer renamer = renamer("block entity", "tile entity");
+        assertProcesses(renamer, "getBlockEntity", "getTileEntity");
+        assertProcesses(renamer, "blockEntityType", "tileEntityType");
+        assertProcesses(renamer, "BlockEntity", "TileEntity");
+        assertProcesses(renamer, "getBlock", "getBlock");
+    }
+
+    @Test
+    void snakeCase() {
+        WordRenamer renamer = renamer("block entity", "tile entity");
+        assertProcesses(renamer, "block_entity", "tile_entity");
+        assertProcesses(renamer, "get_block_entity_type", "get_tile_entity_type");
+    }
+
+    @Test
+    void constantCase() {
+        WordRenamer renamer = renamer("block entity", "tile entity");
+        assertProcesses(renamer, "BLOCK_ENTITY", "TILE_ENTITY");
+        assertProcesses(renamer, "MAX_BLOCK_ENTITY_COUNT", "MAX_TILE_ENTITY_COUNT");
+    }
+
+    @Test
+    void acronyms() {
+        WordRenamer renamer = renamer("html", "xml", "parser", "reader");
+        assertProcesses(renamer, "HTMLParser", "XMLReader");
+        assertProcesses(renamer, "getHtmlParser", "getXmlReader");
+        assertProcesses(renamer, "parseHTML", "parseXML");
+    }
+
+    @Test
+    void digits() {
+        // Digits are separate words
+        WordRenamer renamer = renamer("block", "tile", "vec 3", "vector 3");
+        assertProcesses(renamer, "getBlock2State", "getTile2State");
+        assertProcesses(renamer, "block42", "tile42");
+        assertProcesses(renamer, "BLOCK_2", "TILE_2");
+        assertProcesses(renamer, "toVec3", "toVector3");
+        assertProcesses(renamer, "toVec32", "toVec32");
+    }
+
+    @Test
+    void wholeWordsOnly() {
+        WordRenamer renamer = renamer("pos", "position");
+        assertProcesses(renamer, "getPos", "getPosition");
+        assertProcesses(renamer, "compose", "compose");
+        assertProcesses(renamer, "posX", "positionX");
+    }
+
+    @Test
+    void longestMatchWins() {
+        WordRenamer renamer = renamer("block", "tile", "block entity", "machine");
+        assertProcesses(renamer, "getBlockEntity", "getMachine");
+        assertProcesses(renamer, "getBlockEntityType", "getMachineType");
+        assertProcesses(renamer, "getBlockState", "getTileState");
+        assertProcesses(renamer, "BLOCK_ENTITY_TYPE", "MACHINE_TYPE");
+    }
+
+    @Test
+    void mixedSeparatorsDontMatch() {
+        WordRenamer renamer = renamer("block entity type", "tile type");
+        assertProcesses(renamer, "blockEntityType", "tileType");
+        assertProcesses(renamer, "block_entityType", "block_entityType");
+        assertProcesses(renamer, "blockEntity_type", "blockEntity_type");
+
+        // A shorter rule can still match the words before the separator changes
+        WordRenamer shorter = renamer("block entity type", "tile type", "block entity", "tile entity");
+        assertProcesses(shorter, "block_entityType", "tile_entityType");
+    }
+
+    @Test
+    void fewerReplacementWords() {
+        WordRenamer renamer = renamer("block entity", "tile");
+        assertProcesses(renamer, "blockEntity", "tile");
+        assertProcesses(renamer, "BlockEntity", "Tile");
+        assertProcesses(renamer, "getBlockEntity", "getTile");
+        assertProcesses(renamer, "BLOCK_ENTITY", "TILE");
+        assertProcesses(renamer, "block_entity_pos", "tile_pos");
+    }
+
+    @Test
+    void moreReplacementWords() {
+        WordRenamer renamer = renamer("tile", "block entity");
+        assertProcesses(renamer, "tile", "blockEntity");
+        assertProcesses(renamer, "Tile", "BlockEntity");
+        assertProcesses(renamer, "getTile", "getBlockEntity");
+        assertProcesses(renamer, "TILE", "BLOCK_ENTITY");
+        assertProcesses(renamer, "MAX_TILE_COUNT", "MAX_BLOCK_ENTITY_COUNT");
+        assertProcesses(renamer, "tile_pos", "block_entity_pos");
+    }
+
+    @Test
+    void rulesAreLowercased() {
+        WordRenamer renamer = renamer("Block Entity", "Tile Entity");
+        assertEquals(Collections.singletonMap("block entity", "tile entity"), renamer.getRules());
+        assertProcesses(renamer, "blockEntity", "tileEntity");
+        assertProcesses(renamer, "BLOCK_ENTITY", "TILE_ENTITY");
+    }
+
+    @Test
+    void rejectsInvalidRules() {
+        assertThrows(IllegalArgumentException.class, () -> renamer("block  entity", "tile"));
+        assertThrows(IllegalArgumentException.class, () -> renamer("block_entity", "tile"));
+        assertThrows(IllegalArgumentException.class, () -> renamer("block", "tile-entity"));
+        assertThrows(IllegalArgumentException.class, () -> renamer("block2", "tile"));
+        assertThrows(IllegalArgumentException.class, () -> renamer("block", "tile", "Block", "machine"));
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package juuxel.ripple.regex;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Compares {@link RegexSet} with {@link java.util.regex} on generated patterns and inputs.
+ */
+class RegexSetTest {
+    private static final String[] ATOMS = {"a", "b", "c", "_", "\\d", "\\w", "[ab]", "[^a]", "[a-c_]", ".", "1", "\\.", "[0-9]"};
+    private static final String[] QUANTIFIERS = {"", "", "", "*", "+", "?", "*?", "+?", "??", "{2}", "{1,3}", "{0,2}?", "{2,}"};
+    private static final String[] NON_EMPTY_QUANTIFIERS = {"", "", "+", "+?", "{2}", "{1,3}", "{2,}"};
+    private static final String INPUT_CHARS = "abc_1.x";
+
+    @Test
+    void matchesLikeJava() {
+        Random random = new Random(0);
+
+        for (int i = 0; i < 2000; i++) {
+            List<String> patterns = new ArrayList<>();
+            for (int j = random.nextInt(4); j >= 0; j--) {
+                patterns.add(generatePattern(random, 2, false, false));
+            }
+
+            RegexSet set = RegexSet.compile(patterns);
+            List<Pattern> javaPatterns = new ArrayList<>();
+            for (String pattern : patterns) {
+                javaPatterns.add(Pattern.compile(pattern));
+            }
+
+            for (int j = 0; j < 30; j++) {
+                String input = generateInput(random);
+                int expected = -1;
+
+                for (int k = 0; k < javaPatterns.size(); k++) {
+                    Matcher matcher = javaPatterns.get(k).matcher(input);
+
+                    if (matcher.matches()) {
+                        if (expected < 0) {
+                            expected = k;
+                        }
+
+                        int[] groups = new int[(matcher.groupCount() + 1) * 2];
+                        for (int group = 0; group <= matcher.groupCount(); group++) {
+                            groups[group * 2] = matcher.start(group);
+                            groups[group * 2 + 1] = matcher.end(group);
+                        }
+
+                        String pattern = patterns.get(k);
+                        assertArrayEquals(groups, set.capture(k, input), () -> "Groups of " + pattern + " for " + input);
+                    } else {
+                        assertNull(set.capture(k, input));
+                    }
+                }
+
+                assertEquals(expected, set.matchFirst(input), patterns + " for " + input);
+            }
+        }
+    }
+
+    /**
+     * Generates a pattern. Java ends a repetition when the repeated group matches an empty string,
+     * which {@link RegexSet#capture} doesn't, so groups are generated so that they can't match empty strings.
+     * Java also sometimes keeps the captures of groups nested in a repeated group from earlier repetitions,
+     * so capturing groups are only generated outside of other repeated groups.
+     */
+    private static String generatePattern(Random random, int depth, boolean nonEmpty, boolean repeated) {
+        StringBuilder sb = new StringBuilder();
+
+        for (int i = random.nextInt(3); i >= 0; i--) {
+            int kind = random.nextInt(10);
+            String[] quantifiers = nonEmpty && sb.length() == 0 ? NON_EMPTY_QUANTIFIERS : QUANTIFIERS;
+            String quantifier = quantifiers[random.nextInt(quantifiers.length)];
+            boolean repeatedAtom = repeated || !(quantifier.isEmpty() || quantifier.startsWith("?"));
+
+            if (depth > 0 && kind < 2) {
+                sb.append(repeated ? "(?:" : "(").append(generatePattern(random, depth - 1, true, repeatedAtom));
+                if (random.nextBoolean()) {
+                    sb.append('|').append(generatePattern(random, depth - 1, true, repeatedAtom));
+                }
+                sb.append(')');
+            } else if (depth > 0 && kind < 3) {
+                sb.append("(?:").append(generatePattern(random, depth - 1, true, repeatedAtom))
+                    .append('|').append(generatePattern(random, depth - 1, true, repeatedAtom)).append(')');
+            } else {
+                sb.append(ATOMS[random.nextInt(ATOMS.length)]);
+            }
+
+            sb.append(quantifier);
+        }
+
+        return sb.toString();
+    }
+
+    private static String generateInput(Random random) {
+        char[] chars = new char[random.nextInt(8)];
+
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = INPUT_CHARS.charAt(random.nextInt(INPUT_CHARS.length()));
+        }
+
+        return new String(chars);
+    }
+
+    @Test
+    void linearTime() {
+        char[] chars = new char[50_000];
+        Arrays.fill(chars, 'a');
+        String input = new String(chars);
+
+        // These take exponential time in a backtracking matcher
+        RegexSet set = RegexSet.compile(Arrays.asList("(a+)+b", "(a|aa)*c"));
+        assertEquals(-1, set.matchFirst(input));
+        assertNull(set.capture(0, input));
+    }
+
+    @Test
+    void deeplyNestedPatterns() {
+        // Tens of thousands of nested optional instructions, which can't be followed recursively
+        RegexSet set = RegexSet.compile(Arrays.asList("x", "(?:(?:a?){1000}){30}(b)"));
+        assertEquals(1, set.matchFirst("aaab"));
+        assertArrayEquals(new int[] {0, 4, 3, 4}, set.capture(1, "aaab"));
+        assertNull(set.capture(0, "aaab"));
+    }
+
+    @Test
+    void firstMatchingPatternWins() {
+        RegexSet set = RegexSet.compile(Arrays.asList("func_(\\d+)", "\\w+", "func_1"));
+        assertEquals(0, set.matchFirst("func_1"));
+        assertEquals(1, set.matchFirst("method_1"));
+        assertEquals(-1, set.matchFirst("a.b"));
+
+        assertArrayEquals(new int[] {0, 7, 5, 7}, set.capture(0, "func_12"));
+    }
+
+    @Test
+    void rejectsUnsupportedConstructs() {
+        for (String pattern : new String[] {"(a)\\1", "a(?=b)", "a(?!b)", "(?<=a)b", "a*+", "a\\b", "x^y", "(?<name>a)", "[[a]]", "(a"}) {
+            assertThrows(PatternSyntaxException.class, () -> RegexSet.compile(Collections.singletonList(pattern)), pattern);
+        }
+    }
+}
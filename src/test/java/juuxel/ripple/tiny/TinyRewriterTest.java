@@ -0,0 +1,167 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package juuxel.ripple.tiny;
+
+import juuxel.ripple.MappingSets;
+import juuxel.ripple.Ripple;
+import juuxel.ripple.processor.NameProcessor;
+import juuxel.ripple.processor.RenameRule;
+import net.fabricmc.lorenztiny.TinyMappingFormat;
+import org.cadixdev.lorenz.MappingSet;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class TinyRewriterTest {
+    private static final List<NameProcessor<?>> PROCESSORS = Arrays.asList(
+        new RenameRule("Block", "Tile"),
+        new RenameRule("block", "tile"),
+        new RenameRule("Inner", "Nested", true),
+        new RenameRule("count", "amount")
+    );
+
+    private static final String TINY_V1 = lines(
+        "v1\tofficial\tintermediary\tnamed",
+        "CLASS\ta\tnet/minecraft/class_1\tnet/minecraft/block/BlockEntity",
+        "CLASS\ta$b\tnet/minecraft/class_1$class_2\tnet/minecraft/block/BlockEntity$Inner",
+        "CLASS\tc\tnet/minecraft/class_3\tnet/minecraft/item/ItemStack",
+        "FIELD\ta\tI\tb\tfield_1\tblockCount",
+        "METHOD\ta\t(Lc;)V\tc\tmethod_1\tsetBlockEntity",
+        "METHOD\tc\t()Z\td\tmethod_2\tisEmpty"
+    );
+
+    private static final String TINY_V2 = lines(
+        "tiny\t2\t0\tintermediary\tnamed",
+        "\tescaped-names",
+        "c\tnet/minecraft/class_1\tnet/minecraft/block/BlockEntity",
+        "\tc\tA Block that has\\ta count.",
+        "\tf\tI\tfield_1\tblockCount",
+        "\tf\tI\tfield_2\tblock\u00c4rger",
+        "\tm\t(Lnet/minecraft/class_3;I)V\tmethod_1\tsetBlockEntity",
+        "\t\tp\t1\t\tblockEntity",
+        "\t\tp\t2\t\tcount",
+        "\t\tv\t3\t5\t-1\t\tblockCountInner",
+        "c\tnet/minecraft/class_1$class_2\tnet/minecraft/block/BlockEntity$Inner",
+        "c\tnet/minecraft/class_3\tnet/minecraft/item/ItemStack",
+        "\tm\t()Z\tmethod_2\tisEmpty"
+    );
+
+    @TempDir
+    Path tempDir;
+
+    private static String lines(String... lines) {
+        return String.join("\n", lines) + "\n";
+    }
+
+    private static String rewrite(String input, String namespace, boolean processComments) throws IOException {
+        StringWriter writer = new StringWriter();
+        new TinyRewriter(new Ripple(PROCESSORS), namespace, processComments).rewrite(new StringReader(input), writer);
+        return writer.toString();
+    }
+
+    @Test
+    void rewritesTinyV1() throws IOException {
+        String expected = lines(
+            "v1\tofficial\tintermediary\tnamed",
+            "CLASS\ta\tnet/minecraft/class_1\tnet/minecraft/tile/TileEntity",
+            "CLASS\ta$b\tnet/minecraft/class_1$class_2\tnet/minecraft/tile/TileEntity$Nested",
+            "CLASS\tc\tnet/minecraft/class_3\tnet/minecraft/item/ItemStack",
+            "FIELD\ta\tI\tb\tfield_1\ttileCount",
+            "METHOD\ta\t(Lc;)V\tc\tmethod_1\tsetTileEntity",
+            "METHOD\tc\t()Z\td\tmethod_2\tisEmpty"
+        );
+
+        assertEquals(expected, rewrite(TINY_V1, "named", false));
+        assertEquals(TINY_V1, rewrite(TINY_V1, "intermediary", false));
+    }
+
+    @Test
+    void rewritesTinyV2() throws IOException {
+        String expected = lines(
+            "tiny\t2\t0\tintermediary\tnamed",
+            "\tescaped-names",
+            "c\tnet/minecraft/class_1\tnet/minecraft/tile/TileEntity",
+            "\tc\tA Block that has\\ta count.",
+            "\tf\tI\tfield_1\ttileCount",
+            "\tf\tI\tfield_2\ttile\u00c4rger",
+            "\tm\t(Lnet/minecraft/class_3;I)V\tmethod_1\tsetTileEntity",
+            "\t\tp\t1\t\ttileEntity",
+            "\t\tp\t2\t\tamount",
+            "\t\tv\t3\t5\t-1\t\ttileCountInner",
+            "c\tnet/minecraft/class_1$class_2\tnet/minecraft/tile/TileEntity$Nested",
+            "c\tnet/minecraft/class_3\tnet/minecraft/item/ItemStack",
+            "\tm\t()Z\tmethod_2\tisEmpty"
+        );
+
+        assertEquals(expected, rewrite(TINY_V2, "named", false));
+    }
+
+    @Test
+    void processesCommentsWhenAsked() throws IOException {
+        String output = rewrite(TINY_V2, "named", true);
+        // The comment is unescaped for processing and escaped again
+        assertEquals("\tc\tA Tile that has\\ta amount.", output.split("\n")[3]);
+    }
+
+    @Test
+    void matchesLorenz() throws IOException {
+        for (String input : new String[] { TINY_V1, TINY_V2 }) {
+            Path inputFile = tempDir.resolve("input.tiny");
+            Path outputFile = tempDir.resolve("output.tiny");
+            Files.write(inputFile, input.getBytes(StandardCharsets.UTF_8));
+
+            Ripple ripple = new Ripple(PROCESSORS);
+            new TinyRewriter(ripple, "named").rewrite(inputFile, outputFile);
+
+            List<String> expected = MappingSets.describe(ripple.process(read(inputFile)));
+            assertNotEquals(MappingSets.describe(read(inputFile)), expected);
+            assertEquals(expected, MappingSets.describe(read(outputFile)));
+        }
+    }
+
+    @Test
+    void rewritersProduceSameFiles() throws IOException {
+        Path input = tempDir.resolve("input.tiny");
+        Path output = tempDir.resolve("output.tiny");
+        Path mappedOutput = tempDir.resolve("mapped-output.tiny");
+
+        // Both rewriters write all line terminators as \n
+        String crlf = TINY_V2.replace("\n", "\r\n");
+        String cr = TINY_V1.replace("\n", "\r");
+        String unterminated = TINY_V2.substring(0, TINY_V2.length() - 1);
+
+        for (String tiny : new String[] { TINY_V1, TINY_V2, crlf, cr, unterminated }) {
+            Files.write(input, tiny.getBytes(StandardCharsets.UTF_8));
+
+            for (Ripple ripple : new Ripple[] { new Ripple(PROCESSORS), Ripple.builder(PROCESSORS).compile(true).build() }) {
+                for (String namespace : new String[] { "intermediary", "named" }) {
+                    for (boolean processComments : new boolean[] { false, true }) {
+                        new TinyRewriter(ripple, namespace, processComments).rewrite(input, output);
+                        new MappedTinyRewriter(ripple, namespace, processComments).rewrite(input, mappedOutput);
+                        assertArrayEquals(Files.readAllBytes(output), Files.readAllBytes(mappedOutput));
+                    }
+                }
+            }
+        }
+    }
+
+    private static MappingSet read(Path path) throws IOException {
+        return TinyMappingFormat.DETECT.read(path, "intermediary", "named");
+    }
+}
@@ -0,0 +1,489 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package juuxel.ripple.generator;
+
+import juuxel.ripple.NameType;
+import juuxel.ripple.processor.FilteredProcessor;
+import juuxel.ripple.processor.NameProcessor;
+import juuxel.ripple.processor.NameProcessorIo;
+import juuxel.ripple.processor.RenameRule;
+import org.cadixdev.bombe.type.signature.FieldSignature;
+import org.cadixdev.bombe.type.signature.MethodSignature;
+import org.cadixdev.lorenz.MappingSet;
+import org.cadixdev.lorenz.model.ClassMapping;
+import org.cadixdev.lorenz.model.MethodMapping;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Generates synthetic deobfuscation mappings and matching rename rules.
+ *
+ * <p>The output only depends on the {@linkplain MappingShape shape} and the seed, so every generator
+ * created with the same arguments produces the same mappings in every format. The mappings have
+ * two namespaces, {@code intermediary} and {@code named}. Intermediary names are unique sequential names
+ * like {@code class_1} and {@code method_2}, and named names are camel case combinations of words from
+ * a generated vocabulary. Method names are picked from a fixed pool, so they repeat across classes like
+ * overridden methods do in real mappings.
+ */
+public final class MappingGenerator {
+    /** The source namespace of generated Tiny files. */
+    public static final String INTERMEDIARY = "intermediary";
+    /** The target namespace of generated Tiny files. */
+    public static final String NAMED = "named";
+
+    private static final String[] SYLLABLES = {
+        "ba", "be", "bi", "bo", "ca", "ce", "co", "da", "de", "di", "do", "en", "fa", "fe", "ga", "ge",
+        "ha", "he", "in", "ka", "ke", "la", "le", "li", "lo", "ma", "me", "mi", "mo", "na", "ne", "no",
+        "pa", "pe", "po", "ra", "re", "ri", "ro", "sa", "se", "si", "so", "ta", "te", "ti", "to", "va",
+        "ve", "vi", "wa", "we", "za", "ze", "ock", "ent", "ity", "pos", "tor", "ack", "ite", "ure",
+    };
+    private static final String[] FIELD_TYPES = {"I", "J", "Z", "F", "D", "Ljava/lang/String;", "[I", "Ljava/util/List;"};
+    private static final String[] RETURN_TYPES = {"V", "V", "I", "Z", "Ljava/lang/Object;", "Ljava/lang/String;"};
+
+    private final MappingShape shape;
+    private final long seed;
+    private final String[] vocabulary;
+    private final String[] methodNames;
+
+    /**
+     * Constructs a mapping generator.
+     *
+     * @param shape the shape of the generated mappings
+     * @param seed  the random seed
+     */
+    public MappingGenerator(MappingShape shape, long seed) {
+        this.shape = shape;
+        this.seed = seed;
+
+        Random random = new Random(seed);
+        vocabulary = generateVocabulary(random, shape.getVocabularySize());
+        methodNames = new String[shape.getMethodNamePoolSize()];
+
+        for (int i = 0; i < methodNames.length; i++) {
+            methodNames[i] = methodName(random);
+        }
+    }
+
+    private static String[] generateVocabulary(Random random, int size) {
+        Set<String> words = new HashSet<>();
+        List<String> result = new ArrayList<>(size);
+
+        while (result.size() < size) {
+            StringBuilder sb = new StringBuilder();
+
+            for (int i = 2 + random.nextInt(2); i > 0; i--) {
+                sb.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+            }
+
+            // Fall back to numbered words if the syllables run out
+            String word = words.size() < SYLLABLES.length * SYLLABLES.length ? sb.toString() : sb.toString() + result.size();
+
+            if (words.add(word)) {
+                result.add(word);
+            }
+        }
+
+        return result.toArray(new String[0]);
+    }
+
+    /**
+     * Gets the words that generated names are made of.
+     *
+     * @return a copy of the vocabulary
+     */
+    public String[] getVocabulary() {
+        return vocabulary.clone();
+    }
+
+    /**
+     * Generates the mappings as a Lorenz mapping set from intermediary to named names.
+     *
+     * @return the generated mapping set
+     */
+    public MappingSet generateMappingSet() {
+        MappingSet mappings = MappingSet.create();
+
+        try {
+            generate(new LorenzSink(mappings));
+        } catch (IOException e) {
+            // The Lorenz sink doesn't do any I/O
+            throw new UncheckedIOException(e);
+        }
+
+        return mappings;
+    }
+
+    /**
+     * Writes the mappings to a Tiny file.
+     *
+     * @param path    the output file
+     * @param version the Tiny major version, 1 or 2
+     * @throws IOException if an I/O error occurs
+     */
+    public void writeTiny(Path path, int version) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+            writeTiny(writer, version);
+        }
+    }
+
+    /**
+     * Writes the mappings in the Tiny format. The writer is not closed.
+     *
+     * @param writer  the output writer
+     * @param version the Tiny major version, 1 or 2
+     * @throws IOException if an I/O error occurs
+     */
+    public void writeTiny(Writer writer, int version) throws IOException {
+        if (version == 1) {
+            generate(new TinyV1Sink(writer));
+        } else if (version == 2) {
+            generate(new TinyV2Sink(writer));
+        } else {
+            throw new IllegalArgumentException("Unsupported Tiny version: " + version);
+        }
+
+        writer.flush();
+    }
+
+    /**
+     * Generates the given number of method names. Like in the mappings, they're picked from the method name pool.
+     *
+     * @param count the number of names
+     * @return the names
+     */
+    public String[] generateMethodNames(int count) {
+        Random random = new Random(seed ^ 0x4E414D45L);
+        String[] names = new String[count];
+
+        for (int i = 0; i < count; i++) {
+            names[i] = methodNames[random.nextInt(methodNames.length)];
+        }
+
+        return names;
+    }
+
+    /**
+     * Generates rename rules that match words in the generated names.
+     *
+     * <p>Substring rules rename a capitalised word, exact rules rename a method name from the pool,
+     * and filtered rules are substring rules that only apply to fields and parameters.
+     * The {@code from} strings are distinct.
+     *
+     * @param count         the number of rules
+     * @param exactRatio    the fraction of exact rules
+     * @param filteredRatio the fraction of filtered rules among the non-exact rules
+     * @return the rules
+     */
+    public List<NameProcessor<?>> generateRules(int count, double exactRatio, double filteredRatio) {
+        Random random = new Random(seed ^ 0x52554C45L);
+        List<NameProcessor<?>> rules = new ArrayList<>(count);
+        Set<String> usedFroms = new HashSet<>();
+
+        for (int i = 0; i < count; i++) {
+            boolean exact = random.nextDouble() < exactRatio;
+            String from;
+
+            do {
+                if (exact) {
+                    from = methodNames[random.nextInt(methodNames.length)];
+                } else {
+                    from = capitalize(vocabulary[random.nextInt(vocabulary.length)]);
+                }
+
+                // Derive new names once the pool or the vocabulary is used up
+                if (usedFroms.contains(from) && usedFroms.size() >= (exact ? methodNames.length : vocabulary.length)) {
+                    from = from + usedFroms.size();
+                }
+            } while (!usedFroms.add(from));
+
+            String to = exact ? from + "Renamed" : capitalize(vocabulary[random.nextInt(vocabulary.length)]);
+            RenameRule rule = new RenameRule(from, to, exact);
+
+            if (!exact && random.nextDouble() < filteredRatio) {
+                rules.add(new FilteredProcessor<>(rule, EnumSet.of(NameType.FIELD, NameType.PARAMETER)));
+            } else {
+                rules.add(rule);
+            }
+        }
+
+        return rules;
+    }
+
+    /**
+     * Writes rename rules generated by {@link #generateRules(int, double, double)} to a JSON file
+     * in the {@linkplain NameProcessorIo#readAll format of rule files}.
+     *
+     * @param path          the output file
+     * @param count         the number of rules
+     * @param exactRatio    the fraction of exact rules
+     * @param filteredRatio the fraction of filtered rules among the non-exact rules
+     * @throws IOException if an I/O error occurs
+     */
+    public void writeRules(Path path, int count, double exactRatio, double filteredRatio) throws IOException {
+        String json = NameProcessorIo.toJson(generateRules(count, exactRatio, filteredRatio)).toJson(true, true);
+        Files.write(path, json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void generate(Sink sink) throws IOException {
+        Random random = new Random(seed);
+        Counters counters = new Counters();
+
+        for (int i = 0; i < shape.getClassCount(); i++) {
+            String packageName = vocabulary[random.nextInt(vocabulary.length)];
+            String name = "net/minecraft/" + packageName + "/" + capitalize(name(random));
+            generateClass(sink, random, counters, "net/minecraft/class_" + counters.classes++, name, 0);
+        }
+    }
+
+    private void generateClass(Sink sink, Random random, Counters counters, String obfName, String name, int depth) throws IOException {
+        sink.startClass(obfName, name, comment(random));
+
+        for (int i = random.nextInt(shape.getMaxMethods() + 1); i > 0; i--) {
+            int parameterCount = random.nextInt(shape.getMaxParameters() + 1);
+            String[] parameterTypes = new String[parameterCount];
+            StringBuilder descriptor = new StringBuilder("(");
+
+            for (int j = 0; j < parameterCount; j++) {
+                parameterTypes[j] = FIELD_TYPES[random.nextInt(FIELD_TYPES.length)];
+                descriptor.append(parameterTypes[j]);
+            }
+
+            descriptor.append(')').append(RETURN_TYPES[random.nextInt(RETURN_TYPES.length)]);
+            sink.method("method_" + counters.methods++, descriptor.toString(), methodNames[random.nextInt(methodNames.length)], comment(random));
+
+            // Local variable indices of an instance method
+            int index = 1;
+            for (String type : parameterTypes) {
+                sink.parameter(index, uncapitalize(name(random)));
+                index += type.equals("J") || type.equals("D") ? 2 : 1;
+            }
+        }
+
+        for (int i = random.nextInt(shape.getMaxFields() + 1); i > 0; i--) {
+            String type = FIELD_TYPES[random.nextInt(FIELD_TYPES.length)];
+            sink.field("field_" + counters.fields++, type, uncapitalize(name(random)), comment(random));
+        }
+
+        if (depth < shape.getMaxInnerClassDepth()) {
+            for (int i = random.nextInt(shape.getMaxInnerClasses() + 1); i > 0; i--) {
+                generateClass(sink, random, counters, "class_" + counters.classes++, capitalize(name(random)), depth + 1);
+            }
+        }
+
+        sink.endClass();
+    }
+
+    private String name(Random random) {
+        StringBuilder sb = new StringBuilder();
+
+        for (int i = 1 + random.nextInt(shape.getMaxWordsPerName()); i > 0; i--) {
+            sb.append(capitalize(vocabulary[random.nextInt(vocabulary.length)]));
+        }
+
+        return sb.toString();
+    }
+
+    private String methodName(Random random) {
+        String[] prefixes = {"get", "set", "is", "create", "update", "on", ""};
+        String prefix = prefixes[random.nextInt(prefixes.length)];
+        String name = name(random);
+        return prefix.isEmpty() ? uncapitalize(name) : prefix + name;
+    }
+
+    private @Nullable String comment(Random random) {
+        if (random.nextDouble() >= shape.getCommentChance()) {
+            return null;
+        }
+
+        return "Handles the " + vocabulary[random.nextInt(vocabulary.length)] + " of the " + vocabulary[random.nextInt(vocabulary.length)] + ".";
+    }
+
+    private static String capitalize(String str) {
+        return str.substring(0, 1).toUpperCase(Locale.ROOT) + str.substring(1);
+    }
+
+    private static String uncapitalize(String str) {
+        return str.substring(0, 1).toLowerCase(Locale.ROOT) + str.substring(1);
+    }
+
+    private static final class Counters {
+        int classes = 0;
+        int methods = 0;
+        int fields = 0;
+    }
+
+    /**
+     * Receives the generated mappings. Inner class names are given without their outer classes.
+     */
+    private interface Sink {
+        void startClass(String obfName, String name, @Nullable String comment) throws IOException;
+
+        void method(String obfName, String descriptor, String name, @Nullable String comment) throws IOException;
+
+        void parameter(int index, String name) throws IOException;
+
+        void field(String obfName, String descriptor, String name, @Nullable String comment) throws IOException;
+
+        void endClass() throws IOException;
+    }
+
+    private static final class LorenzSink implements Sink {
+        private final MappingSet mappings;
+        private final Deque<ClassMapping<?, ?>> classes = new ArrayDeque<>();
+        private @Nullable MethodMapping method;
+
+        LorenzSink(MappingSet mappings) {
+            this.mappings = mappings;
+        }
+
+        @Override
+        public void startClass(String obfName, String name, @Nullable String comment) {
+            ClassMapping<?, ?> outer = classes.peek();
+            classes.push(outer == null
+                ? mappings.createTopLevelClassMapping(obfName, name)
+                : outer.createInnerClassMapping(obfName, name));
+        }
+
+        @Override
+        public void method(String obfName, String descriptor, String name, @Nullable String comment) {
+            method = classes.getFirst().createMethodMapping(MethodSignature.of(obfName, descriptor), name);
+        }
+
+        @Override
+        public void parameter(int index, String name) {
+            if (method != null) {
+                method.createParameterMapping(index, name);
+            }
+        }
+
+        @Override
+        public void field(String obfName, String descriptor, String name, @Nullable String comment) {
+            classes.getFirst().createFieldMapping(FieldSignature.of(obfName, descriptor), name);
+        }
+
+        @Override
+        public void endClass() {
+            classes.pop();
+            method = null;
+        }
+    }
+
+    /**
+     * A sink for Tiny files, which refer to inner classes with their full names.
+     */
+    private abstract static class TinySink implements Sink {
+        final Writer writer;
+        private final Deque<String[]> classes = new ArrayDeque<>();
+
+        TinySink(Writer writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        public final void startClass(String obfName, String name, @Nullable String comment) throws IOException {
+            String[] outer = classes.peek();
+
+            if (outer != null) {
+                obfName = outer[0] + '$' + obfName;
+                name = outer[1] + '$' + name;
+            }
+
+            classes.push(new String[] {obfName, name});
+            writeClass(obfName, name, comment);
+        }
+
+        abstract void writeClass(String obfName, String name, @Nullable String comment) throws IOException;
+
+        final String getObfClassName() {
+            return classes.getFirst()[0];
+        }
+
+        @Override
+        public void endClass() {
+            classes.pop();
+        }
+    }
+
+    private static final class TinyV1Sink extends TinySink {
+        TinyV1Sink(Writer writer) throws IOException {
+            super(writer);
+            writer.write("v1\t" + INTERMEDIARY + "\t" + NAMED + "\n");
+        }
+
+        @Override
+        void writeClass(String obfName, String name, @Nullable String comment) throws IOException {
+            writer.write("CLASS\t" + obfName + "\t" + name + "\n");
+        }
+
+        @Override
+        public void method(String obfName, String descriptor, String name, @Nullable String comment) throws IOException {
+            writer.write("METHOD\t" + getObfClassName() + "\t" + descriptor + "\t" + obfName + "\t" + name + "\n");
+        }
+
+        @Override
+        public void parameter(int index, String name) {
+            // Tiny v1 doesn't support parameters
+        }
+
+        @Override
+        public void field(String obfName, String descriptor, String name, @Nullable String comment) throws IOException {
+            writer.write("FIELD\t" + getObfClassName() + "\t" + descriptor + "\t" + obfName + "\t" + name + "\n");
+        }
+    }
+
+    private static final class TinyV2Sink extends TinySink {
+        TinyV2Sink(Writer writer) throws IOException {
+            super(writer);
+            writer.write("tiny\t2\t0\t" + INTERMEDIARY + "\t" + NAMED + "\n");
+        }
+
+        @Override
+        void writeClass(String obfName, String name, @Nullable String comment) throws IOException {
+            writer.write("c\t" + obfName + "\t" + name + "\n");
+            writeComment("\t", comment);
+        }
+
+        @Override
+        public void method(String obfName, String descriptor, String name, @Nullable String comment) throws IOException {
+            writer.write("\tm\t" + descriptor + "\t" + obfName + "\t" + name + "\n");
+            writeComment("\t\t", comment);
+        }
+
+        @Override
+        public void parameter(int index, String name) throws IOException {
+            writer.write("\t\tp\t" + index + "\t\t" + name + "\n");
+        }
+
+        @Override
+        public void field(String obfName, String descriptor, String name, @Nullable String comment) throws IOException {
+            writer.write("\tf\t" + descriptor + "\t" + obfName + "\t" + name + "\n");
+            writeComment("\t\t", comment);
+        }
+
+        private void writeComment(String indent, @Nullable String comment) throws IOException {
+            if (comment != null) {
+                writer.write(indent + "c\t" + comment + "\n");
+            }
+        }
+    }
+}
@@ -0,0 +1,295 @@
+/*
+ * This Source Code Form is subject to the terms of the Mozilla Public
+ * License, v. 2.0. If a copy of the MPL was not distributed with this
+ * file, You can obtain one at http://mozilla.org/MPL/2.0/.
+ */
+
+package juuxel.ripple.generator;
+
+/**
+ * The shape of mappings created by a {@link MappingGenerator}.
+ *
+ * <p>All "maximum" counts are inclusive upper bounds of uniformly distributed random counts.
+ */
+public final class MappingShape {
+    private final int classCount;
+    private final int maxInnerClassDepth;
+    private final int maxInnerClasses;
+    private final int maxMethods;
+    private final int maxParameters;
+    private final int maxFields;
+    private final int methodNamePoolSize;
+    private final int vocabularySize;
+    private final int maxWordsPerName;
+    private final double commentChance;
+
+    private MappingShape(Builder builder) {
+        this.classCount = builder.classCount;
+        this.maxInnerClassDepth = builder.maxInnerClassDepth;
+        this.maxInnerClasses = builder.maxInnerClasses;
+        this.maxMethods = builder.maxMethods;
+        this.maxParameters = builder.maxParameters;
+        this.maxFields = builder.maxFields;
+        this.methodNamePoolSize = builder.methodNamePoolSize;
+        this.vocabularySize = builder.vocabularySize;
+        this.maxWordsPerName = builder.maxWordsPerName;
+        this.commentChance = builder.commentChance;
+    }
+
+    /**
+     * Creates a builder for a mapping shape. The defaults roughly match a Yarn release.
+     *
+     * @return the builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Gets the number of top-level classes.
+     *
+     * @return the number of top-level classes
+     */
+    public int getClassCount() {
+        return classCount;
+    }
+
+    /**
+     * Gets the maximum nesting depth of inner classes.
+     *
+     * @return the maximum nesting depth of inner classes
+     */
+    public int getMaxInnerClassDepth() {
+        return maxInnerClassDepth;
+    }
+
+    /**
+     * Gets the maximum number of direct inner classes of a class.
+     *
+     * @return the maximum number of direct inner classes of a class
+     */
+    public int getMaxInnerClasses() {
+        return maxInnerClasses;
+    }
+
+    /**
+     * Gets the maximum number of methods in a class.
+     *
+     * @return the maximum number of methods in a class
+     */
+    public int getMaxMethods() {
+        return maxMethods;
+    }
+
+    /**
+     * Gets the maximum number of parameters of a method.
+     *
+     * @return the maximum number of parameters of a method
+     */
+    public int getMaxParameters() {
+        return maxParameters;
+    }
+
+    /**
+     * Gets the maximum number of fields in a class.
+     *
+     * @return the maximum number of fields in a class
+     */
+    public int getMaxFields() {
+        return maxFields;
+    }
+
+    /**
+     * Gets the number of distinct method names, which are reused across classes.
+     *
+     * @return the number of distinct method names
+     */
+    public int getMethodNamePoolSize() {
+        return methodNamePoolSize;
+    }
+
+    /**
+     * Gets the number of distinct words that names are made of.
+     *
+     * @return the number of distinct words that names are made of
+     */
+    public int getVocabularySize() {
+        return vocabularySize;
+    }
+
+    /**
+     * Gets the maximum number of words in a name.
+     *
+     * @return the maximum number of words in a name
+     */
+    public int getMaxWordsPerName() {
+        return maxWordsPerName;
+    }
+
+    /**
+     * Gets the probability of a class or member having a comment in Tiny v2 files.
+     *
+     * @return the probability of a class or member having a comment in Tiny v2 files
+     */
+    public double getCommentChance() {
+        return commentChance;
+    }
+
+    /**
+     * A builder for {@link MappingShape}s.
+     */
+    public static final class Builder {
+        private int classCount = 10_000;
+        private int maxInnerClassDepth = 2;
+        private int maxInnerClasses = 2;
+        private int maxMethods = 12;
+        private int maxParameters = 4;
+        private int maxFields = 6;
+        private int methodNamePoolSize = 20_000;
+        private int vocabularySize = 2_000;
+        private int maxWordsPerName = 3;
+        private double commentChance = 0.1;
+
+        private Builder() {
+        }
+
+        /**
+         * Sets the number of top-level classes.
+         *
+         * @param classCount the number of top-level classes
+         * @return this builder
+         */
+        public Builder classCount(int classCount) {
+            this.classCount = requireNonNegative(classCount, "class count");
+            return this;
+        }
+
+        /**
+         * Sets the maximum nesting depth of inner classes.
+         *
+         * @param maxInnerClassDepth the maximum nesting depth of inner classes
+         * @return this builder
+         */
+        public Builder maxInnerClassDepth(int maxInnerClassDepth) {
+            this.maxInnerClassDepth = requireNonNegative(maxInnerClassDepth, "maximum inner class depth");
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of direct inner classes of a class.
+         *
+         * @param maxInnerClasses the maximum number of direct inner classes of a class
+         * @return this builder
+         */
+        public Builder maxInnerClasses(int maxInnerClasses) {
+            this.maxInnerClasses = requireNonNegative(maxInnerClasses, "maximum inner class count");
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of methods in a class.
+         *
+         * @param maxMethods the maximum number of methods in a class
+         * @return this builder
+         */
+        public Builder maxMethods(int maxMethods) {
+            this.maxMethods = requireNonNegative(maxMethods, "maximum method count");
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of parameters of a method.
+         *
+         * @param maxParameters the maximum number of parameters of a method
+         * @return this builder
+         */
+        public Builder maxParameters(int maxParameters) {
+            this.maxParameters = requireNonNegative(maxParameters, "maximum parameter count");
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of fields in a class.
+         *
+         * @param maxFields the maximum number of fields in a class
+         * @return this builder
+         */
+        public Builder maxFields(int maxFields) {
+            this.maxFields = requireNonNegative(maxFields, "maximum field count");
+            return this;
+        }
+
+        /**
+         * Sets the number of distinct method names.
+         *
+         * @param methodNamePoolSize the number of distinct method names
+         * @return this builder
+         */
+        public Builder methodNamePoolSize(int methodNamePoolSize) {
+            this.methodNamePoolSize = requirePositive(methodNamePoolSize, "method name pool size");
+            return this;
+        }
+
+        /**
+         * Sets the number of distinct words in names.
+         *
+         * @param vocabularySize the number of distinct words in names
+         * @return this builder
+         */
+        public Builder vocabularySize(int vocabularySize) {
+            this.vocabularySize = requirePositive(vocabularySize, "vocabulary size");
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of words in a name.
+         *
+         * @param maxWordsPerName the maximum number of words in a name
+         * @return this builder
+         */
+        public Builder maxWordsPerName(int maxWordsPerName) {
+            this.maxWordsPerName = requirePositive(maxWordsPerName, "maximum words per name");
+            return this;
+        }
+
+        /**
+         * Sets the probability of a class or member having a comment.
+         *
+         * @param commentChance the probability of a class or member having a comment
+         * @return this builder
+         */
+        public Builder commentChance(double commentChance) {
+            if (!(commentChance >= 0 && commentChance <= 1)) {
+                throw new IllegalArgumentException("Comment chance must be between 0 and 1, got " + commentChance);
+            }
+
+            this.commentChance = commentChance;
+            return this;
+        }
+
+        /**
+         * Builds the mapping shape.
+         *
+         * @return the built shape
+         */
+        public MappingShape build() {
+            return new MappingShape(this);
+        }
+
+        private static int requireNonNegative(int value, String name) {
+            if (value < 0) {
+                throw new IllegalArgumentException("The " + name + " must not be negative, got " + value);
+            }
+
+            return value;
+        }
+
+        private static int requirePositive(int value, String name) {
+            if (value <= 0) {
+                throw new IllegalArgumentException("The " + name + " must be positive, got " + value);
+            }
+
+            return value;
+        }
+    }
+}